@@ -0,0 +1,60 @@
+package com.thiepCuoi.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí escape một giá trị theo từng ngữ cảnh, với giá trị không cần escape và giá trị có ký tự đặc biệt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EscapeContextBenchmark {
+
+    @Param({"plain", "special"})
+    private String kind;
+
+    private String value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        value = kind.equals("plain")
+                ? "Nguyễn Văn An và Trần Thị Bình trân trọng kính mời"
+                : "<b>An & Bình</b> \"kính mời\" 'quý khách' tại https://example.com/?a=1&b=2";
+    }
+
+    @Benchmark
+    public String escapeHtmlText() {
+        return EscapeContext.HTML_TEXT.escape(value);
+    }
+
+    @Benchmark
+    public String escapeHtmlAttribute() {
+        return EscapeContext.HTML_ATTRIBUTE.escape(value);
+    }
+
+    @Benchmark
+    public String escapeUrlParameter() {
+        return EscapeContext.URL_PARAMETER.escape(value);
+    }
+
+    @Benchmark
+    public String escapeCss() {
+        return EscapeContext.CSS.escape(value);
+    }
+}
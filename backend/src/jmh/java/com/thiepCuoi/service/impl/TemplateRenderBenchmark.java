@@ -0,0 +1,159 @@
+package com.thiepCuoi.service.impl;
+
+import com.thiepCuoi.repository.entity.CardTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark cho TemplateRenderService với template 5 KB, 50 KB, 500 KB và số biến khác nhau.
+ * Chạy kèm "-prof gc" để xem tốc độ cấp phát (gc.alloc.rate.norm) bên cạnh throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int templateSizeKb;
+
+    @Param({"10", "100"})
+    private int variableCount;
+
+    private TemplateRenderServiceImpl renderService;
+    private CardTemplate cardTemplate;
+    private CompiledTemplate compiledHtml;
+    private String htmlTemplate;
+    private String cssTemplate;
+    private String templateVariables;
+    private Map<String, String> customData;
+    private Map<String, String> editedData;
+    private String renderedHtml;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        renderService = new TemplateRenderServiceImpl();
+        renderService.initRenderCache();
+
+        htmlTemplate = buildHtml(templateSizeKb * 1024, variableCount);
+        cssTemplate = buildCss(Math.max(1024, templateSizeKb * 1024 / 5), variableCount);
+        templateVariables = buildTemplateVariables(variableCount);
+        customData = buildCustomData(variableCount);
+
+        // Giống thao tác sửa thiệp thường gặp: chỉ đổi lời nhắn
+        editedData = new HashMap<>(customData);
+        editedData.put("var_0", "Trân trọng kính mời <gia đình> & bạn bè");
+
+        cardTemplate = new CardTemplate();
+        cardTemplate.setId(1L);
+        cardTemplate.setVersion("1.0");
+        cardTemplate.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        cardTemplate.setHtmlContent(htmlTemplate);
+        cardTemplate.setCssContent(cssTemplate);
+        cardTemplate.setTemplateVariables(templateVariables);
+
+        compiledHtml = CompiledTemplate.parseHtml(htmlTemplate);
+        renderedHtml = compiledHtml.render(customData);
+    }
+
+    // Đường cũ: phân tích template mỗi lần gọi
+    @Benchmark
+    public String renderHtmlFromSource() {
+        return renderService.renderHtml(htmlTemplate, customData);
+    }
+
+    // Đường chính: template đã biên dịch và cache theo ID + revision
+    @Benchmark
+    public String renderHtmlCompiled() {
+        return renderService.renderHtml(cardTemplate, customData);
+    }
+
+    @Benchmark
+    public String renderCssCompiled() {
+        return renderService.renderCss(cardTemplate, customData);
+    }
+
+    @Benchmark
+    public String rerenderOneChangedVariable() {
+        return compiledHtml.rerender(renderedHtml, customData, editedData);
+    }
+
+    @Benchmark
+    public boolean validateFromSource() {
+        return renderService.validateTemplateData(templateVariables, customData);
+    }
+
+    @Benchmark
+    public boolean validateCompiled() {
+        return renderService.validateTemplateData(cardTemplate, customData);
+    }
+
+    private static String buildHtml(int targetLength, int variableCount) {
+        StringBuilder html = new StringBuilder(targetLength + 512);
+        html.append("<div class=\"card\"><h1 class=\"names\">{{groom_name}} &amp; {{bride_name}}</h1>");
+        int section = 0;
+        while (html.length() < targetLength) {
+            String variable = "{{var_" + (section % variableCount) + "}}";
+            html.append("<section class=\"block block-").append(section).append("\" title=\"").append(variable).append("\">")
+                    .append("<p class=\"message\">Trân trọng kính mời quý khách đến dự lễ thành hôn của chúng tôi. ")
+                    .append(variable)
+                    .append("</p><a href=\"https://maps.example.com/?q=").append(variable).append("\">Xem bản đồ</a>")
+                    .append("<span style=\"color: {{primary_color}}\">{{wedding_date}} - {{wedding_time}}</span>")
+                    .append("</section>\n");
+            section++;
+        }
+        return html.append("</div>").toString();
+    }
+
+    private static String buildCss(int targetLength, int variableCount) {
+        StringBuilder css = new StringBuilder(targetLength + 256);
+        int rule = 0;
+        while (css.length() < targetLength) {
+            css.append(".block-").append(rule).append(" { color: {{primary_color}}; font-family: {{var_")
+                    .append(rule % variableCount).append("}}; margin: 8px 0; padding: 4px 12px; }\n");
+            rule++;
+        }
+        return css.toString();
+    }
+
+    private static String buildTemplateVariables(int variableCount) {
+        StringBuilder json = new StringBuilder("{\"groom_name\": \"Tên chú rể\", \"bride_name\": \"Tên cô dâu\", ")
+                .append("\"wedding_date\": {\"label\": \"Ngày cưới\", \"required\": true, \"format\": \"date\"}, ")
+                .append("\"wedding_time\": {\"label\": \"Giờ cưới\", \"format\": \"time\"}, ")
+                .append("\"primary_color\": {\"label\": \"Màu chủ đạo\", \"maxLength\": 20}");
+        for (int i = 0; i < variableCount; i++) {
+            json.append(", \"var_").append(i).append("\": {\"label\": \"Biến ").append(i).append("\", \"maxLength\": 500}");
+        }
+        return json.append('}').toString();
+    }
+
+    private static Map<String, String> buildCustomData(int variableCount) {
+        Map<String, String> data = new HashMap<>();
+        data.put("groom_name", "Nguyễn Văn An");
+        data.put("bride_name", "Trần Thị Bình");
+        data.put("wedding_date", "2024-12-20");
+        data.put("wedding_time", "18:30");
+        data.put("primary_color", "#c0392b");
+        for (int i = 0; i < variableCount; i++) {
+            data.put("var_" + i, i % 3 == 0 ? "Lời nhắn số " + i + " & <lời chúc>" : "Giá trị " + i);
+        }
+        return data;
+    }
+}
@@ -1,6 +1,8 @@
 package com.thiepCuoi.api.v1.controller;
 
 import com.thiepCuoi.model.dto.*;
+import com.thiepCuoi.security.JwtUserPrincipal;
+import com.thiepCuoi.security.RefreshTokenCookies;
 import com.thiepCuoi.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -20,6 +22,9 @@ public class AuthController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private RefreshTokenCookies refreshTokenCookies;
+    
     @Operation(summary = "Đăng nhập")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Đăng nhập thành công"),
@@ -28,7 +33,7 @@ public class AuthController {
     @PostMapping("/dang_nhap")
     public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginDTO loginDTO) {
         AuthResponseDTO response = authService.login(loginDTO);
-        return ResponseEntity.ok(response);
+        return withRefreshCookie(response);
     }
     
     @Operation(summary = "Đăng ký tài khoản mới")
@@ -52,4 +57,56 @@ public class AuthController {
         UserResponseDTO response = authService.getCurrentUser(authentication.getName());
         return ResponseEntity.ok(response);
     }
+    
+    @Operation(summary = "Làm mới token", description = "Đổi refresh token (cookie refresh_token) lấy access token và refresh token mới; refresh token cũ không dùng lại được")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Làm mới thành công"),
+        @ApiResponse(responseCode = "400", description = "Refresh token không hợp lệ, đã dùng hoặc đã hết hạn")
+    })
+    @PostMapping("/lam_moi_token")
+    public ResponseEntity<AuthResponseDTO> refresh(
+            @CookieValue(name = RefreshTokenCookies.NAME, required = false) String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new RuntimeException("Phiên đăng nhập không hợp lệ, vui lòng đăng nhập lại");
+        }
+        AuthResponseDTO response = authService.refresh(refreshToken);
+        return withRefreshCookie(response);
+    }
+    
+    @Operation(summary = "Đăng xuất", description = "Thu hồi phiên hiện tại (theo access token, hoặc refresh token nếu access token đã hết hạn)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Đăng xuất thành công")
+    })
+    @PostMapping("/dang_xuat")
+    public ResponseEntity<Void> logout(Authentication authentication,
+                                       @CookieValue(name = RefreshTokenCookies.NAME, required = false) String refreshToken) {
+        authService.logout(sessionIdOf(authentication), refreshToken != null && !refreshToken.isBlank() ? refreshToken : null);
+        return ResponseEntity.noContent().headers(refreshTokenCookies.clear()).build();
+    }
+    
+    @Operation(summary = "Đổi mật khẩu", description = "Đăng xuất mọi phiên đang mở và trả về token của phiên mới")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Đổi mật khẩu thành công"),
+        @ApiResponse(responseCode = "400", description = "Mật khẩu hiện tại không chính xác hoặc mật khẩu mới không hợp lệ"),
+        @ApiResponse(responseCode = "401", description = "Chưa đăng nhập")
+    })
+    @PostMapping("/doi_mat_khau")
+    public ResponseEntity<AuthResponseDTO> changePassword(Authentication authentication,
+                                                          @Valid @RequestBody ChangePasswordDTO changePasswordDTO) {
+        AuthResponseDTO response = authService.changePassword(authentication.getName(), sessionIdOf(authentication), changePasswordDTO);
+        return withRefreshCookie(response);
+    }
+    
+    // Refresh token được gửi trong cookie HttpOnly, không có trong JSON trả về
+    private ResponseEntity<AuthResponseDTO> withRefreshCookie(AuthResponseDTO response) {
+        return ResponseEntity.ok().headers(refreshTokenCookies.write(response.getRefreshToken())).body(response);
+    }
+    
+    // Claim sid của access token hiện tại (null nếu chưa đăng nhập hoặc token cấp trước khi có refresh token)
+    private static String sessionIdOf(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof JwtUserPrincipal principal) {
+            return principal.getSessionId();
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.thiepCuoi.api.v1.controller;
 
+import com.thiepCuoi.config.HttpCachePolicy;
 import com.thiepCuoi.model.dto.CardTemplateDTO;
+import com.thiepCuoi.model.dto.KeysetPage;
 import com.thiepCuoi.service.CardTemplateService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,14 +27,20 @@ public class CardTemplateController {
     @Autowired
     private CardTemplateService cardTemplateService;
     
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+    
     @Operation(summary = "Lấy tất cả mẫu thiệp HTML đang hoạt động")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lấy danh sách thành công")
     })
     @GetMapping
-    public ResponseEntity<List<CardTemplateDTO>> getAllActiveCardTemplates() {
-        List<CardTemplateDTO> cardTemplates = cardTemplateService.getAllActiveCardTemplates();
-        return ResponseEntity.ok(cardTemplates);
+    public ResponseEntity<List<CardTemplateDTO>> getAllActiveCardTemplates(
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số mẫu thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        KeysetPage<CardTemplateDTO> cardTemplates = cardTemplateService.getAllActiveCardTemplates(cursor, size);
+        return httpCachePolicy.page(webRequest, cardTemplates, httpCachePolicy.publicCatalog());
     }
     
     @Operation(summary = "Lấy mẫu thiệp HTML theo template ID")
@@ -40,9 +49,12 @@ public class CardTemplateController {
     })
     @GetMapping("/template/{templateId}")
     public ResponseEntity<List<CardTemplateDTO>> getCardTemplatesByTemplateId(
-            @Parameter(description = "ID của template") @PathVariable Long templateId) {
-        List<CardTemplateDTO> cardTemplates = cardTemplateService.getCardTemplatesByTemplateId(templateId);
-        return ResponseEntity.ok(cardTemplates);
+            @Parameter(description = "ID của template") @PathVariable Long templateId,
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số mẫu thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        KeysetPage<CardTemplateDTO> cardTemplates = cardTemplateService.getCardTemplatesByTemplateId(templateId, cursor, size);
+        return httpCachePolicy.page(webRequest, cardTemplates, httpCachePolicy.publicCatalog());
     }
     
     @Operation(summary = "Lấy mẫu thiệp HTML theo ID")
@@ -52,9 +64,16 @@ public class CardTemplateController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<CardTemplateDTO> getCardTemplateById(
-            @Parameter(description = "ID của mẫu thiệp HTML") @PathVariable Long id) {
+            @Parameter(description = "ID của mẫu thiệp HTML") @PathVariable Long id,
+            WebRequest webRequest) {
+        // Chỉ admin xem được theo ID (SecurityConfig), nên không cho cache dùng chung
+        String etag = cardTemplateService.getCardTemplateEtag(id);
+        ResponseEntity<CardTemplateDTO> notModified = httpCachePolicy.notModified(webRequest, etag, httpCachePolicy.privateResource());
+        if (notModified != null) {
+            return notModified;
+        }
         CardTemplateDTO cardTemplate = cardTemplateService.getCardTemplateById(id);
-        return ResponseEntity.ok(cardTemplate);
+        return ResponseEntity.ok().eTag(etag).cacheControl(httpCachePolicy.privateResource()).body(cardTemplate);
     }
     
     @Operation(summary = "Tạo mẫu thiệp HTML mới")
@@ -111,8 +130,12 @@ public class CardTemplateController {
     })
     @GetMapping("/my-templates")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<CardTemplateDTO>> getMyCardTemplates(Authentication authentication) {
-        List<CardTemplateDTO> cardTemplates = cardTemplateService.getCardTemplatesByCreator(authentication.getName());
-        return ResponseEntity.ok(cardTemplates);
+    public ResponseEntity<List<CardTemplateDTO>> getMyCardTemplates(
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số mẫu thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            Authentication authentication,
+            WebRequest webRequest) {
+        KeysetPage<CardTemplateDTO> cardTemplates = cardTemplateService.getCardTemplatesByCreator(authentication.getName(), cursor, size);
+        return httpCachePolicy.page(webRequest, cardTemplates, httpCachePolicy.privateResource());
     }
 }
\ No newline at end of file
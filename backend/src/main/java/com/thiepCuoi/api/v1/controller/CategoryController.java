@@ -1,5 +1,6 @@
 package com.thiepCuoi.api.v1.controller;
 
+import com.thiepCuoi.config.HttpCachePolicy;
 import com.thiepCuoi.model.dto.CategoryDTO;
 import com.thiepCuoi.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,14 +25,22 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
     
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+    
     @Operation(summary = "Lấy danh sách tất cả danh mục")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lấy danh sách thành công")
     })
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(WebRequest webRequest) {
+        String etag = categoryService.getCategoriesEtag();
+        ResponseEntity<List<CategoryDTO>> notModified = httpCachePolicy.notModified(webRequest, etag, httpCachePolicy.publicCatalog());
+        if (notModified != null) {
+            return notModified;
+        }
         List<CategoryDTO> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().eTag(etag).cacheControl(httpCachePolicy.publicCatalog()).body(categories);
     }
     
     @Operation(summary = "Lấy thông tin danh mục theo ID")
@@ -40,9 +50,15 @@ public class CategoryController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDTO> getCategoryById(
-            @Parameter(description = "ID của danh mục") @PathVariable Long id) {
+            @Parameter(description = "ID của danh mục") @PathVariable Long id,
+            WebRequest webRequest) {
+        String etag = categoryService.getCategoryEtag(id);
+        ResponseEntity<CategoryDTO> notModified = httpCachePolicy.notModified(webRequest, etag, httpCachePolicy.publicCatalog());
+        if (notModified != null) {
+            return notModified;
+        }
         CategoryDTO category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(category);
+        return ResponseEntity.ok().eTag(etag).cacheControl(httpCachePolicy.publicCatalog()).body(category);
     }
     
     @Operation(summary = "Tạo danh mục mới")
@@ -1,6 +1,7 @@
 package com.thiepCuoi.api.v1.controller;
 
 import com.thiepCuoi.model.dto.CustomInvitationDTO;
+import com.thiepCuoi.model.dto.KeysetPage;
 import com.thiepCuoi.service.CustomInvitationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -44,10 +45,13 @@ public class CustomInvitationController {
         @ApiResponse(responseCode = "401", description = "Chưa đăng nhập")
     })
     @GetMapping
-    public ResponseEntity<List<CustomInvitationDTO>> getUserInvitations(Authentication authentication) {
-        List<CustomInvitationDTO> invitations = customInvitationService
-                .getUserInvitations(authentication.getName());
-        return ResponseEntity.ok(invitations);
+    public ResponseEntity<List<CustomInvitationDTO>> getUserInvitations(
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        KeysetPage<CustomInvitationDTO> invitations = customInvitationService
+                .getUserInvitations(authentication.getName(), cursor, size);
+        return ResponseEntity.ok().headers(invitations.toHeaders()).body(invitations.getItems());
     }
     
     @Operation(summary = "Lấy danh sách thiệp đã lưu của người dùng")
@@ -56,10 +60,13 @@ public class CustomInvitationController {
         @ApiResponse(responseCode = "401", description = "Chưa đăng nhập")
     })
     @GetMapping("/da_luu")
-    public ResponseEntity<List<CustomInvitationDTO>> getUserSavedInvitations(Authentication authentication) {
-        List<CustomInvitationDTO> invitations = customInvitationService
-                .getUserSavedInvitations(authentication.getName());
-        return ResponseEntity.ok(invitations);
+    public ResponseEntity<List<CustomInvitationDTO>> getUserSavedInvitations(
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        KeysetPage<CustomInvitationDTO> invitations = customInvitationService
+                .getUserSavedInvitations(authentication.getName(), cursor, size);
+        return ResponseEntity.ok().headers(invitations.toHeaders()).body(invitations.getItems());
     }
     
     @Operation(summary = "Lấy thông tin thiệp tùy chỉnh theo ID")
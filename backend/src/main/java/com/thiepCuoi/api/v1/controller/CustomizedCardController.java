@@ -1,8 +1,15 @@
 package com.thiepCuoi.api.v1.controller;
 
+import com.thiepCuoi.config.HttpCachePolicy;
+import com.thiepCuoi.model.dto.BatchRenderRequestDTO;
 import com.thiepCuoi.model.dto.CustomizedCardDTO;
+import com.thiepCuoi.model.dto.CustomizedCardSummaryDTO;
+import com.thiepCuoi.model.dto.KeysetPage;
+import com.thiepCuoi.model.dto.PreviewStatusDTO;
 import com.thiepCuoi.model.dto.RenderTemplateRequestDTO;
+import com.thiepCuoi.model.dto.Versioned;
 import com.thiepCuoi.service.CustomizedCardService;
+import com.thiepCuoi.service.PreviewImageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,10 +17,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -24,6 +36,12 @@ public class CustomizedCardController {
     @Autowired
     private CustomizedCardService customizedCardService;
     
+    @Autowired
+    private PreviewImageService previewImageService;
+    
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+    
     @Operation(summary = "Render template HTML với dữ liệu tùy chỉnh")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Render thành công"),
@@ -38,15 +56,35 @@ public class CustomizedCardController {
         return ResponseEntity.ok(customizedCard);
     }
     
+    @Operation(summary = "Render hàng loạt thiệp cho từng khách mời (trả về NDJSON)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Mỗi dòng là kết quả render của một khách mời"),
+        @ApiResponse(responseCode = "400", description = "Dữ liệu không hợp lệ"),
+        @ApiResponse(responseCode = "401", description = "Chưa đăng nhập")
+    })
+    @PostMapping("/render-batch")
+    public ResponseEntity<StreamingResponseBody> renderBatch(
+            @Valid @RequestBody BatchRenderRequestDTO request,
+            Authentication authentication) {
+        StreamingResponseBody body = customizedCardService.renderBatch(request, authentication.getName());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
     @Operation(summary = "Lấy danh sách thiệp tùy chỉnh của người dùng")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lấy danh sách thành công"),
         @ApiResponse(responseCode = "401", description = "Chưa đăng nhập")
     })
     @GetMapping
-    public ResponseEntity<List<CustomizedCardDTO>> getUserCustomizedCards(Authentication authentication) {
-        List<CustomizedCardDTO> customizedCards = customizedCardService.getUserCustomizedCards(authentication.getName());
-        return ResponseEntity.ok(customizedCards);
+    public ResponseEntity<List<CustomizedCardDTO>> getUserCustomizedCards(
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            Authentication authentication,
+            WebRequest webRequest) {
+        KeysetPage<CustomizedCardDTO> customizedCards = customizedCardService.getUserCustomizedCards(authentication.getName(), cursor, size);
+        return httpCachePolicy.page(webRequest, customizedCards, httpCachePolicy.privateResource());
     }
     
     @Operation(summary = "Lấy danh sách thiệp đã lưu của người dùng")
@@ -55,9 +93,31 @@ public class CustomizedCardController {
         @ApiResponse(responseCode = "401", description = "Chưa đăng nhập")
     })
     @GetMapping("/saved")
-    public ResponseEntity<List<CustomizedCardDTO>> getUserSavedCards(Authentication authentication) {
-        List<CustomizedCardDTO> savedCards = customizedCardService.getUserSavedCards(authentication.getName());
-        return ResponseEntity.ok(savedCards);
+    public ResponseEntity<List<CustomizedCardDTO>> getUserSavedCards(
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            Authentication authentication,
+            WebRequest webRequest) {
+        KeysetPage<CustomizedCardDTO> savedCards = customizedCardService.getUserSavedCards(authentication.getName(), cursor, size);
+        return httpCachePolicy.page(webRequest, savedCards, httpCachePolicy.privateResource());
+    }
+    
+    @Operation(summary = "Lấy danh sách tóm tắt thiệp của người dùng (phân trang keyset, không kèm HTML/CSS)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lấy danh sách thành công"),
+        @ApiResponse(responseCode = "400", description = "Cursor phân trang không hợp lệ"),
+        @ApiResponse(responseCode = "401", description = "Chưa đăng nhập")
+    })
+    @GetMapping("/tom_tat")
+    public ResponseEntity<List<CustomizedCardSummaryDTO>> getUserCardSummaries(
+            @Parameter(description = "Chỉ lấy thiệp đã lưu") @RequestParam(defaultValue = "false") boolean savedOnly,
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            Authentication authentication,
+            WebRequest webRequest) {
+        KeysetPage<CustomizedCardSummaryDTO> summaries = customizedCardService.getUserCardSummaries(
+                authentication.getName(), savedOnly, cursor, size);
+        return httpCachePolicy.page(webRequest, summaries, httpCachePolicy.privateResource());
     }
     
     @Operation(summary = "Lấy thông tin thiệp tùy chỉnh theo ID")
@@ -69,10 +129,94 @@ public class CustomizedCardController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<CustomizedCardDTO> getCustomizedCardById(
+            @Parameter(description = "ID của thiệp tùy chỉnh") @PathVariable Long id,
+            Authentication authentication,
+            WebRequest webRequest) {
+        Versioned<CustomizedCardDTO> customizedCard = customizedCardService.getCustomizedCardById(id, authentication.getName());
+        ResponseEntity<CustomizedCardDTO> notModified = httpCachePolicy.notModified(webRequest, customizedCard.getEtag(), httpCachePolicy.privateResource());
+        if (notModified != null) {
+            return notModified;
+        }
+        return ResponseEntity.ok().eTag(customizedCard.getEtag()).cacheControl(httpCachePolicy.privateResource()).body(customizedCard.getBody());
+    }
+    
+    @Operation(summary = "Xem thiệp tùy chỉnh dạng trang HTML (stream)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trả về trang HTML của thiệp"),
+        @ApiResponse(responseCode = "401", description = "Chưa đăng nhập"),
+        @ApiResponse(responseCode = "403", description = "Không có quyền truy cập"),
+        @ApiResponse(responseCode = "404", description = "Không tìm thấy thiệp")
+    })
+    @GetMapping("/{id}/html")
+    public ResponseEntity<StreamingResponseBody> streamCustomizedCardHtml(
+            @Parameter(description = "ID của thiệp tùy chỉnh") @PathVariable Long id,
+            Authentication authentication,
+            WebRequest webRequest) {
+        Versioned<StreamingResponseBody> body = customizedCardService.streamCustomizedCardHtml(id, authentication.getName());
+        ResponseEntity<StreamingResponseBody> notModified = httpCachePolicy.notModified(webRequest, body.getEtag(), httpCachePolicy.privateResource());
+        if (notModified != null) {
+            return notModified;
+        }
+        return ResponseEntity.ok()
+                .eTag(body.getEtag())
+                .cacheControl(httpCachePolicy.privateResource())
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(body.getBody());
+    }
+    
+    @Operation(summary = "Lấy CSS đã render của thiệp (stream từ blob store)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trả về CSS của thiệp"),
+        @ApiResponse(responseCode = "401", description = "Chưa đăng nhập"),
+        @ApiResponse(responseCode = "403", description = "Không có quyền truy cập"),
+        @ApiResponse(responseCode = "404", description = "Không tìm thấy thiệp")
+    })
+    @GetMapping("/{id}/css")
+    public ResponseEntity<StreamingResponseBody> streamCustomizedCardCss(
+            @Parameter(description = "ID của thiệp tùy chỉnh") @PathVariable Long id,
+            Authentication authentication,
+            WebRequest webRequest) {
+        Versioned<StreamingResponseBody> body = customizedCardService.streamCustomizedCardCss(id, authentication.getName());
+        ResponseEntity<StreamingResponseBody> notModified = httpCachePolicy.notModified(webRequest, body.getEtag(), httpCachePolicy.privateResource());
+        if (notModified != null) {
+            return notModified;
+        }
+        return ResponseEntity.ok()
+                .eTag(body.getEtag())
+                .cacheControl(httpCachePolicy.privateResource())
+                .contentType(new MediaType("text", "css", StandardCharsets.UTF_8))
+                .body(body.getBody());
+    }
+    
+    @Operation(summary = "Yêu cầu tạo ảnh xem trước cho thiệp (chạy nền)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Đã đưa vào hàng đợi hoặc ảnh đã có sẵn"),
+        @ApiResponse(responseCode = "400", description = "Hàng đợi đầy, thử lại sau"),
+        @ApiResponse(responseCode = "401", description = "Chưa đăng nhập"),
+        @ApiResponse(responseCode = "403", description = "Không có quyền truy cập"),
+        @ApiResponse(responseCode = "404", description = "Không tìm thấy thiệp")
+    })
+    @PostMapping("/{id}/preview")
+    public ResponseEntity<PreviewStatusDTO> requestPreview(
             @Parameter(description = "ID của thiệp tùy chỉnh") @PathVariable Long id,
             Authentication authentication) {
-        CustomizedCardDTO customizedCard = customizedCardService.getCustomizedCardById(id, authentication.getName());
-        return ResponseEntity.ok(customizedCard);
+        PreviewStatusDTO status = previewImageService.requestCardPreview(id, authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+    
+    @Operation(summary = "Xem trạng thái ảnh xem trước của thiệp")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trạng thái: NONE, PENDING, DONE hoặc FAILED"),
+        @ApiResponse(responseCode = "401", description = "Chưa đăng nhập"),
+        @ApiResponse(responseCode = "403", description = "Không có quyền truy cập"),
+        @ApiResponse(responseCode = "404", description = "Không tìm thấy thiệp")
+    })
+    @GetMapping("/{id}/preview")
+    public ResponseEntity<PreviewStatusDTO> getPreviewStatus(
+            @Parameter(description = "ID của thiệp tùy chỉnh") @PathVariable Long id,
+            Authentication authentication) {
+        PreviewStatusDTO status = previewImageService.getCardPreviewStatus(id, authentication.getName());
+        return ResponseEntity.ok(status);
     }
     
     @Operation(summary = "Lưu thiệp tùy chỉnh")
@@ -1,8 +1,11 @@
 package com.thiepCuoi.api.v1.controller;
 
+import com.thiepCuoi.model.dto.KeysetPage;
 import com.thiepCuoi.model.dto.OrderDTO;
+import com.thiepCuoi.model.dto.PdfStatusDTO;
 import com.thiepCuoi.repository.entity.Order;
 import com.thiepCuoi.service.OrderService;
+import com.thiepCuoi.service.PrintPdfService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,11 +13,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -25,6 +30,9 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private PrintPdfService printPdfService;
+    
     @Operation(summary = "Tạo đơn hàng mới")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Tạo đơn hàng thành công"),
@@ -45,9 +53,12 @@ public class OrderController {
         @ApiResponse(responseCode = "401", description = "Chưa đăng nhập")
     })
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getUserOrders(Authentication authentication) {
-        List<OrderDTO> orders = orderService.getUserOrders(authentication.getName());
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderDTO>> getUserOrders(
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số đơn hàng mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        KeysetPage<OrderDTO> orders = orderService.getUserOrders(authentication.getName(), cursor, size);
+        return ResponseEntity.ok().headers(orders.toHeaders()).body(orders.getItems());
     }
     
     @Operation(summary = "Lấy thông tin đơn hàng theo ID")
@@ -101,9 +112,11 @@ public class OrderController {
     @GetMapping("/theo_trang_thai")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<OrderDTO>> getOrdersByStatus(
-            @Parameter(description = "Trạng thái đơn hàng") @RequestParam Order.OrderStatus status) {
-        List<OrderDTO> orders = orderService.getOrdersByStatus(status);
-        return ResponseEntity.ok(orders);
+            @Parameter(description = "Trạng thái đơn hàng") @RequestParam Order.OrderStatus status,
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số đơn hàng mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size) {
+        KeysetPage<OrderDTO> orders = orderService.getOrdersByStatus(status, cursor, size);
+        return ResponseEntity.ok().headers(orders.toHeaders()).body(orders.getItems());
     }
     
     @Operation(summary = "Lấy tất cả đơn hàng (Admin)")
@@ -113,8 +126,59 @@ public class OrderController {
     })
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderDTO>> getAllOrders(
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số đơn hàng mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size) {
+        KeysetPage<OrderDTO> orders = orderService.getAllOrders(cursor, size);
+        return ResponseEntity.ok().headers(orders.toHeaders()).body(orders.getItems());
+    }
+    
+    @Operation(summary = "Đếm tổng số đơn hàng (Admin)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trả về tổng số đơn hàng"),
+        @ApiResponse(responseCode = "403", description = "Không có quyền truy cập")
+    })
+    @GetMapping("/count")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Long> getOrderCount() {
+        return ResponseEntity.ok(orderService.getOrderCount());
+    }
+    
+    @Operation(summary = "Tổng doanh thu của tất cả đơn hàng (Admin)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trả về tổng doanh thu"),
+        @ApiResponse(responseCode = "403", description = "Không có quyền truy cập")
+    })
+    @GetMapping("/doanh_thu")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BigDecimal> getTotalRevenue() {
+        return ResponseEntity.ok(orderService.getTotalRevenue());
+    }
+    
+    @Operation(summary = "Tạo file PDF in ấn cho đơn hàng (Admin, chạy nền)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Đã đưa vào hàng đợi hoặc file đã có sẵn"),
+        @ApiResponse(responseCode = "400", description = "Đơn hàng không in được hoặc hàng đợi đầy"),
+        @ApiResponse(responseCode = "403", description = "Không có quyền truy cập")
+    })
+    @PostMapping("/{id}/file_in")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PdfStatusDTO> requestOrderPdf(
+            @Parameter(description = "ID của đơn hàng") @PathVariable Long id) {
+        PdfStatusDTO status = printPdfService.requestOrderPdf(id);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+    
+    @Operation(summary = "Xem trạng thái file PDF in ấn của đơn hàng (Admin)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trạng thái: NONE, PENDING, DONE hoặc FAILED"),
+        @ApiResponse(responseCode = "403", description = "Không có quyền truy cập")
+    })
+    @GetMapping("/{id}/file_in")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PdfStatusDTO> getOrderPdfStatus(
+            @Parameter(description = "ID của đơn hàng") @PathVariable Long id) {
+        PdfStatusDTO status = printPdfService.getOrderPdfStatus(id);
+        return ResponseEntity.ok(status);
     }
-}
\ No newline at end of file
+}
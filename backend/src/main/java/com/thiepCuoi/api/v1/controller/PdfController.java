@@ -0,0 +1,50 @@
+package com.thiepCuoi.api.v1.controller;
+
+import com.thiepCuoi.service.PrintPdfService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/v1/pdf")
+@Tag(name = "File in ấn", description = "API phục vụ file PDF in ấn từ cache đĩa")
+public class PdfController {
+    
+    @Autowired
+    private PrintPdfService printPdfService;
+    
+    @Operation(summary = "Lấy file PDF theo tên file (hash nội dung)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trả về file PDF"),
+        @ApiResponse(responseCode = "404", description = "File chưa được tạo")
+    })
+    @GetMapping("/{fileName:.+}")
+    public ResponseEntity<Resource> getPdfFile(
+            @Parameter(description = "Tên file PDF, ví dụ <hash>.pdf") @PathVariable String fileName) {
+        Path path = printPdfService.resolvePdfFile(fileName);
+        if (path == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        // Tên file là hash nội dung nên file không bao giờ thay đổi
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .body(new FileSystemResource(path));
+    }
+}
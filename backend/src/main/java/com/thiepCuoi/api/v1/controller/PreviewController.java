@@ -0,0 +1,50 @@
+package com.thiepCuoi.api.v1.controller;
+
+import com.thiepCuoi.service.PreviewImageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/v1/preview")
+@Tag(name = "Ảnh xem trước", description = "API phục vụ ảnh xem trước của thiệp từ cache đĩa")
+public class PreviewController {
+    
+    @Autowired
+    private PreviewImageService previewImageService;
+    
+    @Operation(summary = "Lấy ảnh xem trước theo tên file (hash nội dung)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trả về ảnh PNG/JPEG"),
+        @ApiResponse(responseCode = "404", description = "Ảnh chưa được tạo")
+    })
+    @GetMapping("/{fileName:.+}")
+    public ResponseEntity<Resource> getPreviewImage(
+            @Parameter(description = "Tên file ảnh, ví dụ <hash>.png") @PathVariable String fileName) {
+        Path path = previewImageService.resolvePreviewFile(fileName);
+        if (path == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        // Tên file là hash nội dung nên ảnh không bao giờ thay đổi
+        return ResponseEntity.ok()
+                .contentType(fileName.endsWith(".png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .body(new FileSystemResource(path));
+    }
+}
@@ -1,5 +1,7 @@
 package com.thiepCuoi.api.v1.controller;
 
+import com.thiepCuoi.config.HttpCachePolicy;
+import com.thiepCuoi.model.dto.KeysetPage;
 import com.thiepCuoi.model.dto.TemplateDTO;
 import com.thiepCuoi.service.TemplateService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,7 +14,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -23,14 +27,33 @@ public class TemplateController {
     @Autowired
     private TemplateService templateService;
     
-    @Operation(summary = "Lấy danh sách tất cả mẫu thiệp đang hoạt động")
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+    
+    @Operation(summary = "Lấy danh sách mẫu thiệp đang hoạt động, lọc theo danh mục, từ khóa và khoảng giá nếu có")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lấy danh sách thành công")
     })
     @GetMapping
-    public ResponseEntity<List<TemplateDTO>> getAllActiveTemplates() {
-        List<TemplateDTO> templates = templateService.getAllActiveTemplates();
-        return ResponseEntity.ok(templates);
+    public ResponseEntity<List<TemplateDTO>> getAllActiveTemplates(
+            @Parameter(description = "ID của danh mục") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Từ khóa tìm kiếm theo tên") @RequestParam(required = false) String keyword,
+            @Parameter(description = "Giá tối thiểu (bao gồm)") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Giá tối đa (không bao gồm)") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số mẫu thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        KeysetPage<TemplateDTO> templates = templateService.getActiveTemplates(categoryId, keyword, minPrice, maxPrice, cursor, size);
+        return httpCachePolicy.page(webRequest, templates, httpCachePolicy.publicCatalog());
+    }
+    
+    @Operation(summary = "Đếm số mẫu thiệp đang hoạt động")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Trả về số mẫu thiệp")
+    })
+    @GetMapping("/count")
+    public ResponseEntity<Long> getActiveTemplateCount() {
+        return ResponseEntity.ok(templateService.getActiveTemplateCount());
     }
     
     @Operation(summary = "Lấy mẫu thiệp theo danh mục")
@@ -39,9 +62,12 @@ public class TemplateController {
     })
     @GetMapping("/danh_muc/{categoryId}")
     public ResponseEntity<List<TemplateDTO>> getTemplatesByCategory(
-            @Parameter(description = "ID của danh mục") @PathVariable Long categoryId) {
-        List<TemplateDTO> templates = templateService.getTemplatesByCategory(categoryId);
-        return ResponseEntity.ok(templates);
+            @Parameter(description = "ID của danh mục") @PathVariable Long categoryId,
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số mẫu thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        KeysetPage<TemplateDTO> templates = templateService.getTemplatesByCategory(categoryId, cursor, size);
+        return httpCachePolicy.page(webRequest, templates, httpCachePolicy.publicCatalog());
     }
     
     @Operation(summary = "Tìm kiếm mẫu thiệp theo từ khóa")
@@ -50,9 +76,12 @@ public class TemplateController {
     })
     @GetMapping("/tim_kiem")
     public ResponseEntity<List<TemplateDTO>> searchTemplates(
-            @Parameter(description = "Từ khóa tìm kiếm") @RequestParam String keyword) {
-        List<TemplateDTO> templates = templateService.searchTemplates(keyword);
-        return ResponseEntity.ok(templates);
+            @Parameter(description = "Từ khóa tìm kiếm") @RequestParam String keyword,
+            @Parameter(description = "Cursor trang tiếp theo (header X-Next-Cursor)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Số mẫu thiệp mỗi trang (tối đa 100)") @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        KeysetPage<TemplateDTO> templates = templateService.searchTemplates(keyword, cursor, size);
+        return httpCachePolicy.page(webRequest, templates, httpCachePolicy.publicCatalog());
     }
     
     @Operation(summary = "Lấy thông tin mẫu thiệp theo ID")
@@ -62,9 +91,15 @@ public class TemplateController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<TemplateDTO> getTemplateById(
-            @Parameter(description = "ID của mẫu thiệp") @PathVariable Long id) {
+            @Parameter(description = "ID của mẫu thiệp") @PathVariable Long id,
+            WebRequest webRequest) {
+        String etag = templateService.getTemplateEtag(id);
+        ResponseEntity<TemplateDTO> notModified = httpCachePolicy.notModified(webRequest, etag, httpCachePolicy.publicCatalog());
+        if (notModified != null) {
+            return notModified;
+        }
         TemplateDTO template = templateService.getTemplateById(id);
-        return ResponseEntity.ok(template);
+        return ResponseEntity.ok().eTag(etag).cacheControl(httpCachePolicy.publicCatalog()).body(template);
     }
     
     @Operation(summary = "Tạo mẫu thiệp mới")
@@ -0,0 +1,47 @@
+package com.thiepCuoi.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Cho phép customized_cards.rendered_html nhận NULL khi bật app.card.blob-store hoặc app.card.render-on-read.
+ * Schema cũ khai báo cột này NOT NULL và ddl-auto=update không nới ràng buộc đã có,
+ * nên nếu không sửa thì lần INSERT đầu tiên ở hai chế độ này sẽ lỗi trên database hiện có.
+ */
+@Component
+public class CardContentColumnInitializer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Bảo đảm bảng customized_cards đã được Hibernate tạo/cập nhật
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.card.blob-store:false}")
+    private boolean blobStore;
+
+    @Value("${app.card.render-on-read:false}")
+    private boolean renderOnRead;
+
+    @PostConstruct
+    public void allowNullRenderedHtml() {
+        if (!blobStore && !renderOnRead) {
+            return;
+        }
+
+        List<String> nullable = jdbcTemplate.queryForList(
+                "SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'customized_cards' AND COLUMN_NAME = 'rendered_html'",
+                String.class);
+        if (!nullable.isEmpty() && "NO".equalsIgnoreCase(nullable.get(0))) {
+            jdbcTemplate.execute("ALTER TABLE customized_cards MODIFY rendered_html LONGTEXT NULL");
+        }
+    }
+}
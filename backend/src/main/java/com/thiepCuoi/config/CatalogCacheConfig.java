@@ -0,0 +1,63 @@
+package com.thiepCuoi.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache cấp 2 của Hibernate (JCache trên Caffeine) cho danh mục, mẫu thiệp và mẫu thiệp HTML.
+ * Hibernate tự cập nhật region entity và vô hiệu hóa query cache khi các bảng này được ghi qua JPA
+ * (mọi thao tác của admin trong TemplateServiceImpl, CategoryServiceImpl, CardTemplateServiceImpl),
+ * TTL chỉ giới hạn độ trễ khi chạy nhiều instance vì mỗi instance giữ cache riêng.
+ */
+@Configuration
+public class CatalogCacheConfig {
+    public static final String TEMPLATE_REGION = "catalog.template";
+    public static final String CATEGORY_REGION = "catalog.category";
+    public static final String CARD_TEMPLATE_REGION = "catalog.card-template";
+    public static final String QUERY_REGION = "catalog.queries";
+    
+    // Region mặc định Hibernate dùng để biết bảng nào vừa bị ghi, không được giới hạn hay hết hạn
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+    
+    @Value("${app.catalog-cache.max-entries:10000}")
+    private long maxEntries;
+    
+    @Value("${app.catalog-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+    
+    @Bean(destroyMethod = "close")
+    public CacheManager catalogCacheManager() {
+        // CacheManager riêng cho mỗi ApplicationContext: CacheManager mặc định của provider dùng chung cả JVM,
+        // context thứ hai (ví dụ trong test) sẽ lỗi "Cache ... already exists" hoặc đọc phải entity của context khác
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("thiep-cuoi-catalog-" + UUID.randomUUID()), CatalogCacheConfig.class.getClassLoader());
+        for (String region : new String[] { TEMPLATE_REGION, CATEGORY_REGION, CARD_TEMPLATE_REGION, QUERY_REGION }) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer catalogCacheCustomizer(CacheManager catalogCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, catalogCacheManager);
+    }
+}
@@ -0,0 +1,59 @@
+package com.thiepCuoi.config;
+
+import com.thiepCuoi.model.dto.KeysetPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Header cache cho response GET có ETag (xem ETags).
+ * Danh mục/mẫu thiệp công khai được phép lưu ở cache dùng chung (nginx) trong thời gian ngắn;
+ * dữ liệu của người dùng chỉ lưu ở trình duyệt và luôn phải hỏi lại server bằng If-None-Match.
+ */
+@Component
+public class HttpCachePolicy {
+    
+    @Value("${app.http.catalog-max-age-seconds:60}")
+    private long catalogMaxAgeSeconds;
+    
+    public CacheControl publicCatalog() {
+        return CacheControl.maxAge(catalogMaxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+    }
+    
+    public CacheControl privateResource() {
+        return CacheControl.noCache().cachePrivate();
+    }
+    
+    /**
+     * Trả 304 nếu If-None-Match của request khớp etag
+     * @return null nếu phải trả nội dung đầy đủ
+     */
+    public <T> ResponseEntity<T> notModified(WebRequest request, String etag, CacheControl cacheControl) {
+        if (etag == null || !request.checkNotModified(etag)) {
+            return null;
+        }
+        // checkNotModified đã đặt status 304 và header ETag
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+    }
+    
+    /**
+     * Response cho một trang keyset: 304 nếu ETag của trang khớp, ngược lại mới ánh xạ DTO (page.getItems())
+     */
+    public <T> ResponseEntity<List<T>> page(WebRequest request, KeysetPage<T> page, CacheControl cacheControl) {
+        ResponseEntity<List<T>> notModified = notModified(request, page.getEtag(), cacheControl);
+        if (notModified != null) {
+            return notModified;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().headers(page.toHeaders()).cacheControl(cacheControl);
+        if (page.getEtag() != null) {
+            response.eTag(page.getEtag());
+        }
+        return response.body(page.getItems());
+    }
+}
@@ -0,0 +1,49 @@
+package com.thiepCuoi.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Đồng bộ bảng id_generators với dữ liệu đã có trước khi Hibernate cấp id.
+ * Các bảng trước đây dùng AUTO_INCREMENT; nếu next_val nhỏ hơn MAX(id) + allocationSize thì khối id
+ * đầu tiên sẽ trùng với bản ghi cũ, nên next_val được nâng lên trước khi ứng dụng nhận request.
+ */
+@Component
+public class IdGeneratorInitializer {
+    
+    // Phải khớp với pkColumnValue và allocationSize của @TableGenerator trên các entity
+    private static final List<String> TABLES = List.of("orders", "order_items", "customized_cards", "custom_invitations");
+    private static final long ALLOCATION_SIZE = 50;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Bảo đảm schema (kể cả bảng id_generators) đã được Hibernate tạo/cập nhật
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @PostConstruct
+    public void alignWithExistingIds() {
+        for (String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (maxId == null) {
+                continue; // Bảng trống: để Hibernate tự khởi tạo dòng của bảng này
+            }
+            
+            long required = maxId + ALLOCATION_SIZE;
+            List<Long> current = jdbcTemplate.queryForList(
+                    "SELECT next_val FROM id_generators WHERE table_name = ?", Long.class, table);
+            if (current.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO id_generators (table_name, next_val) VALUES (?, ?)", table, required);
+            } else if (current.get(0) < required) {
+                jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE table_name = ? AND next_val < ?",
+                        required, table, required);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.thiepCuoi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class RenderExecutorConfig {
+    
+    @Value("${app.render.batch.parallelism:0}")
+    private int parallelism;
+    
+    @Value("${app.preview.workers:2}")
+    private int previewWorkers;
+    
+    @Value("${app.preview.queue-capacity:100}")
+    private int previewQueueCapacity;
+    
+    @Value("${app.pdf.workers:0}")
+    private int pdfWorkers;
+    
+    @Value("${app.pdf.queue-capacity:500}")
+    private int pdfQueueCapacity;
+    
+    // Pool giới hạn số thread cho render hàng loạt, không dùng chung common pool của JVM
+    @Bean(name = "renderExecutor", destroyMethod = "shutdown")
+    public ExecutorService renderExecutor() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads);
+    }
+    
+    // Pool cố định cho việc tạo ảnh xem trước; hàng đợi có giới hạn, khi đầy thì từ chối thay vì chạy trên thread request
+    @Bean(name = "previewExecutor", destroyMethod = "shutdown")
+    public ExecutorService previewExecutor() {
+        int workers = Math.max(1, previewWorkers);
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, previewQueueCapacity)),
+                namedThreadFactory("preview-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    // Pool riêng cho tạo PDF in ấn, tách khỏi ảnh xem trước để file in không chặn ảnh xem trước và ngược lại
+    @Bean(name = "pdfExecutor", destroyMethod = "shutdown")
+    public ExecutorService pdfExecutor() {
+        int workers = pdfWorkers > 0 ? pdfWorkers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, pdfQueueCapacity)),
+                namedThreadFactory("pdf-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
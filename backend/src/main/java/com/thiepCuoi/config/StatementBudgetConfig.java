@@ -0,0 +1,61 @@
+package com.thiepCuoi.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Ngân sách số câu SQL cho mỗi request API (bật bằng app.jpa.statement-budget.enabled).
+ * Request vượt ngân sách được ghi log kèm method và URI, để truy vấn N+1 lộ ra ngay khi chạy thử từng endpoint.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.jpa.statement-budget.enabled", havingValue = "true")
+public class StatementBudgetConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(StatementBudgetConfig.class);
+    
+    @Value("${app.jpa.statement-budget.max-statements:10}")
+    private int maxStatements;
+    
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+    
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> statementBudgetFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                StatementCounter.begin();
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    int count = StatementCounter.end();
+                    if (count > maxStatements) {
+                        log.warn("Vượt ngân sách SQL ({}/{} câu): {} {}",
+                                count, maxStatements, request.getMethod(), request.getRequestURI());
+                    }
+                }
+            }
+        });
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,37 @@
+package com.thiepCuoi.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Đếm số câu SQL Hibernate gửi đi trên thread hiện tại, dùng để phát hiện truy vấn N+1.
+ * Chỉ đếm giữa begin() và end(); các thread nền (render, ảnh xem trước, PDF) không bị đếm.
+ */
+public class StatementCounter implements StatementInspector {
+    
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+    
+    public static void begin() {
+        COUNT.set(new int[1]);
+    }
+    
+    // Số câu SQL kể từ begin(), -1 nếu thread hiện tại không được đếm
+    public static int count() {
+        int[] count = COUNT.get();
+        return count != null ? count[0] : -1;
+    }
+    
+    public static int end() {
+        int count = count();
+        COUNT.remove();
+        return count;
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,17 @@
+package com.thiepCuoi.config;
+
+/**
+ * Hệ thống tạm thời quá tải cho loại yêu cầu này, client nên thử lại sau retryAfterSeconds giây.
+ * GlobalExceptionHandler trả về 429 kèm header Retry-After.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
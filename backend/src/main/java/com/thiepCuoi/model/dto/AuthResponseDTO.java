@@ -1,8 +1,15 @@
 package com.thiepCuoi.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class AuthResponseDTO {
     private String token;
     private String type = "Bearer";
+    // Thời gian sống của token (giây); khi hết hạn, gọi /auth/lam_moi_token (kèm cookie refresh_token) để lấy cặp token mới
+    private Long expiresIn;
+    // Chỉ gửi cho client qua cookie HttpOnly (RefreshTokenCookies), không serialize vào JSON
+    @JsonIgnore
+    private String refreshToken;
     private UserResponseDTO user;
     
     // Constructors
@@ -13,6 +20,13 @@ public class AuthResponseDTO {
         this.user = user;
     }
     
+    public AuthResponseDTO(String token, Long expiresIn, String refreshToken, UserResponseDTO user) {
+        this.token = token;
+        this.expiresIn = expiresIn;
+        this.refreshToken = refreshToken;
+        this.user = user;
+    }
+    
     // Getters and Setters
     public String getToken() { return token; }
     public void setToken(String token) { this.token = token; }
@@ -20,6 +34,12 @@ public class AuthResponseDTO {
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
     
+    public Long getExpiresIn() { return expiresIn; }
+    public void setExpiresIn(Long expiresIn) { this.expiresIn = expiresIn; }
+    
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    
     public UserResponseDTO getUser() { return user; }
     public void setUser(UserResponseDTO user) { this.user = user; }
 }
\ No newline at end of file
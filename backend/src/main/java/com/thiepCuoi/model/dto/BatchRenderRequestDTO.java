@@ -0,0 +1,34 @@
+package com.thiepCuoi.model.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Map;
+
+public class BatchRenderRequestDTO {
+    @NotNull(message = "Card template ID không được để trống")
+    private Long cardTemplateId;
+    
+    @NotEmpty(message = "Danh sách dữ liệu tùy chỉnh không được để trống")
+    private List<Map<String, String>> customDataList; // Mỗi phần tử là dữ liệu của một khách mời
+    
+    private Boolean saveCards = true;
+    
+    // Constructors
+    public BatchRenderRequestDTO() {}
+    
+    public BatchRenderRequestDTO(Long cardTemplateId, List<Map<String, String>> customDataList) {
+        this.cardTemplateId = cardTemplateId;
+        this.customDataList = customDataList;
+    }
+    
+    // Getters and Setters
+    public Long getCardTemplateId() { return cardTemplateId; }
+    public void setCardTemplateId(Long cardTemplateId) { this.cardTemplateId = cardTemplateId; }
+    
+    public List<Map<String, String>> getCustomDataList() { return customDataList; }
+    public void setCustomDataList(List<Map<String, String>> customDataList) { this.customDataList = customDataList; }
+    
+    public Boolean getSaveCards() { return saveCards; }
+    public void setSaveCards(Boolean saveCards) { this.saveCards = saveCards; }
+}
@@ -0,0 +1,26 @@
+package com.thiepCuoi.model.dto;
+
+public class BatchRenderResultDTO {
+    private Integer index; // Vị trí trong customDataList của request
+    private CustomizedCardDTO card;
+    private String error;
+    
+    // Constructors
+    public BatchRenderResultDTO() {}
+    
+    public BatchRenderResultDTO(Integer index, CustomizedCardDTO card, String error) {
+        this.index = index;
+        this.card = card;
+        this.error = error;
+    }
+    
+    // Getters and Setters
+    public Integer getIndex() { return index; }
+    public void setIndex(Integer index) { this.index = index; }
+    
+    public CustomizedCardDTO getCard() { return card; }
+    public void setCard(CustomizedCardDTO card) { this.card = card; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
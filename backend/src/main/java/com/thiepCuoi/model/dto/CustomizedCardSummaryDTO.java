@@ -0,0 +1,83 @@
+package com.thiepCuoi.model.dto;
+
+import java.time.LocalDateTime;
+
+// Thông tin tóm tắt của thiệp cho trang danh sách, không chứa HTML/CSS đã render
+public class CustomizedCardSummaryDTO {
+    private Long id;
+    private Long cardTemplateId;
+    private Long templateId;
+    private String templateName;
+    private String cardTemplateName;
+    private String groomName;
+    private String brideName;
+    private String weddingDate;
+    private String weddingTime;
+    private String weddingVenue;
+    private String generatedImageUrl;
+    private Boolean isSaved;
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public CustomizedCardSummaryDTO() {}
+    
+    // Dùng trong câu truy vấn projection của CustomizedCardRepository
+    public CustomizedCardSummaryDTO(Long id, Long cardTemplateId, Long templateId, String templateName,
+                                    String cardTemplateName, String groomName, String brideName, String weddingDate,
+                                    String weddingTime, String weddingVenue, String generatedImageUrl, Boolean isSaved,
+                                    LocalDateTime createdAt) {
+        this.id = id;
+        this.cardTemplateId = cardTemplateId;
+        this.templateId = templateId;
+        this.templateName = templateName;
+        this.cardTemplateName = cardTemplateName;
+        this.groomName = groomName;
+        this.brideName = brideName;
+        this.weddingDate = weddingDate;
+        this.weddingTime = weddingTime;
+        this.weddingVenue = weddingVenue;
+        this.generatedImageUrl = generatedImageUrl;
+        this.isSaved = isSaved;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getCardTemplateId() { return cardTemplateId; }
+    public void setCardTemplateId(Long cardTemplateId) { this.cardTemplateId = cardTemplateId; }
+    
+    public Long getTemplateId() { return templateId; }
+    public void setTemplateId(Long templateId) { this.templateId = templateId; }
+    
+    public String getTemplateName() { return templateName; }
+    public void setTemplateName(String templateName) { this.templateName = templateName; }
+    
+    public String getCardTemplateName() { return cardTemplateName; }
+    public void setCardTemplateName(String cardTemplateName) { this.cardTemplateName = cardTemplateName; }
+    
+    public String getGroomName() { return groomName; }
+    public void setGroomName(String groomName) { this.groomName = groomName; }
+    
+    public String getBrideName() { return brideName; }
+    public void setBrideName(String brideName) { this.brideName = brideName; }
+    
+    public String getWeddingDate() { return weddingDate; }
+    public void setWeddingDate(String weddingDate) { this.weddingDate = weddingDate; }
+    
+    public String getWeddingTime() { return weddingTime; }
+    public void setWeddingTime(String weddingTime) { this.weddingTime = weddingTime; }
+    
+    public String getWeddingVenue() { return weddingVenue; }
+    public void setWeddingVenue(String weddingVenue) { this.weddingVenue = weddingVenue; }
+    
+    public String getGeneratedImageUrl() { return generatedImageUrl; }
+    public void setGeneratedImageUrl(String generatedImageUrl) { this.generatedImageUrl = generatedImageUrl; }
+    
+    public Boolean getIsSaved() { return isSaved; }
+    public void setIsSaved(Boolean isSaved) { this.isSaved = isSaved; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
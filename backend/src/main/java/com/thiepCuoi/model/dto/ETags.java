@@ -0,0 +1,42 @@
+package com.thiepCuoi.model.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+/**
+ * ETag mạnh tạo từ phiên bản của entity (id + rowVersion/updatedAt của entity và các entity mà DTO đọc tới),
+ * tính được trước khi ánh xạ DTO nên request có If-None-Match khớp được trả 304 mà không dựng response.
+ */
+public final class ETags {
+    
+    private ETags() {}
+    
+    /**
+     * ETag cho một tập bản ghi theo đúng thứ tự (danh sách, trang kết quả)
+     * @param versions token phiên bản của từng bản ghi, xem version(...)
+     */
+    public static String of(Stream<String> versions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            versions.forEach(version -> {
+                digest.update(version.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            });
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Không tạo được ETag: " + e.getMessage());
+        }
+    }
+    
+    // Token phiên bản của một bản ghi, ví dụ version("template", 5, 3, 1) = "template-5-3-1"
+    public static String version(String type, Object... parts) {
+        StringBuilder token = new StringBuilder(type);
+        for (Object part : parts) {
+            token.append('-').append(part);
+        }
+        return token.toString();
+    }
+}
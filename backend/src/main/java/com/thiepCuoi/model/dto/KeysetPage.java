@@ -0,0 +1,78 @@
+package com.thiepCuoi.model.dto;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Một trang kết quả phân trang keyset. Controller trả về items dưới dạng mảng JSON như trước
+ * và đặt nextCursor vào header X-Next-Cursor (không có header khi đã hết dữ liệu).
+ * Items chỉ được ánh xạ sang DTO khi gọi getItems(), nên controller có thể trả 304 theo ETag trước đó.
+ */
+public class KeysetPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
+    private final Supplier<List<T>> mapping;
+    private List<T> items;
+    private final String nextCursor;
+    private final String etag;
+    
+    // Constructors
+    public KeysetPage(List<T> items, String nextCursor) {
+        this(() -> items, nextCursor, null);
+    }
+    
+    private KeysetPage(Supplier<List<T>> mapping, String nextCursor, String etag) {
+        this.mapping = mapping;
+        this.nextCursor = nextCursor;
+        this.etag = etag;
+    }
+    
+    /**
+     * Tạo trang từ kết quả truy vấn đã đọc thừa một bản ghi (PageCursor.limit)
+     * @param rows các bản ghi theo thứ tự (createdAt, id) giảm dần, tối đa pageSize + 1
+     * @param cursorOf vị trí của một bản ghi
+     * @param mapper chuyển bản ghi thành DTO
+     */
+    public static <E, T> KeysetPage<T> of(List<E> rows, int pageSize,
+                                          Function<E, PageCursor> cursorOf, Function<E, T> mapper) {
+        return of(rows, pageSize, cursorOf, null, mapper);
+    }
+    
+    /**
+     * Như trên, kèm ETag của trang
+     * @param versionOf token phiên bản của một bản ghi (ETags.version), null nếu trang không có ETag
+     */
+    public static <E, T> KeysetPage<T> of(List<E> rows, int pageSize, Function<E, PageCursor> cursorOf,
+                                          Function<E, String> versionOf, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        String etag = versionOf == null ? null
+                : ETags.of(Stream.concat(pageRows.stream().map(versionOf), Stream.of(String.valueOf(nextCursor))));
+        return new KeysetPage<>(() -> pageRows.stream().map(mapper).collect(Collectors.toList()), nextCursor, etag);
+    }
+    
+    public HttpHeaders toHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.set(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return headers;
+    }
+    
+    // Getters
+    public List<T> getItems() {
+        if (items == null) {
+            items = mapping.get();
+        }
+        return items;
+    }
+    
+    public String getNextCursor() { return nextCursor; }
+    public String getEtag() { return etag; }
+}
@@ -0,0 +1,80 @@
+package com.thiepCuoi.model.dto;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Vị trí phân trang keyset theo (createdAt, id): trang sau bắt đầu ngay sau bản ghi cuối của trang trước.
+ * Client nhận cursor dạng chuỗi mờ qua header X-Next-Cursor và gửi lại nguyên vẹn qua tham số cursor.
+ */
+public final class PageCursor {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    
+    // Trang đầu tiên: không có điều kiện vị trí
+    private static final PageCursor FIRST = new PageCursor(null, null);
+    
+    private final LocalDateTime createdAt;
+    private final Long id;
+    
+    // Constructors
+    public PageCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+    
+    /**
+     * Giải mã cursor từ client
+     * @return trang đầu tiên nếu cursor rỗng
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('_');
+            return new PageCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cursor phân trang không hợp lệ");
+        }
+    }
+    
+    public String encode() {
+        String value = createdAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Kích thước trang do server giới hạn, mặc định DEFAULT_PAGE_SIZE, tối đa MAX_PAGE_SIZE
+     */
+    public static int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+    
+    /**
+     * Đọc thêm một bản ghi so với kích thước trang để biết còn trang sau hay không
+     */
+    public static Pageable limit(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+    
+    /**
+     * Trang đầu không có điều kiện vị trí, repository dùng câu truy vấn riêng không kèm vị trí
+     */
+    public boolean isFirstPage() {
+        return createdAt == null;
+    }
+    
+    // Getters
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getId() { return id; }
+}
@@ -0,0 +1,36 @@
+package com.thiepCuoi.model.dto;
+
+public class PdfStatusDTO {
+    private Long orderId;
+    private String status; // NONE, PENDING, DONE, FAILED
+    private Integer pageCount;
+    private String pdfUrl;
+    private String error;
+
+    // Constructors
+    public PdfStatusDTO() {}
+
+    public PdfStatusDTO(Long orderId, String status, Integer pageCount, String pdfUrl, String error) {
+        this.orderId = orderId;
+        this.status = status;
+        this.pageCount = pageCount;
+        this.pdfUrl = pdfUrl;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getPageCount() { return pageCount; }
+    public void setPageCount(Integer pageCount) { this.pageCount = pageCount; }
+
+    public String getPdfUrl() { return pdfUrl; }
+    public void setPdfUrl(String pdfUrl) { this.pdfUrl = pdfUrl; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
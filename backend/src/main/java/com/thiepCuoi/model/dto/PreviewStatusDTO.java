@@ -0,0 +1,31 @@
+package com.thiepCuoi.model.dto;
+
+public class PreviewStatusDTO {
+    private Long customizedCardId;
+    private String status; // NONE, PENDING, DONE, FAILED
+    private String imageUrl;
+    private String error;
+
+    // Constructors
+    public PreviewStatusDTO() {}
+
+    public PreviewStatusDTO(Long customizedCardId, String status, String imageUrl, String error) {
+        this.customizedCardId = customizedCardId;
+        this.status = status;
+        this.imageUrl = imageUrl;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public Long getCustomizedCardId() { return customizedCardId; }
+    public void setCustomizedCardId(Long customizedCardId) { this.customizedCardId = customizedCardId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
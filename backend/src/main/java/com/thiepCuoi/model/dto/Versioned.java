@@ -0,0 +1,31 @@
+package com.thiepCuoi.model.dto;
+
+import java.util.function.Supplier;
+
+/**
+ * Một tài nguyên kèm ETag, đọc từ cùng một bản ghi.
+ * Nội dung chỉ được tạo khi gọi getBody(), nên controller có thể trả 304 theo ETag trước đó
+ * mà không phải đọc lại bản ghi hay ánh xạ/render nội dung.
+ */
+public class Versioned<T> {
+    
+    private final String etag;
+    private final Supplier<T> supplier;
+    private T body;
+    
+    // Constructors
+    public Versioned(String etag, Supplier<T> supplier) {
+        this.etag = etag;
+        this.supplier = supplier;
+    }
+    
+    // Getters
+    public T getBody() {
+        if (body == null) {
+            body = supplier.get();
+        }
+        return body;
+    }
+    
+    public String getEtag() { return etag; }
+}
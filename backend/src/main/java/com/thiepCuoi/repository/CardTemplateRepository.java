@@ -2,8 +2,16 @@ package com.thiepCuoi.repository;
 
 import com.thiepCuoi.repository.entity.CardTemplate;
 import com.thiepCuoi.repository.entity.Template;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +20,54 @@ public interface CardTemplateRepository extends JpaRepository<CardTemplate, Long
     List<CardTemplate> findByIsActiveTrue();
     List<CardTemplate> findByTemplateAndIsActiveTrue(Template template);
     List<CardTemplate> findByTemplate_IdAndIsActiveTrue(Long templateId);
+    // Các truy vấn phục vụ trang công khai dùng query cache (region catalog.queries, xem CatalogCacheConfig)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
     Optional<CardTemplate> findByIdAndIsActiveTrue(Long id);
     List<CardTemplate> findByCreatedBy_IdOrderByCreatedAtDesc(Long userId);
+    
+    // Mẫu thiệp HTML đang dùng, lọc theo mẫu thiệp nếu có; phân trang keyset theo (createdAt, id) giảm dần.
+    // Trang đầu và các trang sau là các câu truy vấn riêng thay vì điều kiện "IS NULL OR" chung
+    String AFTER_CURSOR = "AND (c.createdAt < :cursorCreatedAt OR (c.createdAt = :cursorCreatedAt AND c.id < :cursorId)) ";
+    String NEWEST_FIRST = "ORDER BY c.createdAt DESC, c.id DESC";
+    
+    @Query("SELECT c FROM CardTemplate c WHERE c.isActive = true " + NEWEST_FIRST)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"template", "template.category", "createdBy"})
+    List<CardTemplate> findFirstActivePage(Pageable pageable);
+    
+    @Query("SELECT c FROM CardTemplate c WHERE c.isActive = true " + AFTER_CURSOR + NEWEST_FIRST)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"template", "template.category", "createdBy"})
+    List<CardTemplate> findNextActivePage(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
+    
+    @Query("SELECT c FROM CardTemplate c WHERE c.isActive = true AND c.template.id = :templateId " + NEWEST_FIRST)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"template", "template.category", "createdBy"})
+    List<CardTemplate> findFirstActivePageByTemplate(@Param("templateId") Long templateId, Pageable pageable);
+    
+    @Query("SELECT c FROM CardTemplate c WHERE c.isActive = true AND c.template.id = :templateId " + AFTER_CURSOR + NEWEST_FIRST)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"template", "template.category", "createdBy"})
+    List<CardTemplate> findNextActivePageByTemplate(@Param("templateId") Long templateId,
+                                                    @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
+    
+    @Query("SELECT c FROM CardTemplate c WHERE c.createdBy.id = :userId " + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"template", "template.category", "createdBy"})
+    List<CardTemplate> findFirstPageByCreator(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT c FROM CardTemplate c WHERE c.createdBy.id = :userId " + AFTER_CURSOR + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"template", "template.category", "createdBy"})
+    List<CardTemplate> findNextPageByCreator(@Param("userId") Long userId,
+                                             @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.thiepCuoi.repository;
+
+import com.thiepCuoi.repository.entity.CardTemplateRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface CardTemplateRevisionRepository extends JpaRepository<CardTemplateRevision, Long> {
+    Optional<CardTemplateRevision> findByCardTemplate_IdAndRevision(Long cardTemplateId, String revision);
+    boolean existsByCardTemplate_IdAndRevision(Long cardTemplateId, String revision);
+}
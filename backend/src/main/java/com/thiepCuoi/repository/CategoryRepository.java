@@ -1,10 +1,20 @@
 package com.thiepCuoi.repository;
 
 import com.thiepCuoi.repository.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     boolean existsByName(String name);
+    
+    // Danh sách danh mục công khai dùng query cache (region catalog.queries, xem CatalogCacheConfig)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    @Override
+    List<Category> findAll();
 }
\ No newline at end of file
@@ -2,8 +2,14 @@ package com.thiepCuoi.repository;
 
 import com.thiepCuoi.repository.entity.CustomInvitation;
 import com.thiepCuoi.repository.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +18,36 @@ public interface CustomInvitationRepository extends JpaRepository<CustomInvitati
     List<CustomInvitation> findByUserAndIsSavedTrue(User user);
     List<CustomInvitation> findByUser_Id(Long userId);
     List<CustomInvitation> findByUser_IdAndIsSavedTrue(Long userId);
+    
+    // Nạp nhiều thiệp cùng chủ sở hữu và mẫu thiệp trong một câu truy vấn (tạo đơn hàng)
+    @Query("SELECT i FROM CustomInvitation i JOIN FETCH i.user JOIN FETCH i.template t LEFT JOIN FETCH t.category " +
+           "WHERE i.id IN :ids")
+    List<CustomInvitation> findAllWithUserAndTemplateByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Thiệp của người dùng, tất cả hoặc chỉ thiệp đã lưu; phân trang keyset theo (createdAt, id) giảm dần.
+    // Trang đầu/trang sau, có/không lọc thiệp đã lưu là các câu truy vấn riêng để dùng chỉ mục (user_id, created_at, id)
+    String AFTER_CURSOR = "AND (i.createdAt < :cursorCreatedAt OR (i.createdAt = :cursorCreatedAt AND i.id < :cursorId)) ";
+    String NEWEST_FIRST = "ORDER BY i.createdAt DESC, i.id DESC";
+    
+    @Query("SELECT i FROM CustomInvitation i WHERE i.user.id = :userId " + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "template", "template.category"})
+    List<CustomInvitation> findFirstPageByUser(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT i FROM CustomInvitation i WHERE i.user.id = :userId " + AFTER_CURSOR + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "template", "template.category"})
+    List<CustomInvitation> findNextPageByUser(@Param("userId") Long userId,
+                                              @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+    
+    @Query("SELECT i FROM CustomInvitation i WHERE i.user.id = :userId AND i.isSaved = true " + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "template", "template.category"})
+    List<CustomInvitation> findFirstSavedPageByUser(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT i FROM CustomInvitation i WHERE i.user.id = :userId AND i.isSaved = true " + AFTER_CURSOR + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "template", "template.category"})
+    List<CustomInvitation> findNextSavedPageByUser(@Param("userId") Long userId,
+                                                   @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
 }
\ No newline at end of file
@@ -1,9 +1,17 @@
 package com.thiepCuoi.repository;
 
+import com.thiepCuoi.model.dto.CustomizedCardSummaryDTO;
 import com.thiepCuoi.repository.entity.CustomizedCard;
 import com.thiepCuoi.repository.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,4 +21,69 @@ public interface CustomizedCardRepository extends JpaRepository<CustomizedCard,
     List<CustomizedCard> findByUser_Id(Long userId);
     List<CustomizedCard> findByUser_IdAndIsSavedTrue(Long userId);
     List<CustomizedCard> findByUser_IdOrderByCreatedAtDesc(Long userId);
+    
+    // Danh sách tóm tắt: không đọc các cột LONGTEXT, tên cô dâu/chú rể, ngày giờ và địa điểm lấy thẳng từ cột JSON
+    String SUMMARY_SELECT = "SELECT new com.thiepCuoi.model.dto.CustomizedCardSummaryDTO(c.id, ct.id, t.id, t.name, ct.templateName, " +
+           "CAST(FUNCTION('JSON_UNQUOTE', FUNCTION('JSON_EXTRACT', c.customData, '$.groom_name')) AS String), " +
+           "CAST(FUNCTION('JSON_UNQUOTE', FUNCTION('JSON_EXTRACT', c.customData, '$.bride_name')) AS String), " +
+           "CAST(FUNCTION('JSON_UNQUOTE', FUNCTION('JSON_EXTRACT', c.customData, '$.wedding_date')) AS String), " +
+           "CAST(FUNCTION('JSON_UNQUOTE', FUNCTION('JSON_EXTRACT', c.customData, '$.wedding_time')) AS String), " +
+           "CAST(FUNCTION('JSON_UNQUOTE', FUNCTION('JSON_EXTRACT', c.customData, '$.wedding_venue')) AS String), " +
+           "c.generatedImageUrl, c.isSaved, c.createdAt) " +
+           "FROM CustomizedCard c JOIN c.template t JOIN c.cardTemplate ct WHERE c.user.id = :userId ";
+    
+    // Phân trang keyset theo (createdAt, id) giảm dần, xem PageCursor. Trang đầu và các trang sau, có/không lọc thiệp
+    // đã lưu là các câu truy vấn riêng để mỗi câu là một range scan trên chỉ mục (user_id, created_at, id)
+    String AFTER_CURSOR = "AND (c.createdAt < :cursorCreatedAt OR (c.createdAt = :cursorCreatedAt AND c.id < :cursorId)) ";
+    String NEWEST_FIRST = "ORDER BY c.createdAt DESC, c.id DESC";
+    
+    @Query(SUMMARY_SELECT + NEWEST_FIRST)
+    List<CustomizedCardSummaryDTO> findFirstSummariesByUser(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + AFTER_CURSOR + NEWEST_FIRST)
+    List<CustomizedCardSummaryDTO> findNextSummariesByUser(@Param("userId") Long userId,
+                                                           @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                           @Param("cursorId") Long cursorId,
+                                                           Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "AND c.isSaved = true " + NEWEST_FIRST)
+    List<CustomizedCardSummaryDTO> findFirstSavedSummariesByUser(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "AND c.isSaved = true " + AFTER_CURSOR + NEWEST_FIRST)
+    List<CustomizedCardSummaryDTO> findNextSavedSummariesByUser(@Param("userId") Long userId,
+                                                                @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                                @Param("cursorId") Long cursorId,
+                                                                Pageable pageable);
+    
+    @Query("SELECT c FROM CustomizedCard c WHERE c.user.id = :userId " + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "template", "template.category",
+            "cardTemplate", "cardTemplate.createdBy"})
+    List<CustomizedCard> findFirstPageByUser(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT c FROM CustomizedCard c WHERE c.user.id = :userId " + AFTER_CURSOR + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "template", "template.category",
+            "cardTemplate", "cardTemplate.createdBy"})
+    List<CustomizedCard> findNextPageByUser(@Param("userId") Long userId,
+                                            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable pageable);
+    
+    @Query("SELECT c FROM CustomizedCard c WHERE c.user.id = :userId AND c.isSaved = true " + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "template", "template.category",
+            "cardTemplate", "cardTemplate.createdBy"})
+    List<CustomizedCard> findFirstSavedPageByUser(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT c FROM CustomizedCard c WHERE c.user.id = :userId AND c.isSaved = true " + AFTER_CURSOR + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "template", "template.category",
+            "cardTemplate", "cardTemplate.createdBy"})
+    List<CustomizedCard> findNextSavedPageByUser(@Param("userId") Long userId,
+                                                 @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable pageable);
+    
+    // Cập nhật URL ảnh xem trước từ job nền, không tải lại HTML/CSS của thiệp; updatedAt đổi để ETag của thiệp đổi theo
+    @Modifying
+    @Transactional
+    @Query("UPDATE CustomizedCard c SET c.generatedImageUrl = :url, c.updatedAt = LOCAL DATETIME WHERE c.id = :id")
+    int updateGeneratedImageUrl(@Param("id") Long id, @Param("url") String url);
 }
\ No newline at end of file
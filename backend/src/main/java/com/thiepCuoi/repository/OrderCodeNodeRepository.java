@@ -0,0 +1,54 @@
+package com.thiepCuoi.repository;
+
+import com.thiepCuoi.repository.entity.OrderCodeNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderCodeNodeRepository extends JpaRepository<OrderCodeNode, Integer> {
+    @Query("SELECT n.nodeId FROM OrderCodeNode n")
+    List<Integer> findAllNodeIds();
+    
+    @Query("SELECT n.nodeId FROM OrderCodeNode n WHERE n.leaseUntil < :now ORDER BY n.nodeId")
+    List<Integer> findExpiredNodeIds(@Param("now") LocalDateTime now);
+    
+    // Node id mới: khóa chính bảo đảm chỉ một instance chèn được
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO order_code_nodes (node_id, owner, lease_until, reserved_until) " +
+                   "VALUES (:nodeId, :owner, :leaseUntil, 0)", nativeQuery = true)
+    int insert(@Param("nodeId") int nodeId, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    // Nhận lại node id của instance đã dừng (lease hết hạn)
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderCodeNode n SET n.owner = :owner, n.leaseUntil = :leaseUntil " +
+           "WHERE n.nodeId = :nodeId AND n.leaseUntil < :now")
+    int claimExpired(@Param("nodeId") int nodeId, @Param("owner") String owner,
+                     @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+    
+    // Node id cấu hình sẵn (app.order-code.node-id): nhận luôn, kể cả khi lease cũ chưa hết hạn
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderCodeNode n SET n.owner = :owner, n.leaseUntil = :leaseUntil WHERE n.nodeId = :nodeId")
+    int takeOver(@Param("nodeId") int nodeId, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderCodeNode n SET n.leaseUntil = :leaseUntil WHERE n.nodeId = :nodeId AND n.owner = :owner")
+    int renew(@Param("nodeId") int nodeId, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    // Transaction riêng: mốc phải được ghi kể cả khi transaction tạo đơn hàng gọi tới bị rollback
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE OrderCodeNode n SET n.reservedUntil = :reservedUntil WHERE n.nodeId = :nodeId AND n.owner = :owner")
+    int reserve(@Param("nodeId") int nodeId, @Param("owner") String owner, @Param("reservedUntil") long reservedUntil);
+}
@@ -3,11 +3,21 @@ package com.thiepCuoi.repository;
 import com.thiepCuoi.repository.entity.OrderItem;
 import com.thiepCuoi.repository.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
     List<OrderItem> findByOrder_Id(Long orderId);
-}
\ No newline at end of file
+    
+    // Dòng hàng của cả một trang đơn hàng, kèm thiệp và mẫu thiệp, trong một câu truy vấn
+    @Query("SELECT i FROM OrderItem i JOIN FETCH i.order o JOIN FETCH o.user " +
+           "JOIN FETCH i.customInvitation ci JOIN FETCH ci.user " +
+           "JOIN FETCH ci.template t LEFT JOIN FETCH t.category " +
+           "WHERE o.id IN :orderIds ORDER BY i.id")
+    List<OrderItem> findByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -2,8 +2,14 @@ package com.thiepCuoi.repository;
 
 import com.thiepCuoi.repository.entity.Order;
 import com.thiepCuoi.repository.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +19,56 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUser_Id(Long userId);
     Optional<Order> findByOrderCode(String orderCode);
     List<Order> findByStatusOrderByCreatedAtDesc(Order.OrderStatus status);
+    
+    // Chi tiết đơn hàng kèm các dòng hàng, thiệp và mẫu thiệp trong một câu truy vấn
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "orderItems",
+            "orderItems.customInvitation", "orderItems.customInvitation.user",
+            "orderItems.customInvitation.template", "orderItems.customInvitation.template.category"})
+    Optional<Order> findWithItemsById(Long id);
+    
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user", "orderItems",
+            "orderItems.customInvitation", "orderItems.customInvitation.user",
+            "orderItems.customInvitation.template", "orderItems.customInvitation.template.category"})
+    Optional<Order> findWithItemsByOrderCode(String orderCode);
+    
+    // Phân trang keyset theo (createdAt, id) giảm dần, xem PageCursor. Mỗi bộ lọc (tất cả, theo người dùng,
+    // theo trạng thái) có câu truy vấn trang đầu và trang sau riêng để dùng được chỉ mục tương ứng.
+    // Dòng hàng được nạp riêng bằng OrderItemRepository.findByOrderIds để LIMIT vẫn chạy trong SQL
+    String AFTER_CURSOR = "(o.createdAt < :cursorCreatedAt OR (o.createdAt = :cursorCreatedAt AND o.id < :cursorId)) ";
+    String NEWEST_FIRST = "ORDER BY o.createdAt DESC, o.id DESC";
+    
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user"})
+    @Query("SELECT o FROM Order o " + NEWEST_FIRST)
+    List<Order> findFirstPage(Pageable pageable);
+    
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user"})
+    @Query("SELECT o FROM Order o WHERE " + AFTER_CURSOR + NEWEST_FIRST)
+    List<Order> findNextPage(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                             @Param("cursorId") Long cursorId,
+                             Pageable pageable);
+    
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user"})
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId " + NEWEST_FIRST)
+    List<Order> findFirstPageByUser(@Param("userId") Long userId, Pageable pageable);
+    
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user"})
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId AND " + AFTER_CURSOR + NEWEST_FIRST)
+    List<Order> findNextPageByUser(@Param("userId") Long userId,
+                                   @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                   @Param("cursorId") Long cursorId,
+                                   Pageable pageable);
+    
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user"})
+    @Query("SELECT o FROM Order o WHERE o.status = :status " + NEWEST_FIRST)
+    List<Order> findFirstPageByStatus(@Param("status") Order.OrderStatus status, Pageable pageable);
+    
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"user"})
+    @Query("SELECT o FROM Order o WHERE o.status = :status AND " + AFTER_CURSOR + NEWEST_FIRST)
+    List<Order> findNextPageByStatus(@Param("status") Order.OrderStatus status,
+                                     @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable pageable);
+    
+    @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o")
+    BigDecimal sumTotalAmount();
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.thiepCuoi.repository;
+
+import com.thiepCuoi.repository.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    // Đánh dấu token đã xoay vòng; trả về 0 nếu request khác đã dùng token này trước
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken r SET r.revoked = true, r.rotatedAt = :now WHERE r.id = :id AND r.revoked = false")
+    int markRotated(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.sessionId = :sessionId AND r.revoked = false")
+    int revokeSession(@Param("sessionId") String sessionId);
+    
+    // Các phiên còn refresh token dùng được của người dùng
+    @Query("SELECT DISTINCT r.sessionId FROM RefreshToken r WHERE r.user.id = :userId AND r.revoked = false")
+    List<String> findActiveSessionIds(@Param("userId") Long userId);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
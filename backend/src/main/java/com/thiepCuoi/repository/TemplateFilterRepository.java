@@ -0,0 +1,23 @@
+package com.thiepCuoi.repository;
+
+import com.thiepCuoi.repository.entity.Template;
+import org.springframework.data.domain.Pageable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Trang mẫu thiệp đang bán theo tổ hợp bộ lọc (danh mục, từ khóa, khoảng giá) mà các truy vấn cố định
+ * của TemplateRepository không có sẵn
+ */
+public interface TemplateFilterRepository {
+    
+    /**
+     * Phân trang keyset theo (createdAt, id) giảm dần, chỉ các bộ lọc khác null mới được đưa vào câu truy vấn
+     * @param minPrice giá tối thiểu (bao gồm)
+     * @param maxPrice giá tối đa (không bao gồm)
+     * @param cursorCreatedAt null cho trang đầu
+     */
+    List<Template> findActivePageFiltered(Long categoryId, String keyword, BigDecimal minPrice, BigDecimal maxPrice,
+                                          LocalDateTime cursorCreatedAt, Long cursorId, Pageable pageable);
+}
@@ -0,0 +1,56 @@
+package com.thiepCuoi.repository;
+
+import com.thiepCuoi.repository.entity.Template;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class TemplateFilterRepositoryImpl implements TemplateFilterRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Template> findActivePageFiltered(Long categoryId, String keyword, BigDecimal minPrice, BigDecimal maxPrice,
+                                                 LocalDateTime cursorCreatedAt, Long cursorId, Pageable pageable) {
+        // Ghép điều kiện theo bộ lọc có mặt (không dùng "IS NULL OR"), giống các truy vấn cố định trong TemplateRepository
+        StringBuilder jpql = new StringBuilder("SELECT t FROM Template t JOIN FETCH t.category WHERE t.isActive = true ");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (categoryId != null) {
+            jpql.append("AND t.category.id = :categoryId ");
+            params.put("categoryId", categoryId);
+        }
+        if (keyword != null) {
+            jpql.append("AND t.name LIKE CONCAT('%', :keyword, '%') ");
+            params.put("keyword", keyword);
+        }
+        if (minPrice != null) {
+            jpql.append("AND t.price >= :minPrice ");
+            params.put("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            jpql.append("AND t.price < :maxPrice ");
+            params.put("maxPrice", maxPrice);
+        }
+        if (cursorCreatedAt != null) {
+            jpql.append(TemplateRepository.AFTER_CURSOR);
+            params.put("cursorCreatedAt", cursorCreatedAt);
+            params.put("cursorId", cursorId);
+        }
+        jpql.append(TemplateRepository.NEWEST_FIRST);
+        
+        TypedQuery<Template> query = entityManager.createQuery(jpql.toString(), Template.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, "catalog.queries")
+                .setMaxResults(pageable.getPageSize());
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
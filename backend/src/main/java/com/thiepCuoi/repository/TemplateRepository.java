@@ -2,18 +2,79 @@ package com.thiepCuoi.repository;
 
 import com.thiepCuoi.repository.entity.Template;
 import com.thiepCuoi.repository.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface TemplateRepository extends JpaRepository<Template, Long> {
+public interface TemplateRepository extends JpaRepository<Template, Long>, TemplateFilterRepository {
     List<Template> findByIsActiveTrue();
     List<Template> findByCategoryAndIsActiveTrue(Category category);
     List<Template> findByCategory_IdAndIsActiveTrue(Long categoryId);
     
     @Query("SELECT t FROM Template t WHERE t.isActive = true AND t.name LIKE %:keyword%")
     List<Template> searchByKeyword(@Param("keyword") String keyword);
+    
+    // Các truy vấn phục vụ trang công khai dùng query cache (region catalog.queries, xem CatalogCacheConfig)
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    long countByIsActiveTrue();
+    
+    // Mẫu thiệp đang bán, lọc theo danh mục/từ khóa nếu có; phân trang keyset theo (createdAt, id) giảm dần.
+    // Mỗi bộ lọc có câu truy vấn trang đầu và trang sau riêng thay vì điều kiện "IS NULL OR" chung;
+    // tổ hợp nhiều bộ lọc hoặc lọc theo giá đi qua findActivePageFiltered (TemplateFilterRepository)
+    String AFTER_CURSOR = "AND (t.createdAt < :cursorCreatedAt OR (t.createdAt = :cursorCreatedAt AND t.id < :cursorId)) ";
+    String NEWEST_FIRST = "ORDER BY t.createdAt DESC, t.id DESC";
+    
+    @Query("SELECT t FROM Template t WHERE t.isActive = true " + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"category"})
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    List<Template> findFirstActivePage(Pageable pageable);
+    
+    @Query("SELECT t FROM Template t WHERE t.isActive = true " + AFTER_CURSOR + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"category"})
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    List<Template> findNextActivePage(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                      @Param("cursorId") Long cursorId,
+                                      Pageable pageable);
+    
+    @Query("SELECT t FROM Template t WHERE t.isActive = true AND t.category.id = :categoryId " + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"category"})
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    List<Template> findFirstActivePageByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+    
+    @Query("SELECT t FROM Template t WHERE t.isActive = true AND t.category.id = :categoryId " + AFTER_CURSOR + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"category"})
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    List<Template> findNextActivePageByCategory(@Param("categoryId") Long categoryId,
+                                                @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                @Param("cursorId") Long cursorId,
+                                                Pageable pageable);
+    
+    @Query("SELECT t FROM Template t WHERE t.isActive = true AND t.name LIKE CONCAT('%', :keyword, '%') " + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"category"})
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    List<Template> findFirstActivePageByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    
+    @Query("SELECT t FROM Template t WHERE t.isActive = true AND t.name LIKE CONCAT('%', :keyword, '%') " + AFTER_CURSOR + NEWEST_FIRST)
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"category"})
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog.queries") })
+    List<Template> findNextActivePageByKeyword(@Param("keyword") String keyword,
+                                               @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable pageable);
 }
\ No newline at end of file
@@ -1,10 +1,15 @@
 package com.thiepCuoi.repository.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "card_templates")
+@Table(name = "card_templates", indexes = {
+    @Index(name = "idx_card_templates_active_created", columnList = "is_active, created_at, id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.card-template") // Cache cấp 2, xem CatalogCacheConfig
 public class CardTemplate {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -42,6 +47,11 @@ public class CardTemplate {
     @JoinColumn(name = "created_by")
     private User createdBy;
     
+    // Tăng mỗi lần cập nhật qua JPA, dùng để tạo ETag (xem ETags)
+    @Version
+    @Column(name = "row_version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long rowVersion;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
     
@@ -91,6 +101,9 @@ public class CardTemplate {
     public User getCreatedBy() { return createdBy; }
     public void setCreatedBy(User createdBy) { this.createdBy = createdBy; }
     
+    public Long getRowVersion() { return rowVersion; }
+    public void setRowVersion(Long rowVersion) { this.rowVersion = rowVersion; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -0,0 +1,68 @@
+package com.thiepCuoi.repository.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Bản chụp nội dung của card template tại một revision, dùng chung cho mọi thiệp được ghim vào revision đó
+ */
+@Entity
+@Table(name = "card_template_revisions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"card_template_id", "revision"}))
+public class CardTemplateRevision {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne
+    @JoinColumn(name = "card_template_id", nullable = false)
+    private CardTemplate cardTemplate;
+    
+    @Column(name = "revision", nullable = false)
+    private String revision;
+    
+    @Column(name = "html_content", nullable = false, columnDefinition = "LONGTEXT")
+    private String htmlContent;
+    
+    @Column(name = "css_content", columnDefinition = "LONGTEXT")
+    private String cssContent;
+    
+    @Column(name = "template_variables", columnDefinition = "JSON")
+    private String templateVariables;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    // Constructors
+    public CardTemplateRevision() {}
+    
+    public CardTemplateRevision(CardTemplate cardTemplate, String revision) {
+        this.cardTemplate = cardTemplate;
+        this.revision = revision;
+        this.htmlContent = cardTemplate.getHtmlContent();
+        this.cssContent = cardTemplate.getCssContent();
+        this.templateVariables = cardTemplate.getTemplateVariables();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public CardTemplate getCardTemplate() { return cardTemplate; }
+    public void setCardTemplate(CardTemplate cardTemplate) { this.cardTemplate = cardTemplate; }
+    
+    public String getRevision() { return revision; }
+    public void setRevision(String revision) { this.revision = revision; }
+    
+    public String getHtmlContent() { return htmlContent; }
+    public void setHtmlContent(String htmlContent) { this.htmlContent = htmlContent; }
+    
+    public String getCssContent() { return cssContent; }
+    public void setCssContent(String cssContent) { this.cssContent = cssContent; }
+    
+    public String getTemplateVariables() { return templateVariables; }
+    public void setTemplateVariables(String templateVariables) { this.templateVariables = templateVariables; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
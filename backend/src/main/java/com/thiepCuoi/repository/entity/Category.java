@@ -1,10 +1,13 @@
 package com.thiepCuoi.repository.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "categories")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.category") // Cache cấp 2, xem CatalogCacheConfig
 public class Category {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -15,6 +18,11 @@ public class Category {
     
     private String description;
     
+    // Tăng mỗi lần cập nhật qua JPA, dùng để tạo ETag (xem ETags)
+    @Version
+    @Column(name = "row_version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long rowVersion;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
     
@@ -36,6 +44,9 @@ public class Category {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     
+    public Long getRowVersion() { return rowVersion; }
+    public void setRowVersion(Long rowVersion) { this.rowVersion = rowVersion; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
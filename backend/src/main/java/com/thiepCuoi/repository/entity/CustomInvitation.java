@@ -6,10 +6,14 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "custom_invitations")
+@Table(name = "custom_invitations", indexes = {
+    @Index(name = "idx_custom_invitations_user_created", columnList = "user_id, created_at, id")
+})
 public class CustomInvitation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "custom_invitations_id")
+    @TableGenerator(name = "custom_invitations_id", table = "id_generators", pkColumnName = "table_name",
+            valueColumnName = "next_val", pkColumnValue = "custom_invitations", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -1,13 +1,20 @@
 package com.thiepCuoi.repository.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "customized_cards")
+@Table(name = "customized_cards", indexes = {
+    // Phục vụ danh sách thiệp của người dùng (phân trang keyset theo created_at, id)
+    @Index(name = "idx_customized_cards_user_created", columnList = "user_id, created_at, id")
+})
+@DynamicUpdate // Chỉ ghi các cột thay đổi, tránh gửi lại rendered_html/rendered_css khi không đổi
 public class CustomizedCard {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "customized_cards_id")
+    @TableGenerator(name = "customized_cards_id", table = "id_generators", pkColumnName = "table_name",
+            valueColumnName = "next_val", pkColumnValue = "customized_cards", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -22,15 +29,26 @@ public class CustomizedCard {
     @JoinColumn(name = "template_id", nullable = false)
     private Template template;
     
-    @Column(name = "rendered_html", nullable = false, columnDefinition = "LONGTEXT")
+    // null khi bật app.card.render-on-read: HTML/CSS được render lại từ customData + templateRevision khi đọc
+    @Column(name = "rendered_html", columnDefinition = "LONGTEXT")
     private String renderedHtml;
     
     @Column(name = "rendered_css", columnDefinition = "LONGTEXT")
     private String renderedCss;
     
+    // Hash SHA-256 tham chiếu nội dung trong blob store (app.card.blob-store), khi đó rendered_html/rendered_css là null
+    @Column(name = "rendered_html_hash", length = 64)
+    private String renderedHtmlHash;
+    
+    @Column(name = "rendered_css_hash", length = 64)
+    private String renderedCssHash;
+    
     @Column(name = "custom_data", nullable = false, columnDefinition = "JSON")
     private String customData; // JSON string chứa dữ liệu user nhập
     
+    @Column(name = "template_revision")
+    private String templateRevision; // Revision của card template được dùng để render thiệp
+    
     @Column(name = "generated_image_url")
     private String generatedImageUrl;
     
@@ -80,9 +98,18 @@ public class CustomizedCard {
     public String getRenderedCss() { return renderedCss; }
     public void setRenderedCss(String renderedCss) { this.renderedCss = renderedCss; }
     
+    public String getRenderedHtmlHash() { return renderedHtmlHash; }
+    public void setRenderedHtmlHash(String renderedHtmlHash) { this.renderedHtmlHash = renderedHtmlHash; }
+    
+    public String getRenderedCssHash() { return renderedCssHash; }
+    public void setRenderedCssHash(String renderedCssHash) { this.renderedCssHash = renderedCssHash; }
+    
     public String getCustomData() { return customData; }
     public void setCustomData(String customData) { this.customData = customData; }
     
+    public String getTemplateRevision() { return templateRevision; }
+    public void setTemplateRevision(String templateRevision) { this.templateRevision = templateRevision; }
+    
     public String getGeneratedImageUrl() { return generatedImageUrl; }
     public void setGeneratedImageUrl(String generatedImageUrl) { this.generatedImageUrl = generatedImageUrl; }
     
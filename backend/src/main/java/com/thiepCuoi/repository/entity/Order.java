@@ -7,10 +7,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Phân trang keyset theo (created_at, id), lọc theo người dùng hoặc trạng thái
+    @Index(name = "idx_orders_created", columnList = "created_at, id"),
+    @Index(name = "idx_orders_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_orders_status_created", columnList = "status, created_at, id")
+})
 public class Order {
+    // Cấp id theo khối 50 giá trị từ bảng id_generators (pooled) thay vì IDENTITY,
+    // để Hibernate gộp được các câu INSERT thành batch; xem IdGeneratorInitializer
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id")
+    @TableGenerator(name = "orders_id", table = "id_generators", pkColumnName = "table_name",
+            valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -0,0 +1,41 @@
+package com.thiepCuoi.repository.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Node id của bộ sinh mã đơn hàng (xem OrderCodeServiceImpl): instance đang giữ và mốc thời gian đã cấp mã tới
+@Entity
+@Table(name = "order_code_nodes")
+public class OrderCodeNode {
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+    
+    // Instance đang giữ node id (hostname/uuid), đổi mỗi lần khởi động
+    @Column(name = "owner", nullable = false)
+    private String owner;
+    
+    // Hết thời điểm này mà không được gia hạn thì instance khác được nhận node id
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+    
+    // Epoch mili giây; mã của node không bao giờ vượt mốc này trước khi mốc mới được ghi xuống
+    @Column(name = "reserved_until", nullable = false)
+    private Long reservedUntil = 0L;
+    
+    // Constructors
+    public OrderCodeNode() {}
+    
+    // Getters and Setters
+    public Integer getNodeId() { return nodeId; }
+    public void setNodeId(Integer nodeId) { this.nodeId = nodeId; }
+    
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+    
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+    
+    public Long getReservedUntil() { return reservedUntil; }
+    public void setReservedUntil(Long reservedUntil) { this.reservedUntil = reservedUntil; }
+}
@@ -7,7 +7,9 @@ import java.math.BigDecimal;
 @Table(name = "order_items")
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_items_id")
+    @TableGenerator(name = "order_items_id", table = "id_generators", pkColumnName = "table_name",
+            valueColumnName = "next_val", pkColumnValue = "order_items", allocationSize = 50)
     private Long id;
     
     @ManyToOne
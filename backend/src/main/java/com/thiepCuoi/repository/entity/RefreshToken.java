@@ -0,0 +1,76 @@
+package com.thiepCuoi.repository.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Refresh token dùng một lần: mỗi lần làm mới, token cũ bị đánh dấu đã xoay vòng và một token mới cùng phiên được cấp
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_session", columnList = "session_id"),
+    @Index(name = "idx_refresh_tokens_user", columnList = "user_id, revoked")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // SHA-256 của token, không lưu token gốc
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+    
+    // Phiên đăng nhập (claim sid của access token), giữ nguyên qua các lần xoay vòng
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+    
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(nullable = false)
+    private Boolean revoked = false;
+    
+    // Thời điểm token bị thay bằng token mới (null nếu bị thu hồi do đăng xuất/đổi mật khẩu)
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    // Constructors
+    public RefreshToken() {}
+    
+    public RefreshToken(String tokenHash, String sessionId, User user, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.sessionId = sessionId;
+        this.user = user;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getTokenHash() { return tokenHash; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
+    
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+    
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    
+    public Boolean getRevoked() { return revoked; }
+    public void setRevoked(Boolean revoked) { this.revoked = revoked; }
+    
+    public LocalDateTime getRotatedAt() { return rotatedAt; }
+    public void setRotatedAt(LocalDateTime rotatedAt) { this.rotatedAt = rotatedAt; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,40 @@
+package com.thiepCuoi.repository.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Phiên đăng nhập đã bị thu hồi; chỉ cần giữ đến khi access token cuối cùng của phiên hết hạn
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_tokens_expires", columnList = "expires_at")
+})
+public class RevokedToken {
+    // Claim sid của access token
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt = LocalDateTime.now();
+    
+    // Constructors
+    public RevokedToken() {}
+    
+    public RevokedToken(String tokenId, LocalDateTime expiresAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public String getTokenId() { return tokenId; }
+    public void setTokenId(String tokenId) { this.tokenId = tokenId; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    
+    public LocalDateTime getRevokedAt() { return revokedAt; }
+    public void setRevokedAt(LocalDateTime revokedAt) { this.revokedAt = revokedAt; }
+}
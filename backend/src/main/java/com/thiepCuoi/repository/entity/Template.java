@@ -1,11 +1,16 @@
 package com.thiepCuoi.repository.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "templates")
+@Table(name = "templates", indexes = {
+    @Index(name = "idx_templates_active_created", columnList = "is_active, created_at, id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.template") // Cache cấp 2, xem CatalogCacheConfig
 public class Template {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,6 +36,11 @@ public class Template {
     @Column(name = "is_active")
     private Boolean isActive = true;
     
+    // Tăng mỗi lần cập nhật qua JPA, dùng để tạo ETag (xem ETags)
+    @Version
+    @Column(name = "row_version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long rowVersion;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
     
@@ -69,6 +79,9 @@ public class Template {
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
     
+    public Long getRowVersion() { return rowVersion; }
+    public void setRowVersion(Long rowVersion) { this.rowVersion = rowVersion; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.thiepCuoi.security;
+
+import com.thiepCuoi.config.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * BCrypt chạy trên pool riêng có giới hạn thay vì trên thread request của Tomcat.
+ * Khi pool và hàng đợi đều đầy thì từ chối ngay (429), để một đợt đăng nhập/đăng ký dồn dập
+ * không chiếm hết thread của các API khác.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+    
+    // Chi phí mặc định của Spring, không hạ thấp hơn khi hiệu chỉnh
+    public static final int MIN_STRENGTH = 10;
+    
+    private final BCryptPasswordEncoder delegate;
+    private final ExecutorService executor;
+    private final int strength;
+    
+    public BoundedPasswordEncoder(int strength, ExecutorService executor) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.executor = executor;
+        this.strength = strength;
+    }
+    
+    /**
+     * Chọn chi phí BCrypt lớn nhất mà thời gian băm không vượt quá targetMs trên máy hiện tại
+     * (mỗi bậc tăng gấp đôi thời gian), trong khoảng [MIN_STRENGTH, maxStrength]
+     */
+    public static int calibrate(long targetMs, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        probe.encode("calibration"); // Làm nóng JIT
+        
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        
+        int strength = MIN_STRENGTH;
+        double estimatedMs = bestNanos / 1_000_000.0;
+        while (strength < maxStrength && estimatedMs * 2 <= targetMs) {
+            strength++;
+            estimatedMs *= 2;
+        }
+        log.info("BCrypt: chi phí {} (~{} ms mỗi lần băm)", strength, Math.round(estimatedMs));
+        return strength;
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+    
+    // Hash cũ có chi phí thấp hơn hiện tại sẽ được băm lại khi đăng nhập thành công (chỉ đọc prefix, không băm), xem AuthServiceImpl
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    
+    public int getStrength() { return strength; }
+    
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Hệ thống đang bận xử lý đăng nhập, vui lòng thử lại sau", 1);
+        }
+        
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Xử lý mật khẩu bị gián đoạn");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Lỗi xử lý mật khẩu: " + e.getCause().getMessage());
+        }
+    }
+}
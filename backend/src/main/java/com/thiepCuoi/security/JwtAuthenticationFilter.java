@@ -1,5 +1,6 @@
 package com.thiepCuoi.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,22 +25,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
     
+    @Autowired
+    private PrincipalCache principalCache;
+    
+    @Autowired
+    private RevocationIndex revocationIndex;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                   HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt) : null;
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (claims != null && !isRevoked(claims)) {
+                UserDetails userDetails = loadPrincipal(claims);
                 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = 
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Không thể thiết lập xác thực người dùng", ex);
@@ -48,6 +57,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    // Phiên đã đăng xuất/đổi mật khẩu: access token bị từ chối dù chưa hết hạn
+    private boolean isRevoked(Claims claims) {
+        String sessionId = claims.get(JwtProvider.SESSION_ID_CLAIM, String.class);
+        return sessionId != null && revocationIndex.isRevoked(sessionId);
+    }
+    
+    // Principal lấy từ claim của token; chỉ token cũ (chưa có claim uid/roles) mới cần tải người dùng từ DB
+    private UserDetails loadPrincipal(Claims claims) {
+        JwtUserPrincipal principal = tokenProvider.getPrincipal(claims);
+        if (principal == null) {
+            return customUserDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        return principalCache.resolve(principal);
+    }
+    
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,66 +1,181 @@
 package com.thiepCuoi.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.thiepCuoi.repository.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtProvider {
     
+    private static final Logger log = LoggerFactory.getLogger(JwtProvider.class);
+    
+    // Claim chứa id và quyền của người dùng, để filter dựng principal mà không truy vấn DB
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    // Phiên đăng nhập (refresh token cùng phiên), dùng để thu hồi access token khi đăng xuất/đổi mật khẩu
+    static final String SESSION_ID_CLAIM = "sid";
+    
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    
     @Value("${app.jwt.secret}")
     private String jwtSecret;
     
     @Value("${app.jwt.expiration}")
     private int jwtExpirationInMs;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${app.jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+    
+    // Khóa HMAC và parser dựng một lần, dùng chung cho mọi request (JwtParser an toàn đa luồng)
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    // Claims của các token đã xác minh chữ ký, theo SHA-256 của token, mỗi mục hết hạn đúng lúc token hết hạn.
+    // Client gửi lại cùng một token suốt phiên làm việc nên phần lớn request không phải chạy HS512 và parse JSON
+    private Cache<String, Claims> verifiedTokens;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, verifiedTokens, "auth.jwt.verified"));
     }
     
-    public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+    /**
+     * Tạo access token ngắn hạn cho một phiên đăng nhập
+     */
+    public String generateToken(UserDetails userPrincipal, String sessionId) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
+        Long userId = userPrincipal instanceof User user ? user.getId() : ((JwtUserPrincipal) userPrincipal).getId();
         
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLES_CLAIM, JwtUserPrincipal.roleNames(userPrincipal))
+                .claim(SESSION_ID_CLAIM, sessionId)
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
     
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+    // Thời gian sống của access token (ms)
+    public long getExpirationMs() {
+        return jwtExpirationInMs;
     }
     
-    public boolean validateToken(String authToken) {
+    /**
+     * Xác minh chữ ký và hạn của token (một lần duy nhất cho mỗi token, sau đó lấy từ cache)
+     * @return claims của token, null nếu token không hợp lệ hoặc đã hết hạn
+     */
+    public Claims verify(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims != null) {
+            return claims;
+        }
+        
+        // Token hết hạn/giả mạo đến theo từng request nên chỉ ghi ở mức debug, tránh ngập log
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
+            claims = parser.parseClaimsJws(token).getBody();
         } catch (MalformedJwtException ex) {
-            System.err.println("Token JWT không hợp lệ");
+            log.debug("Token JWT không hợp lệ: {}", ex.getMessage());
+            return null;
         } catch (ExpiredJwtException ex) {
-            System.err.println("Token JWT đã hết hạn");
+            log.debug("Token JWT đã hết hạn: {}", ex.getMessage());
+            return null;
         } catch (UnsupportedJwtException ex) {
-            System.err.println("Token JWT không được hỗ trợ");
+            log.debug("Token JWT không được hỗ trợ: {}", ex.getMessage());
+            return null;
         } catch (IllegalArgumentException ex) {
-            System.err.println("Chuỗi JWT claims trống");
+            log.debug("Chuỗi JWT claims trống: {}", ex.getMessage());
+            return null;
+        } catch (JwtException ex) {
+            log.debug("Chữ ký JWT không hợp lệ: {}", ex.getMessage());
+            return null;
+        }
+        
+        // Token không có exp thì không cache (không biết khi nào hết hiệu lực)
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+    
+    public String getUsernameFromToken(String token) {
+        Claims claims = verify(token);
+        return claims == null ? null : claims.getSubject();
+    }
+    
+    /**
+     * Dựng principal từ claim của token đã xác minh
+     * @return null nếu token được cấp trước khi có claim uid/roles
+     */
+    public JwtUserPrincipal getPrincipal(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Collection<?> roles = claims.get(ROLES_CLAIM, Collection.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+        return new JwtUserPrincipal(userId.longValue(), claims.getSubject(), roles.stream().map(String::valueOf).toList(),
+                claims.get(SESSION_ID_CLAIM, String.class));
+    }
+    
+    public boolean validateToken(String authToken) {
+        return verify(authToken) != null;
+    }
+    
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
-        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package com.thiepCuoi.security;
+
+import com.thiepCuoi.repository.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Người dùng đã xác thực, dựng từ claim của token JWT (không cần tải entity User từ DB).
+ * Controller chỉ dùng authentication.getName() nên username, id và quyền là đủ.
+ */
+public final class JwtUserPrincipal implements UserDetails {
+    
+    private final Long id;
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+    // Claim sid của token, null với token cấp trước khi có refresh token
+    private final String sessionId;
+    
+    // Constructors
+    public JwtUserPrincipal(Long id, String username, Collection<String> roles, String sessionId) {
+        this.id = id;
+        this.username = username;
+        this.authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableList());
+        this.sessionId = sessionId;
+    }
+    
+    public static JwtUserPrincipal from(User user) {
+        return new JwtUserPrincipal(user.getId(), user.getUsername(), roleNames(user), null);
+    }
+    
+    // Cùng người dùng và quyền, gắn với phiên của token hiện tại
+    public JwtUserPrincipal withSessionId(String sessionId) {
+        return new JwtUserPrincipal(id, username, roleNames(this), sessionId);
+    }
+    
+    /**
+     * Tên các quyền (ROLE_...) của một người dùng, dùng làm claim roles
+     */
+    public static List<String> roleNames(UserDetails user) {
+        return user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+    }
+    
+    public Long getId() { return id; }
+    
+    public String getSessionId() { return sessionId; }
+    
+    @Override
+    public String getUsername() { return username; }
+    
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+    
+    // Không giữ mật khẩu: principal chỉ sinh ra từ token đã xác minh
+    @Override
+    public String getPassword() { return null; }
+    
+    @Override
+    public boolean isAccountNonExpired() { return true; }
+    
+    @Override
+    public boolean isAccountNonLocked() { return true; }
+    
+    @Override
+    public boolean isCredentialsNonExpired() { return true; }
+    
+    @Override
+    public boolean isEnabled() { return true; }
+}
@@ -0,0 +1,78 @@
+package com.thiepCuoi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thiepCuoi.repository.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Đối chiếu principal trong token với trạng thái hiện tại của người dùng (bị xóa, đổi quyền).
+ * Mặc định tắt: principal lấy hoàn toàn từ claim của token. Khi bật, mỗi người dùng chỉ truy vấn DB
+ * tối đa một lần trong ttl-seconds, số người dùng được nhớ giới hạn bởi max-size.
+ */
+@Component
+public class PrincipalCache {
+    
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+    
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    
+    @Value("${app.jwt.principal-cache.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.jwt.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+    
+    @Value("${app.jwt.principal-cache.max-size:10000}")
+    private long maxSize;
+    
+    // Optional rỗng: người dùng không còn tồn tại (cũng được nhớ để không truy vấn lại liên tục)
+    private Cache<Long, Optional<JwtUserPrincipal>> principals;
+    
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, principals, "auth.principal"));
+    }
+    
+    /**
+     * @param fromToken principal dựng từ claim của token đã xác minh
+     * @return principal dùng cho request, null nếu người dùng đã bị xóa
+     */
+    public JwtUserPrincipal resolve(JwtUserPrincipal fromToken) {
+        if (principals == null) {
+            return fromToken;
+        }
+        return principals.get(fromToken.getId(), this::load)
+                .map(principal -> principal.withSessionId(fromToken.getSessionId()))
+                .orElse(null);
+    }
+    
+    private Optional<JwtUserPrincipal> load(Long userId) {
+        try {
+            User user = (User) customUserDetailsService.loadUserById(userId);
+            return Optional.of(JwtUserPrincipal.from(user));
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+}
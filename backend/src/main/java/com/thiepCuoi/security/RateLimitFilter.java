@@ -0,0 +1,188 @@
+package com.thiepCuoi.security;
+
+import com.thiepCuoi.repository.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Giới hạn tần suất cho các endpoint tốn CPU (render thiệp, BCrypt khi đăng nhập/đăng ký), chạy sau JwtAuthenticationFilter.
+ * Mỗi luật là một token bucket theo thuật toán GCRA: trạng thái của một client chỉ là một số long
+ * (thời điểm bucket đầy trở lại), cập nhật bằng CAS nên không cần khóa.
+ * Client được nhận diện theo user id nếu đã đăng nhập, ngược lại theo IP. Khóa được băm vào mảng cố định STRIPES ô
+ * nên bộ nhớ không tăng theo số client; đổi lại, hai client hiếm hoi rơi vào cùng ô sẽ dùng chung hạn mức.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final int STRIPES = 1 << 16;
+    
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    // Mỗi luật: "METHOD /đường/dẫn/**=số-yêu-cầu/số-giây"
+    @Value("${app.rate-limit.rules:}")
+    private List<String> ruleSpecs;
+    
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    
+    // Gốc thời gian để mọi mốc đều dương (System.nanoTime có thể âm), ô mảng mới có giá trị 0 = bucket đầy
+    private final long origin = System.nanoTime();
+    
+    private final List<Rule> rules = new ArrayList<>();
+    
+    @PostConstruct
+    public void init() {
+        for (String spec : ruleSpecs) {
+            if (!spec.isBlank()) {
+                rules.add(Rule.parse(spec.trim()));
+            }
+        }
+        meterRegistry.ifAvailable(registry -> rules.forEach(rule -> rule.rejected = Counter.builder("http.rate_limit.rejected")
+                .description("Số request bị từ chối do vượt giới hạn tần suất")
+                .tag("route", rule.method + " " + rule.pattern)
+                .register(registry)));
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || rules.isEmpty();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Rule rule = match(request);
+        if (rule != null) {
+            long waitNanos = rule.tryAcquire(stripe(clientKey(request)), System.nanoTime() - origin);
+            if (waitNanos > 0) {
+                if (rule.rejected != null) {
+                    rule.rejected.increment();
+                }
+                reject(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    // So khớp trên đường dẫn đã giải mã và bỏ ";..." giống cách Spring MVC định tuyến,
+    // nếu không thì /auth/dang%5Fnhap vẫn tới handler đăng nhập mà không khớp luật nào
+    private Rule match(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        for (Rule rule : rules) {
+            if (rule.method.equalsIgnoreCase(request.getMethod()) && pathMatcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+    
+    // IP lấy từ getRemoteAddr: sau nginx cần server.forward-headers-strategy để Tomcat đọc X-Forwarded-For
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) {
+            Object principal = authentication.getPrincipal();
+            if (principal instanceof JwtUserPrincipal user) {
+                return "user:" + user.getId();
+            }
+            if (principal instanceof User user) {
+                return "user:" + user.getId();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+    
+    private static int stripe(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+    
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"Bạn gửi quá nhiều yêu cầu, vui lòng thử lại sau " + retryAfterSeconds + " giây\"}");
+    }
+    
+    private static final class Rule {
+        final String method;
+        final String pattern;
+        // Thời gian hồi một lượt, và độ dài cửa sổ (= capacity lượt) cho phép dồn liên tiếp
+        final long intervalNanos;
+        final long burstNanos;
+        // Thời điểm lý thuyết bucket đầy trở lại của từng ô
+        final AtomicLongArray fullAt = new AtomicLongArray(STRIPES);
+        Counter rejected;
+        
+        Rule(String method, String pattern, long capacity, long periodSeconds) {
+            this.method = method;
+            this.pattern = pattern;
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(periodSeconds) / capacity;
+            this.burstNanos = intervalNanos * capacity;
+        }
+        
+        static Rule parse(String spec) {
+            try {
+                int separator = spec.lastIndexOf('=');
+                String[] route = spec.substring(0, separator).trim().split("\\s+");
+                String[] limit = spec.substring(separator + 1).trim().split("/");
+                long capacity = Long.parseLong(limit[0].trim());
+                long periodSeconds = Long.parseLong(limit[1].trim());
+                if (route.length != 2 || capacity <= 0 || periodSeconds <= 0) {
+                    throw new IllegalArgumentException();
+                }
+                return new Rule(route[0], route[1], capacity, periodSeconds);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Luật giới hạn tần suất không hợp lệ: " + spec);
+            }
+        }
+        
+        /**
+         * Lấy một lượt từ bucket của ô index
+         * @return 0 nếu được phép, ngược lại số nano giây cần chờ
+         */
+        long tryAcquire(int index, long now) {
+            while (true) {
+                long current = fullAt.get(index);
+                long next = Math.max(current, now) + intervalNanos;
+                long waitNanos = next - now - burstNanos;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (fullAt.compareAndSet(index, current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.thiepCuoi.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Refresh token chỉ đi qua cookie HttpOnly, Secure, SameSite=Strict nên script trên trang không đọc được.
+ * Cookie chỉ được gửi tới hai endpoint cần nó (một cookie chỉ có một Path, nên mỗi endpoint một bản cùng giá trị).
+ */
+@Component
+public class RefreshTokenCookies {
+    
+    public static final String NAME = "refresh_token";
+    
+    private static final List<String> PATHS = List.of("/api/v1/auth/lam_moi_token", "/api/v1/auth/dang_xuat");
+    
+    @Value("${app.jwt.refresh-expiration:2592000000}")
+    private long refreshExpirationMs;
+    
+    // Chỉ tắt khi chạy thử qua http trên host khác localhost
+    @Value("${app.jwt.refresh-cookie.secure:true}")
+    private boolean secure;
+    
+    /**
+     * Header Set-Cookie ghi refresh token mới
+     */
+    public HttpHeaders write(String refreshToken) {
+        return headers(refreshToken, Duration.ofMillis(refreshExpirationMs));
+    }
+    
+    /**
+     * Header Set-Cookie xóa refresh token (đăng xuất)
+     */
+    public HttpHeaders clear() {
+        return headers("", Duration.ZERO);
+    }
+    
+    private HttpHeaders headers(String value, Duration maxAge) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String path : PATHS) {
+            headers.add(HttpHeaders.SET_COOKIE, ResponseCookie.from(NAME, value)
+                    .httpOnly(true)
+                    .secure(secure)
+                    .sameSite("Strict")
+                    .path(path)
+                    .maxAge(maxAge)
+                    .build()
+                    .toString());
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,193 @@
+package com.thiepCuoi.security;
+
+import com.thiepCuoi.repository.RefreshTokenRepository;
+import com.thiepCuoi.repository.RevokedTokenRepository;
+import com.thiepCuoi.repository.entity.RevokedToken;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Chỉ mục các phiên đăng nhập (claim sid) đã bị thu hồi, kiểm tra ở mỗi request có access token.
+ * Bloom filter trong bộ nhớ trả lời "chắc chắn chưa thu hồi" cho gần như mọi request mà không đụng DB;
+ * chỉ khi filter báo "có thể" mới tra chính xác (bộ nhớ rồi bảng revoked_tokens).
+ * Filter được dựng lại định kỳ từ bảng revoked_tokens (phiên do instance khác thu hồi có hiệu lực sau tối đa
+ * rebuild-seconds), đồng thời xóa các dòng đã hết hạn.
+ * Gauge auth.revocation.rebuild.age cho biết số giây từ lần dựng lại thành công gần nhất;
+ * giá trị tăng quá rebuild-seconds nghĩa là thu hồi từ instance khác đang không được áp dụng.
+ */
+@Component
+public class RevocationIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(RevocationIndex.class);
+    
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    
+    @Value("${app.jwt.revocation.expected-entries:10000}")
+    private int expectedEntries;
+    
+    @Value("${app.jwt.revocation.rebuild-seconds:30}")
+    private long rebuildSeconds;
+    
+    private volatile BloomFilter filter;
+    
+    // System.currentTimeMillis() của lần dựng lại thành công gần nhất
+    private volatile long lastRebuildMillis;
+    
+    // Thu hồi trên instance này, kèm thời điểm (nanoTime) thêm vào; giữ đến khi chắc chắn có trong lần đọc DB sau
+    private final Map<String, Long> recent = new ConcurrentHashMap<>();
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "revocation-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @PostConstruct
+    public void init() {
+        rebuild();
+        meterRegistry.ifAvailable(registry -> Gauge.builder("auth.revocation.rebuild.age", this, RevocationIndex::secondsSinceRebuild)
+                .description("Số giây từ lần dựng lại chỉ mục thu hồi token thành công gần nhất")
+                .baseUnit("seconds")
+                .register(registry));
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("Không dựng lại được chỉ mục thu hồi token (lần thành công gần nhất cách đây {} giây)",
+                        Math.round(secondsSinceRebuild()), e);
+            }
+        }, rebuildSeconds, rebuildSeconds, TimeUnit.SECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * @return true nếu phiên đã bị thu hồi (chỉ truy vấn DB khi Bloom filter báo có thể)
+     */
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        return recent.containsKey(tokenId) || revokedTokenRepository.isRevoked(tokenId, LocalDateTime.now());
+    }
+    
+    /**
+     * Thu hồi phiên: ghi bảng revoked_tokens rồi thêm vào filter hiện tại, có hiệu lực ngay trên instance này
+     * @param expiresAt thời điểm access token cuối cùng của phiên hết hạn
+     */
+    public void revoke(String tokenId, LocalDateTime expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+        synchronized (this) {
+            recent.put(tokenId, System.nanoTime());
+            filter.add(tokenId);
+        }
+    }
+    
+    private void rebuild() {
+        long readStart = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        refreshTokenRepository.deleteExpired(now);
+        List<String> tokenIds = revokedTokenRepository.findActiveTokenIds(now);
+        
+        synchronized (this) {
+            // Thu hồi ghi DB trước khi bắt đầu đọc đã có trong tokenIds; các thu hồi sau đó được thêm lại từ recent
+            recent.values().removeIf(addedAt -> addedAt < readStart);
+            BloomFilter next = new BloomFilter(Math.max(expectedEntries, 2 * (tokenIds.size() + recent.size())));
+            tokenIds.forEach(next::add);
+            recent.keySet().forEach(next::add);
+            filter = next;
+        }
+        lastRebuildMillis = System.currentTimeMillis();
+    }
+    
+    private double secondsSinceRebuild() {
+        return (System.currentTimeMillis() - lastRebuildMillis) / 1000.0;
+    }
+    
+    /**
+     * Bloom filter kích thước cố định, đọc không khóa; ghi (hiếm) dùng OR nguyên tử trên từng word
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        
+        BloomFilter(int expectedEntries) {
+            long bits = (long) Math.ceil(-expectedEntries * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+        }
+        
+        void add(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+                long mask = 1L << bit;
+                words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+            }
+        }
+        
+        boolean mightContain(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        // FNV-1a 64 bit trên các ký tự rồi trộn thêm để các bit thấp phân bố đều
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+        
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb9fe1a85ec53L;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
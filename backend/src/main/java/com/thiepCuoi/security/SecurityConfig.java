@@ -1,8 +1,12 @@
 package com.thiepCuoi.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import com.thiepCuoi.model.dto.KeysetPage;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -10,15 +14,21 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 @EnableWebSecurity
@@ -31,9 +41,48 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+    
+    @Value("${app.password.bcrypt.strength:0}")
+    private int bcryptStrength;
+    
+    @Value("${app.password.bcrypt.target-ms:250}")
+    private long bcryptTargetMs;
+    
+    @Value("${app.password.bcrypt.max-strength:14}")
+    private int bcryptMaxStrength;
+    
+    @Value("${app.password.hash.workers:0}")
+    private int hashWorkers;
+    
+    @Value("${app.password.hash.queue-capacity:16}")
+    private int hashQueueCapacity;
+    
+    // Request kèm cookie (refresh token) chỉ được phép từ các origin của frontend
+    @Value("${cors.allowed-origins:http://localhost:3000}")
+    private List<String> corsAllowedOrigins;
+    
+    // Chi phí BCrypt cố định nếu cấu hình strength > 0, ngược lại hiệu chỉnh theo target-ms khi khởi động
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength > 0 ? bcryptStrength : BoundedPasswordEncoder.calibrate(bcryptTargetMs, bcryptMaxStrength);
+        return new BoundedPasswordEncoder(strength, passwordHashExecutor());
+    }
+    
+    // Pool cố định cho BCrypt; hàng đợi có giới hạn, khi đầy thì từ chối (429) thay vì giữ thêm thread request
+    @Bean(name = "passwordHashExecutor", destroyMethod = "shutdown")
+    public ExecutorService passwordHashExecutor() {
+        int workers = hashWorkers > 0 ? hashWorkers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, hashQueueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
     }
     
     @Bean
@@ -54,36 +103,56 @@ public class SecurityConfig {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // Thiếu hoặc hết hạn access token: 401 để client biết cần làm mới token (thiếu quyền vẫn là 403)
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .authorizeHttpRequests(authz -> authz
                 // Public endpoints
+                .requestMatchers("/api/v1/auth/thong_tin_ca_nhan", "/api/v1/auth/doi_mat_khau").authenticated()
                 .requestMatchers("/api/v1/auth/**").permitAll()
                 .requestMatchers("/api/v1/categories/**").permitAll()
                 .requestMatchers("/api/v1/templates/**").permitAll()
                 .requestMatchers("/api/v1/card-templates").permitAll() // Public view của card templates
                 .requestMatchers("/api/v1/card-templates/template/**").permitAll() // Public view theo template
                 .requestMatchers("/swagger-ui/**", "/api-docs/**", "/swagger-ui.html").permitAll()
+                .requestMatchers("/api/v1/preview/**").permitAll() // Ảnh xem trước, tên file là hash nội dung
+                .requestMatchers("/api/v1/pdf/**").permitAll() // File PDF in ấn, tên file là hash nội dung
+                .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                .requestMatchers("/error").permitAll() // Giữ nguyên mã lỗi gốc (403...) khi chuyển sang trang lỗi
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Admin endpoints
                 .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/v1/card-templates/**").hasRole("ADMIN") // Chỉ admin tạo/sửa card templates
                 // User endpoints
                 .requestMatchers("/api/v1/custom-invitations/**").hasRole("USER")
                 .requestMatchers("/api/v1/customized-cards/**").hasRole("USER") // HTML rendered cards
-                .requestMatchers("/api/v1/orders/**").hasRole("USER")
+                // Admin cũng vào được các API quản lý đơn hàng (/all, /theo_trang_thai...), phân quyền chi tiết bằng @PreAuthorize
+                .requestMatchers("/api/v1/orders/**").hasAnyRole("USER", "ADMIN")
                 .anyRequest().authenticated()
             );
         
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Sau filter JWT để giới hạn theo user id khi đã đăng nhập
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
         
         return http.build();
     }
     
+    // Chỉ chạy trong chuỗi filter của Spring Security, không đăng ký thêm làm filter servlet (sẽ chạy trước khi xác thực)
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+    
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOriginPatterns(Arrays.asList("*"));
+        configuration.setAllowedOriginPatterns(corsAllowedOrigins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(KeysetPage.NEXT_CURSOR_HEADER)); // Cho phép frontend đọc cursor trang sau
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
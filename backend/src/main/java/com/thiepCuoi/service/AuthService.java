@@ -6,4 +6,7 @@ public interface AuthService {
     AuthResponseDTO login(LoginDTO loginDTO);
     UserResponseDTO register(RegisterDTO registerDTO);
     UserResponseDTO getCurrentUser(String username);
+    AuthResponseDTO refresh(String refreshToken);
+    void logout(String sessionId, String refreshToken);
+    AuthResponseDTO changePassword(String username, String sessionId, ChangePasswordDTO changePasswordDTO);
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.thiepCuoi.service;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+public interface BlobStoreService {
+    /**
+     * Lưu nội dung (UTF-8) nếu chưa có, nội dung giống nhau chỉ được lưu một lần
+     * @param content HTML/CSS đã render
+     * @return hash SHA-256 (hex) dùng làm tham chiếu
+     * @throws IllegalStateException nếu kho đang mở chỉ đọc (app.card.blob-store=false)
+     */
+    String put(String content);
+
+    /**
+     * Đọc nội dung theo hash qua vùng nhớ map từ file segment
+     * @return null nếu hash là null
+     * @throws IllegalStateException nếu hash không có trong kho
+     */
+    String get(String hash);
+
+    /**
+     * Kích thước nội dung (byte)
+     * @return -1 nếu hash không tồn tại
+     */
+    long size(String hash);
+
+    /**
+     * Ghi nội dung ra channel bằng FileChannel.transferTo, không giải mã thành chuỗi
+     * @return số byte đã ghi (0 nếu hash là null)
+     * @throws IllegalStateException nếu hash không có trong kho
+     */
+    long transferTo(String hash, WritableByteChannel target) throws IOException;
+}
@@ -1,14 +1,15 @@
 package com.thiepCuoi.service;
 
 import com.thiepCuoi.model.dto.CardTemplateDTO;
-import java.util.List;
+import com.thiepCuoi.model.dto.KeysetPage;
 
 public interface CardTemplateService {
-    List<CardTemplateDTO> getAllActiveCardTemplates();
-    List<CardTemplateDTO> getCardTemplatesByTemplateId(Long templateId);
+    KeysetPage<CardTemplateDTO> getAllActiveCardTemplates(String cursor, Integer size);
+    KeysetPage<CardTemplateDTO> getCardTemplatesByTemplateId(Long templateId, String cursor, Integer size);
     CardTemplateDTO getCardTemplateById(Long id);
+    String getCardTemplateEtag(Long id);
     CardTemplateDTO createCardTemplate(CardTemplateDTO cardTemplateDTO, String username);
     CardTemplateDTO updateCardTemplate(Long id, CardTemplateDTO cardTemplateDTO, String username);
     void deleteCardTemplate(Long id, String username);
-    List<CardTemplateDTO> getCardTemplatesByCreator(String username);
+    KeysetPage<CardTemplateDTO> getCardTemplatesByCreator(String username, String cursor, Integer size);
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import java.util.List;
 public interface CategoryService {
     List<CategoryDTO> getAllCategories();
     CategoryDTO getCategoryById(Long id);
+    String getCategoriesEtag();
+    String getCategoryEtag(Long id);
     CategoryDTO createCategory(CategoryDTO categoryDTO);
     CategoryDTO updateCategory(Long id, CategoryDTO categoryDTO);
     void deleteCategory(Long id);
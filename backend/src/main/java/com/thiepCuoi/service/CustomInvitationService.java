@@ -1,14 +1,14 @@
 package com.thiepCuoi.service;
 
 import com.thiepCuoi.model.dto.CustomInvitationDTO;
-import java.util.List;
+import com.thiepCuoi.model.dto.KeysetPage;
 
 public interface CustomInvitationService {
     CustomInvitationDTO createCustomInvitation(String username, CustomInvitationDTO invitationDTO);
     CustomInvitationDTO updateCustomInvitation(Long id, CustomInvitationDTO invitationDTO, String username);
     CustomInvitationDTO saveCustomInvitation(Long id, String username);
-    List<CustomInvitationDTO> getUserInvitations(String username);
-    List<CustomInvitationDTO> getUserSavedInvitations(String username);
+    KeysetPage<CustomInvitationDTO> getUserInvitations(String username, String cursor, Integer size);
+    KeysetPage<CustomInvitationDTO> getUserSavedInvitations(String username, String cursor, Integer size);
     CustomInvitationDTO getCustomInvitationById(Long id, String username);
     void deleteCustomInvitation(Long id, String username);
 }
\ No newline at end of file
@@ -1,19 +1,23 @@
 package com.thiepCuoi.service;
 
+import com.thiepCuoi.model.dto.BatchRenderRequestDTO;
 import com.thiepCuoi.model.dto.CustomizedCardDTO;
+import com.thiepCuoi.model.dto.CustomizedCardSummaryDTO;
+import com.thiepCuoi.model.dto.KeysetPage;
 import com.thiepCuoi.model.dto.RenderTemplateRequestDTO;
-import java.util.List;
+import com.thiepCuoi.model.dto.Versioned;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface CustomizedCardService {
     CustomizedCardDTO renderTemplate(RenderTemplateRequestDTO request, String username);
+    StreamingResponseBody renderBatch(BatchRenderRequestDTO request, String username);
     CustomizedCardDTO saveCustomizedCard(Long id, String username);
-    List<CustomizedCardDTO> getUserCustomizedCards(String username);
-    List<CustomizedCardDTO> getUserSavedCards(String username);
-    CustomizedCardDTO getCustomizedCardById(Long id, String username);
+    KeysetPage<CustomizedCardDTO> getUserCustomizedCards(String username, String cursor, Integer size);
+    KeysetPage<CustomizedCardDTO> getUserSavedCards(String username, String cursor, Integer size);
+    KeysetPage<CustomizedCardSummaryDTO> getUserCardSummaries(String username, boolean savedOnly, String cursor, Integer size);
+    Versioned<CustomizedCardDTO> getCustomizedCardById(Long id, String username);
+    Versioned<StreamingResponseBody> streamCustomizedCardHtml(Long id, String username);
+    Versioned<StreamingResponseBody> streamCustomizedCardCss(Long id, String username);
     CustomizedCardDTO updateCustomizedCard(Long id, RenderTemplateRequestDTO request, String username);
     void deleteCustomizedCard(Long id, String username);
-    
-    // Utility methods
-    String generatePreviewImage(String htmlContent, String cssContent);
-    String generatePdfDocument(String htmlContent, String cssContent);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.thiepCuoi.service;
+
+public interface OrderCodeService {
+    /**
+     * Sinh mã đơn hàng duy nhất trên mọi instance backend, không cần khóa; database chỉ được ghi khoảng mỗi 10 giây
+     * để lưu mốc thời gian đã cấp mã (xem OrderCodeServiceImpl)
+     * @return mã dạng "TC" + 12 ký tự base-36, tăng dần theo thời gian tạo
+     */
+    String nextOrderCode();
+}
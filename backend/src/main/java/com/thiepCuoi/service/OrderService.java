@@ -1,15 +1,18 @@
 package com.thiepCuoi.service;
 
+import com.thiepCuoi.model.dto.KeysetPage;
 import com.thiepCuoi.model.dto.OrderDTO;
 import com.thiepCuoi.repository.entity.Order;
-import java.util.List;
+import java.math.BigDecimal;
 
 public interface OrderService {
     OrderDTO createOrder(String username, OrderDTO orderDTO);
-    List<OrderDTO> getUserOrders(String username);
+    KeysetPage<OrderDTO> getUserOrders(String username, String cursor, Integer size);
     OrderDTO getOrderById(Long id, String username);
     OrderDTO getOrderByCode(String orderCode);
     OrderDTO updateOrderStatus(Long id, Order.OrderStatus status);
-    List<OrderDTO> getOrdersByStatus(Order.OrderStatus status);
-    List<OrderDTO> getAllOrders();
+    KeysetPage<OrderDTO> getOrdersByStatus(Order.OrderStatus status, String cursor, Integer size);
+    KeysetPage<OrderDTO> getAllOrders(String cursor, Integer size);
+    Long getOrderCount();
+    BigDecimal getTotalRevenue();
 }
\ No newline at end of file
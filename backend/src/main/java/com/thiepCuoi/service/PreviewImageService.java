@@ -0,0 +1,22 @@
+package com.thiepCuoi.service;
+
+import com.thiepCuoi.model.dto.PreviewStatusDTO;
+import java.nio.file.Path;
+
+public interface PreviewImageService {
+    /**
+     * Yêu cầu tạo ảnh xem trước cho thiệp tùy chỉnh, generatedImageUrl được cập nhật khi job hoàn tất
+     */
+    PreviewStatusDTO requestCardPreview(Long customizedCardId, String username);
+
+    /**
+     * Trạng thái ảnh xem trước của nội dung hiện tại của thiệp
+     */
+    PreviewStatusDTO getCardPreviewStatus(Long customizedCardId, String username);
+
+    /**
+     * File ảnh trong cache đĩa theo tên file trong URL
+     * @return null nếu tên không hợp lệ hoặc ảnh chưa được tạo
+     */
+    Path resolvePreviewFile(String fileName);
+}
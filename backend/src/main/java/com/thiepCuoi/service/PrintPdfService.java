@@ -0,0 +1,23 @@
+package com.thiepCuoi.service;
+
+import com.thiepCuoi.model.dto.PdfStatusDTO;
+import java.nio.file.Path;
+
+public interface PrintPdfService {
+    /**
+     * Tạo một file PDF gộp cho cả đơn hàng, mỗi OrderItem là một trang được tạo song song
+     */
+    PdfStatusDTO requestOrderPdf(Long orderId);
+
+    /**
+     * Trạng thái file PDF của lần requestOrderPdf gần nhất cho đơn hàng (không render lại các thiệp);
+     * NONE nếu đơn hàng chưa được yêu cầu tạo PDF trên instance này
+     */
+    PdfStatusDTO getOrderPdfStatus(Long orderId);
+
+    /**
+     * File PDF trong cache đĩa theo tên file trong URL
+     * @return null nếu tên không hợp lệ hoặc file chưa được tạo
+     */
+    Path resolvePdfFile(String fileName);
+}
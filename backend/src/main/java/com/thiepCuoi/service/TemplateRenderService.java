@@ -1,5 +1,9 @@
 package com.thiepCuoi.service;
 
+import com.thiepCuoi.repository.entity.CardTemplate;
+import com.thiepCuoi.repository.entity.CustomizedCard;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Map;
 
 public interface TemplateRenderService {
@@ -19,6 +23,87 @@ public interface TemplateRenderService {
      */
     String renderCss(String cssTemplate, Map<String, String> customData);
     
+    /**
+     * Render HTML của card template, dùng bản biên dịch được cache theo ID + version
+     * @param cardTemplate mẫu thiệp HTML
+     * @param customData Map chứa dữ liệu để thay thế placeholders
+     * @return HTML đã được render
+     */
+    String renderHtml(CardTemplate cardTemplate, Map<String, String> customData);
+    
+    /**
+     * Render CSS của card template, dùng bản biên dịch được cache theo ID + version
+     * @param cardTemplate mẫu thiệp HTML
+     * @param customData Map chứa dữ liệu để thay thế
+     * @return CSS đã được render
+     */
+    String renderCss(CardTemplate cardTemplate, Map<String, String> customData);
+    
+    /**
+     * Render cả HTML và CSS, kết quả được cache theo (card template ID, version, hash của customData)
+     * @param cardTemplate mẫu thiệp HTML
+     * @param customData Map chứa dữ liệu để thay thế placeholders
+     * @return HTML và CSS đã được render
+     */
+    RenderedCard renderCard(CardTemplate cardTemplate, Map<String, String> customData);
+    
+    /**
+     * Render lại thiệp từ kết quả cũ: chỉ các vùng output của biến có giá trị thay đổi được render lại,
+     * HTML/CSS không dùng biến nào thay đổi được giữ nguyên
+     * @param cardTemplate mẫu thiệp HTML, phải cùng revision với lần render trước
+     * @param previous kết quả render trước đó
+     * @param previousData dữ liệu đã dùng để render kết quả trước đó
+     * @param customData dữ liệu mới
+     * @return HTML và CSS đã được render
+     */
+    RenderedCard rerenderCard(CardTemplate cardTemplate, RenderedCard previous,
+                              Map<String, String> previousData, Map<String, String> customData);
+    
+    /**
+     * Revision hiện tại của card template, đổi khi admin sửa nội dung template
+     * @param cardTemplate mẫu thiệp HTML
+     * @return chuỗi revision để lưu cùng kết quả render
+     */
+    String getTemplateRevision(CardTemplate cardTemplate);
+    
+    /**
+     * Ghim thiệp vào revision hiện tại: lưu bản chụp nội dung template (một lần cho mỗi revision)
+     * để thiệp vẫn render đúng sau khi admin sửa template
+     * @param cardTemplate mẫu thiệp HTML
+     * @return revision để lưu vào CustomizedCard.templateRevision
+     */
+    String pinTemplateRevision(CardTemplate cardTemplate);
+    
+    /**
+     * HTML và CSS của thiệp: dùng bản đã lưu (trong DB hoặc blob store) nếu có, nếu không thì render từ customData
+     * theo revision đã ghim (qua cache render)
+     * @param customizedCard thiệp tùy chỉnh
+     * @param customData dữ liệu đã parse từ customizedCard.customData
+     * @return HTML và CSS của thiệp
+     */
+    RenderedCard renderCustomizedCard(CustomizedCard customizedCard, Map<String, String> customData);
+    
+    /**
+     * Như renderCustomizedCard(CustomizedCard, Map), tự parse customData của thiệp
+     */
+    RenderedCard renderCustomizedCard(CustomizedCard customizedCard);
+    
+    /**
+     * Ghi trang HTML hoàn chỉnh của thiệp ra Writer, dùng revision template mà thiệp đã ghim
+     * @param customizedCard thiệp tùy chỉnh
+     * @param customData dữ liệu đã parse từ customizedCard.customData
+     * @param writer nơi ghi kết quả, thường là output stream của response
+     */
+    void renderDocument(CustomizedCard customizedCard, Map<String, String> customData, Writer writer) throws IOException;
+    
+    /**
+     * Ghi trực tiếp trang HTML hoàn chỉnh (CSS + HTML) ra Writer, không dựng chuỗi kết quả
+     * @param cardTemplate mẫu thiệp HTML
+     * @param customData Map chứa dữ liệu để thay thế placeholders
+     * @param writer nơi ghi kết quả, thường là output stream của response
+     */
+    void renderDocument(CardTemplate cardTemplate, Map<String, String> customData, Writer writer) throws IOException;
+    
     /**
      * Validate template variables
      * @param templateVariables JSON string chứa các biến template
@@ -26,4 +111,28 @@ public interface TemplateRenderService {
      * @return true nếu valid
      */
     boolean validateTemplateData(String templateVariables, Map<String, String> customData);
-}
\ No newline at end of file
+    
+    /**
+     * Validate dữ liệu theo schema đã biên dịch và cache cùng card template
+     * @param cardTemplate mẫu thiệp HTML (templateVariables hỗ trợ required, maxLength, format date/time, enum)
+     * @param customData Map chứa dữ liệu user nhập
+     * @return true nếu valid
+     */
+    boolean validateTemplateData(CardTemplate cardTemplate, Map<String, String> customData);
+    
+    /**
+     * Kết quả render của một thiệp (bất biến, dùng chung trong cache)
+     */
+    final class RenderedCard {
+        private final String html;
+        private final String css;
+        
+        public RenderedCard(String html, String css) {
+            this.html = html;
+            this.css = css;
+        }
+        
+        public String getHtml() { return html; }
+        public String getCss() { return css; }
+    }
+}
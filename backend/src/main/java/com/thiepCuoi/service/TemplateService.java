@@ -1,13 +1,18 @@
 package com.thiepCuoi.service;
 
+import com.thiepCuoi.model.dto.KeysetPage;
 import com.thiepCuoi.model.dto.TemplateDTO;
-import java.util.List;
+
+import java.math.BigDecimal;
 
 public interface TemplateService {
-    List<TemplateDTO> getAllActiveTemplates();
-    List<TemplateDTO> getTemplatesByCategory(Long categoryId);
-    List<TemplateDTO> searchTemplates(String keyword);
+    KeysetPage<TemplateDTO> getActiveTemplates(Long categoryId, String keyword, BigDecimal minPrice, BigDecimal maxPrice,
+                                               String cursor, Integer size);
+    KeysetPage<TemplateDTO> getTemplatesByCategory(Long categoryId, String cursor, Integer size);
+    KeysetPage<TemplateDTO> searchTemplates(String keyword, String cursor, Integer size);
+    Long getActiveTemplateCount();
     TemplateDTO getTemplateById(Long id);
+    String getTemplateEtag(Long id);
     TemplateDTO createTemplate(TemplateDTO templateDTO);
     TemplateDTO updateTemplate(Long id, TemplateDTO templateDTO);
     void deleteTemplate(Long id);
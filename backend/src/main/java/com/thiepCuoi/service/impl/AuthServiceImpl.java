@@ -1,21 +1,41 @@
 package com.thiepCuoi.service.impl;
 
+import com.thiepCuoi.config.TooManyRequestsException;
 import com.thiepCuoi.model.dto.*;
+import com.thiepCuoi.repository.RefreshTokenRepository;
 import com.thiepCuoi.repository.UserRepository;
+import com.thiepCuoi.repository.entity.RefreshToken;
 import com.thiepCuoi.repository.entity.User;
 import com.thiepCuoi.security.JwtProvider;
+import com.thiepCuoi.security.RevocationIndex;
 import com.thiepCuoi.service.AuthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
 @Service
 public class AuthServiceImpl implements AuthService {
     
+    private static final Logger log = LoggerFactory.getLogger(AuthServiceImpl.class);
+    
     @Autowired
     private AuthenticationManager authenticationManager;
     
@@ -28,22 +48,61 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private JwtProvider jwtProvider;
     
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private RevocationIndex revocationIndex;
+    
+    @Value("${app.jwt.refresh-expiration:2592000000}")
+    private long refreshExpirationMs;
+    
+    // Hai tab cùng làm mới một lúc: request đến sau trong khoảng này chỉ bị từ chối, không bị coi là token bị đánh cắp
+    @Value("${app.jwt.refresh-reuse-grace-seconds:10}")
+    private long refreshReuseGraceSeconds;
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
     @Override
     public AuthResponseDTO login(LoginDTO loginDTO) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginDTO.getUsername(),
-                        loginDTO.getPassword()
-                )
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginDTO.getUsername(),
+                            loginDTO.getPassword()
+                    )
+            );
+        } catch (InternalAuthenticationServiceException e) {
+            // Pool băm mật khẩu đầy trong lúc tải người dùng (DaoAuthenticationProvider bọc lại ngoại lệ)
+            if (e.getCause() instanceof TooManyRequestsException busy) {
+                throw busy;
+            }
+            throw e;
+        }
         
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtProvider.generateToken(authentication);
         
         User user = (User) authentication.getPrincipal();
-        UserResponseDTO userResponse = new UserResponseDTO(user);
-        
-        return new AuthResponseDTO(jwt, userResponse);
+        upgradePasswordHash(user, loginDTO.getPassword());
+        return issueTokens(user, UUID.randomUUID().toString());
+    }
+    
+    /**
+     * Băm lại mật khẩu có chi phí BCrypt thấp hơn chi phí hiện tại sau khi đăng nhập thành công.
+     * Nếu pool băm mật khẩu đang đầy thì bỏ qua, để lần đăng nhập sau nâng cấp, thay vì trả 429 cho lần đăng nhập đã đúng mật khẩu
+     */
+    private void upgradePasswordHash(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordEncoder.encode(rawPassword));
+        } catch (TooManyRequestsException e) {
+            log.debug("Bỏ qua băm lại mật khẩu của {}: pool băm mật khẩu đang đầy", user.getUsername());
+            return;
+        }
+        userRepository.save(user);
     }
     
     @Override
@@ -75,4 +134,85 @@ public class AuthServiceImpl implements AuthService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
         return new UserResponseDTO(user);
     }
+    
+    @Override
+    public AuthResponseDTO refresh(String refreshToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new RuntimeException("Phiên đăng nhập không hợp lệ, vui lòng đăng nhập lại"));
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new RuntimeException("Phiên đăng nhập đã hết hạn, vui lòng đăng nhập lại");
+        }
+        
+        if (current.getRevoked() || refreshTokenRepository.markRotated(current.getId(), now) == 0) {
+            // Token đã được dùng để làm mới từ trước (không phải hai request đồng thời): có thể đã bị lộ, thu hồi cả phiên
+            if (current.getRotatedAt() != null && current.getRotatedAt().isBefore(now.minusSeconds(refreshReuseGraceSeconds))) {
+                revokeSession(current.getSessionId());
+            }
+            throw new RuntimeException("Phiên đăng nhập không hợp lệ, vui lòng đăng nhập lại");
+        }
+        
+        return issueTokens(current.getUser(), current.getSessionId());
+    }
+    
+    @Override
+    public void logout(String sessionId, String refreshToken) {
+        if (sessionId == null && refreshToken != null) {
+            sessionId = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                    .map(RefreshToken::getSessionId)
+                    .orElse(null);
+        }
+        if (sessionId != null) {
+            revokeSession(sessionId);
+        }
+    }
+    
+    @Override
+    public AuthResponseDTO changePassword(String username, String sessionId, ChangePasswordDTO changePasswordDTO) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
+        if (!passwordEncoder.matches(changePasswordDTO.getCurrentPassword(), user.getPassword())) {
+            throw new RuntimeException("Mật khẩu hiện tại không chính xác");
+        }
+        
+        user.setPassword(passwordEncoder.encode(changePasswordDTO.getNewPassword()));
+        user.setUpdatedAt(LocalDateTime.now());
+        userRepository.save(user);
+        
+        // Đăng xuất mọi phiên khác (kể cả phiên hiện tại), rồi cấp phiên mới cho client đang đổi mật khẩu
+        for (String activeSession : refreshTokenRepository.findActiveSessionIds(user.getId())) {
+            revokeSession(activeSession);
+        }
+        if (sessionId != null) {
+            revokeSession(sessionId);
+        }
+        return issueTokens(user, UUID.randomUUID().toString());
+    }
+    
+    // Cấp access token ngắn hạn và refresh token mới (chỉ lưu SHA-256) cho một phiên
+    private AuthResponseDTO issueTokens(User user, String sessionId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(refreshToken), sessionId, user,
+                LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMs))));
+        
+        String jwt = jwtProvider.generateToken(user, sessionId);
+        return new AuthResponseDTO(jwt, jwtProvider.getExpirationMs() / 1000, refreshToken, new UserResponseDTO(user));
+    }
+    
+    // Refresh token của phiên không dùng được nữa; access token của phiên bị từ chối đến khi tự hết hạn
+    private void revokeSession(String sessionId) {
+        refreshTokenRepository.revokeSession(sessionId);
+        revocationIndex.revoke(sessionId, LocalDateTime.now().plus(Duration.ofMillis(jwtProvider.getExpirationMs())));
+    }
+    
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(refreshToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
\ No newline at end of file
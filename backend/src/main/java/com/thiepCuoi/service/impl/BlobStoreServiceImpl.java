@@ -0,0 +1,321 @@
+package com.thiepCuoi.service.impl;
+
+import com.thiepCuoi.service.BlobStoreService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Kho nội dung theo hash, nằm ngoài MySQL: các file segment chỉ ghi nối tiếp dưới ${upload.path}/blobs.
+ *
+ * Mỗi bản ghi: [32 byte SHA-256][4 byte độ dài][nội dung UTF-8]. Chỉ mục hash -> vị trí nằm trong bộ nhớ
+ * và được dựng lại bằng cách quét header khi khởi động. Đọc qua MappedByteBuffer của từng segment.
+ *
+ * Chỉ một tiến trình được ghi vào một thư mục blobs: khi bật app.card.blob-store, instance giữ khóa độc quyền
+ * trên file blobs/.lock suốt thời gian chạy, instance thứ hai dùng chung ${upload.path} sẽ không khởi động được.
+ * Khi tắt, kho chỉ mở để đọc các thiệp đã lưu trước đó (không ghi, không cắt bản ghi dở).
+ */
+@Service
+public class BlobStoreServiceImpl implements BlobStoreService {
+
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = HASH_LENGTH + Integer.BYTES;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d{6})\\.dat");
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Value("${upload.path:./uploads}")
+    private String uploadPath;
+
+    @Value("${app.blob.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${app.card.blob-store:false}")
+    private boolean writable;
+
+    // Khóa ghi giữa các tiến trình, null khi kho chỉ đọc
+    private FileChannel lockChannel;
+    private FileLock writeLock;
+
+    // Chỉ mục hash -> vị trí nội dung
+    private final ConcurrentMap<String, Location> index = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+
+    // Segment đang được ghi nối tiếp, chỉ thay đổi trong append (đồng bộ)
+    private Segment activeSegment;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path directory = blobDirectory();
+        Files.createDirectories(directory);
+        if (writable) {
+            acquireWriteLock(directory);
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.dat")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    ids.add(Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        ids.sort(null);
+
+        for (int id : ids) {
+            Segment segment = openSegment(id);
+            scan(segment);
+            segments.put(id, segment);
+            activeSegment = segment;
+        }
+        if (activeSegment == null && writable) {
+            activeSegment = openSegment(1);
+            segments.put(1, activeSegment);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        if (lockChannel != null) {
+            lockChannel.close(); // Đóng channel cũng nhả khóa
+        }
+    }
+
+    private void acquireWriteLock(Path directory) throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            writeLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            writeLock = null;
+        }
+        if (writeLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Blob store " + directory.toAbsolutePath()
+                    + " đang được một instance khác ghi; app.card.blob-store chỉ hỗ trợ một instance cho mỗi upload.path");
+        }
+    }
+
+    @Override
+    public String put(String content) {
+        if (!writable) {
+            throw new IllegalStateException("Blob store chỉ đọc (app.card.blob-store=false)");
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        byte[] digest = sha256(bytes);
+        String hash = HEX.formatHex(digest);
+        if (index.containsKey(hash)) {
+            return hash;
+        }
+
+        try {
+            append(hash, digest, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không ghi được nội dung vào blob store", e);
+        }
+        return hash;
+    }
+
+    @Override
+    public String get(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        Location location = locate(hash);
+
+        ByteBuffer view = mappedView(location);
+        byte[] bytes = new byte[location.length];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public long size(String hash) {
+        Location location = hash != null ? index.get(hash) : null;
+        return location != null ? location.length : -1;
+    }
+
+    @Override
+    public long transferTo(String hash, WritableByteChannel target) throws IOException {
+        if (hash == null) {
+            return 0;
+        }
+        Location location = locate(hash);
+
+        FileChannel channel = segments.get(location.segmentId).channel;
+        long position = location.offset;
+        long remaining = location.length;
+        while (remaining > 0) {
+            long written = channel.transferTo(position, remaining, target);
+            position += written;
+            remaining -= written;
+        }
+        return location.length;
+    }
+
+    /**
+     * Vị trí của hash mà một thiệp đang tham chiếu; thiếu nghĩa là blob store không khớp với DB
+     * (ví dụ thư mục blobs khác node đã ghi), báo lỗi thay vì trả về nội dung rỗng
+     */
+    private Location locate(String hash) {
+        Location location = index.get(hash);
+        if (location == null) {
+            throw new IllegalStateException("Không tìm thấy nội dung " + hash + " trong blob store " + blobDirectory().toAbsolutePath());
+        }
+        return location;
+    }
+
+    private synchronized void append(String hash, byte[] digest, byte[] bytes) throws IOException {
+        if (index.containsKey(hash)) {
+            return; // Thread khác vừa ghi cùng nội dung
+        }
+
+        long maxSegmentSize = Math.min((long) segmentSizeMb * 1024 * 1024, Integer.MAX_VALUE);
+        long recordLength = HEADER_LENGTH + (long) bytes.length;
+        if (activeSegment.size > 0 && activeSegment.size + recordLength > maxSegmentSize) {
+            int nextId = activeSegment.id + 1;
+            Segment next = openSegment(nextId);
+            segments.put(nextId, next);
+            activeSegment = next;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate((int) recordLength);
+        record.put(digest).putInt(bytes.length).put(bytes).flip();
+
+        long position = activeSegment.size;
+        while (record.hasRemaining()) {
+            position += activeSegment.channel.write(record, position);
+        }
+        // Nội dung phải bền trên đĩa trước khi hàng trong DB tham chiếu tới hash
+        activeSegment.channel.force(false);
+
+        index.put(hash, new Location(activeSegment.id, activeSegment.size + HEADER_LENGTH, bytes.length));
+        activeSegment.size = position;
+    }
+
+    /**
+     * Dựng lại chỉ mục từ header của các bản ghi; bản ghi ghi dở ở cuối (crash) bị cắt bỏ
+     */
+    private void scan(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+
+        while (position + HEADER_LENGTH <= fileSize) {
+            header.clear();
+            while (header.hasRemaining()) {
+                if (segment.channel.read(header, position + header.position()) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            byte[] digest = new byte[HASH_LENGTH];
+            header.get(digest);
+            int length = header.getInt();
+            if (length < 0 || position + HEADER_LENGTH + length > fileSize) {
+                break;
+            }
+
+            index.putIfAbsent(HEX.formatHex(digest), new Location(segment.id, position + HEADER_LENGTH, length));
+            position += HEADER_LENGTH + length;
+        }
+
+        if (position < fileSize && writable) {
+            segment.channel.truncate(position);
+        }
+        segment.size = position;
+    }
+
+    /**
+     * Vùng nhớ chỉ đọc của nội dung; segment đang ghi được map lại khi đã lớn hơn vùng map trước đó
+     */
+    private ByteBuffer mappedView(Location location) {
+        Segment segment = segments.get(location.segmentId);
+        long end = location.offset + location.length;
+
+        MappedByteBuffer mapped = segment.mapped;
+        if (mapped == null || mapped.capacity() < end) {
+            synchronized (segment) {
+                mapped = segment.mapped;
+                if (mapped == null || mapped.capacity() < end) {
+                    try {
+                        mapped = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.channel.size());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Không đọc được blob store", e);
+                    }
+                    segment.mapped = mapped;
+                }
+            }
+        }
+
+        ByteBuffer view = mapped.duplicate();
+        view.limit((int) end).position((int) location.offset);
+        return view;
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(segmentPath(id), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(segmentPath(id), StandardOpenOption.READ);
+        return new Segment(id, channel, channel.size());
+    }
+
+    private Path blobDirectory() {
+        return Paths.get(uploadPath, "blobs");
+    }
+
+    private Path segmentPath(int id) {
+        return blobDirectory().resolve(String.format("segment-%06d.dat", id));
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final FileChannel channel;
+        private volatile long size;
+        private volatile MappedByteBuffer mapped;
+
+        private Segment(int id, FileChannel channel, long size) {
+            this.id = id;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    private record Location(int segmentId, long offset, int length) {}
+}
@@ -0,0 +1,24 @@
+package com.thiepCuoi.service.impl;
+
+import org.jsoup.Jsoup;
+import org.jsoup.helper.W3CDom;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+
+/**
+ * Dựng DOM W3C từ HTML/CSS đã render của thiệp để đưa vào renderer (ảnh xem trước, PDF).
+ * HTML của template là HTML5 không nhất thiết well-formed nên được parse bằng jsoup trước.
+ */
+final class CardDocumentBuilder {
+
+    private CardDocumentBuilder() {}
+
+    static org.w3c.dom.Document toW3cDocument(String html, String css) {
+        Document document = Jsoup.parse(html != null ? html : "");
+        if (css != null && !css.isEmpty()) {
+            document.head().appendElement("style").appendChild(new DataNode(css));
+        }
+        document.head().prependElement("meta").attr("charset", "UTF-8");
+        return new W3CDom().fromJsoup(document);
+    }
+}
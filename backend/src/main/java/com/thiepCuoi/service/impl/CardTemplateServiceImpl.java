@@ -1,6 +1,9 @@
 package com.thiepCuoi.service.impl;
 
 import com.thiepCuoi.model.dto.CardTemplateDTO;
+import com.thiepCuoi.model.dto.ETags;
+import com.thiepCuoi.model.dto.KeysetPage;
+import com.thiepCuoi.model.dto.PageCursor;
 import com.thiepCuoi.repository.CardTemplateRepository;
 import com.thiepCuoi.repository.TemplateRepository;
 import com.thiepCuoi.repository.UserRepository;
@@ -9,9 +12,11 @@ import com.thiepCuoi.repository.entity.Template;
 import com.thiepCuoi.repository.entity.User;
 import com.thiepCuoi.service.CardTemplateService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CardTemplateServiceImpl implements CardTemplateService {
@@ -26,17 +31,31 @@ public class CardTemplateServiceImpl implements CardTemplateService {
     private UserRepository userRepository;
     
     @Override
-    public List<CardTemplateDTO> getAllActiveCardTemplates() {
-        return cardTemplateRepository.findByIsActiveTrue().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public KeysetPage<CardTemplateDTO> getAllActiveCardTemplates(String cursor, Integer size) {
+        return findActivePage(null, cursor, size);
     }
     
     @Override
-    public List<CardTemplateDTO> getCardTemplatesByTemplateId(Long templateId) {
-        return cardTemplateRepository.findByTemplate_IdAndIsActiveTrue(templateId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public KeysetPage<CardTemplateDTO> getCardTemplatesByTemplateId(Long templateId, String cursor, Integer size) {
+        return findActivePage(templateId, cursor, size);
+    }
+    
+    private KeysetPage<CardTemplateDTO> findActivePage(Long templateId, String cursor, Integer size) {
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        
+        Pageable limit = PageCursor.limit(pageSize);
+        List<CardTemplate> cardTemplates;
+        if (templateId != null) {
+            cardTemplates = position.isFirstPage()
+                    ? cardTemplateRepository.findFirstActivePageByTemplate(templateId, limit)
+                    : cardTemplateRepository.findNextActivePageByTemplate(templateId, position.getCreatedAt(), position.getId(), limit);
+        } else {
+            cardTemplates = position.isFirstPage()
+                    ? cardTemplateRepository.findFirstActivePage(limit)
+                    : cardTemplateRepository.findNextActivePage(position.getCreatedAt(), position.getId(), limit);
+        }
+        return KeysetPage.of(cardTemplates, pageSize, this::cursorOf, this::versionOf, this::convertToDTO);
     }
     
     @Override
@@ -46,6 +65,13 @@ public class CardTemplateServiceImpl implements CardTemplateService {
         return convertToDTO(cardTemplate);
     }
     
+    @Override
+    public String getCardTemplateEtag(Long id) {
+        CardTemplate cardTemplate = cardTemplateRepository.findByIdAndIsActiveTrue(id)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy mẫu thiệp HTML"));
+        return ETags.of(Stream.of(versionOf(cardTemplate)));
+    }
+    
     @Override
     public CardTemplateDTO createCardTemplate(CardTemplateDTO cardTemplateDTO, String username) {
         User user = userRepository.findByUsername(username)
@@ -92,6 +118,7 @@ public class CardTemplateServiceImpl implements CardTemplateService {
         cardTemplate.setPreviewImageUrl(cardTemplateDTO.getPreviewImageUrl());
         cardTemplate.setThumbnailUrl(cardTemplateDTO.getThumbnailUrl());
         cardTemplate.setVersion(cardTemplateDTO.getVersion());
+        cardTemplate.setUpdatedAt(LocalDateTime.now());
         
         CardTemplate updatedCardTemplate = cardTemplateRepository.save(cardTemplate);
         return convertToDTO(updatedCardTemplate);
@@ -114,13 +141,28 @@ public class CardTemplateServiceImpl implements CardTemplateService {
     }
     
     @Override
-    public List<CardTemplateDTO> getCardTemplatesByCreator(String username) {
+    public KeysetPage<CardTemplateDTO> getCardTemplatesByCreator(String username, String cursor, Integer size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
         
-        return cardTemplateRepository.findByCreatedBy_IdOrderByCreatedAtDesc(user.getId()).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        
+        List<CardTemplate> cardTemplates = position.isFirstPage()
+                ? cardTemplateRepository.findFirstPageByCreator(user.getId(), PageCursor.limit(pageSize))
+                : cardTemplateRepository.findNextPageByCreator(user.getId(),
+                        position.getCreatedAt(), position.getId(), PageCursor.limit(pageSize));
+        return KeysetPage.of(cardTemplates, pageSize, this::cursorOf, this::versionOf, this::convertToDTO);
+    }
+    
+    private PageCursor cursorOf(CardTemplate cardTemplate) {
+        return new PageCursor(cardTemplate.getCreatedAt(), cardTemplate.getId());
+    }
+    
+    // DTO đọc cả tên mẫu thiệp nên phiên bản gồm cả rowVersion của mẫu thiệp
+    private String versionOf(CardTemplate cardTemplate) {
+        return ETags.version("card-template", cardTemplate.getId(), cardTemplate.getRowVersion(),
+                cardTemplate.getTemplate().getRowVersion());
     }
     
     private CardTemplateDTO convertToDTO(CardTemplate cardTemplate) {
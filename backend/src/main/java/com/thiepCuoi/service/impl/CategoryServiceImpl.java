@@ -1,6 +1,7 @@
 package com.thiepCuoi.service.impl;
 
 import com.thiepCuoi.model.dto.CategoryDTO;
+import com.thiepCuoi.model.dto.ETags;
 import com.thiepCuoi.repository.CategoryRepository;
 import com.thiepCuoi.repository.entity.Category;
 import com.thiepCuoi.service.CategoryService;
@@ -8,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
@@ -29,6 +31,23 @@ public class CategoryServiceImpl implements CategoryService {
         return convertToDTO(category);
     }
     
+    // findAll dùng query cache nên gọi lại trong getAllCategories không tốn thêm truy vấn
+    @Override
+    public String getCategoriesEtag() {
+        return ETags.of(categoryRepository.findAll().stream().map(this::versionOf));
+    }
+    
+    @Override
+    public String getCategoryEtag(Long id) {
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy danh mục"));
+        return ETags.of(Stream.of(versionOf(category)));
+    }
+    
+    private String versionOf(Category category) {
+        return ETags.version("category", category.getId(), category.getRowVersion());
+    }
+    
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
         if (categoryRepository.existsByName(categoryDTO.getName())) {
@@ -0,0 +1,65 @@
+package com.thiepCuoi.service.impl;
+
+import com.thiepCuoi.repository.entity.CardTemplate;
+import com.thiepCuoi.repository.entity.CardTemplateRevision;
+
+/**
+ * HTML và CSS của một CardTemplate đã được biên dịch, gắn với revision của template
+ */
+public final class CompiledCardTemplate {
+
+    private final Long cardTemplateId;
+    private final String revision;
+    private final CompiledTemplate html;
+    private final CompiledTemplate css;
+    private final TemplateVariableSchema schema;
+
+    private CompiledCardTemplate(Long cardTemplateId, String revision, CompiledTemplate html, CompiledTemplate css,
+                                 TemplateVariableSchema schema) {
+        this.cardTemplateId = cardTemplateId;
+        this.revision = revision;
+        this.html = html;
+        this.css = css;
+        this.schema = schema;
+    }
+
+    public static CompiledCardTemplate compile(CardTemplate cardTemplate) {
+        return compile(cardTemplate.getId(), revisionOf(cardTemplate), cardTemplate.getHtmlContent(),
+                cardTemplate.getCssContent(), cardTemplate.getTemplateVariables());
+    }
+    
+    /**
+     * Biên dịch bản chụp của một revision cũ mà thiệp đã được ghim vào
+     */
+    public static CompiledCardTemplate compile(CardTemplateRevision snapshot) {
+        return compile(snapshot.getCardTemplate().getId(), snapshot.getRevision(), snapshot.getHtmlContent(),
+                snapshot.getCssContent(), snapshot.getTemplateVariables());
+    }
+    
+    private static CompiledCardTemplate compile(Long cardTemplateId, String revision, String htmlContent,
+                                                String cssContent, String templateVariables) {
+        return new CompiledCardTemplate(
+                cardTemplateId,
+                revision,
+                htmlContent != null ? CompiledTemplate.parseHtml(htmlContent) : null,
+                cssContent != null ? CompiledTemplate.parseCss(cssContent) : null,
+                TemplateVariableSchema.compile(templateVariables));
+    }
+
+    /**
+     * Revision = version + thời điểm cập nhật, đổi khi admin sửa nội dung template
+     */
+    public static String revisionOf(CardTemplate cardTemplate) {
+        return cardTemplate.getVersion() + "@" + cardTemplate.getUpdatedAt();
+    }
+
+    public Long getCardTemplateId() { return cardTemplateId; }
+
+    public String getRevision() { return revision; }
+
+    public CompiledTemplate getHtml() { return html; }
+
+    public CompiledTemplate getCss() { return css; }
+
+    public TemplateVariableSchema getSchema() { return schema; }
+}
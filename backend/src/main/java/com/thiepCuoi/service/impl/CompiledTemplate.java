@@ -0,0 +1,226 @@
+package com.thiepCuoi.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Template đã được phân tích sẵn thành danh sách đoạn văn bản cố định và biến {{ten_bien}}.
+ * Bất biến, an toàn khi dùng chung giữa nhiều thread.
+ */
+public final class CompiledTemplate {
+
+    private final Segment[] segments;
+    private final int literalLength;
+    // Biến -> vị trí các segment (vùng output) mà biến đó ảnh hưởng
+    private final Map<String, int[]> segmentsByVariable;
+
+    private CompiledTemplate(List<Segment> segments, int literalLength) {
+        this.segments = segments.toArray(new Segment[0]);
+        this.literalLength = literalLength;
+
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < this.segments.length; i++) {
+            if (this.segments[i].variable) {
+                positions.computeIfAbsent(this.segments[i].text, name -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> index = new LinkedHashMap<>();
+        positions.forEach((name, list) -> index.put(name, list.stream().mapToInt(Integer::intValue).toArray()));
+        this.segmentsByVariable = Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Phân tích template HTML, ngữ cảnh escape của từng placeholder được xác định theo vị trí trong HTML
+     * @param source nội dung template với placeholders như {{groom_name}}
+     */
+    public static CompiledTemplate parseHtml(String source) {
+        return parse(source, new HtmlContextScanner());
+    }
+
+    /**
+     * Phân tích template CSS, mọi placeholder đều được escape theo ngữ cảnh giá trị CSS
+     * @param source nội dung CSS với placeholders như {{primary_color}}
+     */
+    public static CompiledTemplate parseCss(String source) {
+        return parse(source, null);
+    }
+
+    private static CompiledTemplate parse(String source, HtmlContextScanner scanner) {
+        List<Segment> segments = new ArrayList<>();
+        int literalLength = 0;
+        int length = source.length();
+        int literalStart = 0;
+        int i = 0;
+
+        // Tương đương regex \{\{([^}]+)\}\} nhưng chỉ quét một lần
+        while (i < length - 1) {
+            if (source.charAt(i) == '{' && source.charAt(i + 1) == '{') {
+                int close = source.indexOf('}', i + 2);
+                if (close > i + 2 && close + 1 < length && source.charAt(close + 1) == '}') {
+                    EscapeContext context = EscapeContext.CSS;
+                    if (i > literalStart) {
+                        String literal = source.substring(literalStart, i);
+                        segments.add(Segment.literal(literal));
+                        literalLength += literal.length();
+                        if (scanner != null) {
+                            scanner.advance(literal);
+                        }
+                    }
+                    if (scanner != null) {
+                        context = scanner.currentContext();
+                        scanner.afterPlaceholder();
+                    }
+                    segments.add(Segment.variable(source.substring(i + 2, close).trim(), context));
+                    i = close + 2;
+                    literalStart = i;
+                    continue;
+                }
+            }
+            i++;
+        }
+
+        if (literalStart < length) {
+            segments.add(Segment.literal(source.substring(literalStart)));
+            literalLength += length - literalStart;
+        }
+
+        return new CompiledTemplate(segments, literalLength);
+    }
+
+    /**
+     * Render template vào một StringBuilder đã được cấp phát đủ dung lượng
+     */
+    public String render(Map<String, String> customData) {
+        StringBuilder out = new StringBuilder(estimateLength(customData));
+        try {
+            renderTo(customData, out);
+        } catch (IOException e) {
+            // StringBuilder không bao giờ ném IOException
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Ghi trực tiếp từng đoạn template và giá trị đã escape ra Writer, không dựng chuỗi kết quả
+     */
+    public void render(Map<String, String> customData, Writer writer) throws IOException {
+        renderTo(customData, writer);
+    }
+
+    private void renderTo(Map<String, String> customData, Appendable out) throws IOException {
+        for (Segment segment : segments) {
+            if (segment.variable) {
+                String value = customData.get(segment.text);
+                if (value != null) {
+                    segment.context.appendEscaped(out, value);
+                }
+            } else {
+                out.append(segment.text);
+            }
+        }
+    }
+
+    /**
+     * Render lại từ output cũ: chỉ các vùng của biến có giá trị thay đổi được escape lại,
+     * phần còn lại được sao chép nguyên khối từ output cũ.
+     * @param previousOutput output đã render từ previousData với chính template này
+     * @return previousOutput (cùng instance) nếu không biến nào template dùng bị thay đổi
+     */
+    public String rerender(String previousOutput, Map<String, String> previousData, Map<String, String> customData) {
+        boolean[] changed = null;
+        for (Map.Entry<String, int[]> entry : segmentsByVariable.entrySet()) {
+            String name = entry.getKey();
+            if (!Objects.equals(previousData.get(name), customData.get(name))) {
+                if (changed == null) {
+                    changed = new boolean[segments.length];
+                }
+                for (int position : entry.getValue()) {
+                    changed[position] = true;
+                }
+            }
+        }
+        if (changed == null) {
+            return previousOutput;
+        }
+
+        StringBuilder out = new StringBuilder(estimateLength(customData));
+        int offset = 0;     // vị trí đầu segment hiện tại trong previousOutput
+        int copyStart = 0;  // đầu đoạn chưa được sao chép từ previousOutput
+        for (int i = 0; i < segments.length; i++) {
+            Segment segment = segments[i];
+            int previousLength = segment.variable ? outputLength(segment, previousData) : segment.text.length();
+            if (changed[i]) {
+                out.append(previousOutput, copyStart, offset);
+                String value = customData.get(segment.text);
+                if (value != null) {
+                    try {
+                        segment.context.appendEscaped(out, value);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                copyStart = offset + previousLength;
+            }
+            offset += previousLength;
+            if (offset > previousOutput.length()) {
+                // Output cũ không khớp với template/dữ liệu cũ, render lại toàn bộ
+                return render(customData);
+            }
+        }
+        if (offset != previousOutput.length()) {
+            return render(customData);
+        }
+        out.append(previousOutput, copyStart, offset);
+        return out.toString();
+    }
+
+    /**
+     * Tên các biến template sử dụng (không trùng lặp, theo thứ tự xuất hiện đầu tiên)
+     */
+    public Set<String> getVariableNames() {
+        return segmentsByVariable.keySet();
+    }
+
+    private static int outputLength(Segment segment, Map<String, String> data) {
+        String value = data.get(segment.text);
+        return value == null ? 0 : segment.context.escapedLength(value);
+    }
+
+    private int estimateLength(Map<String, String> customData) {
+        int length = literalLength;
+        for (Segment segment : segments) {
+            if (segment.variable) {
+                String value = customData.get(segment.text);
+                if (value != null) {
+                    length += value.length();
+                }
+            }
+        }
+        // Chừa chỗ cho các ký tự được escape
+        return length + (length >>> 4);
+    }
+
+    private static final class Segment {
+        private final String text;
+        private final boolean variable;
+        private final EscapeContext context;
+
+        private Segment(String text, boolean variable, EscapeContext context) {
+            this.text = text;
+            this.variable = variable;
+            this.context = context;
+        }
+
+        static Segment literal(String text) { return new Segment(text, false, null); }
+        static Segment variable(String name, EscapeContext context) { return new Segment(name, true, context); }
+    }
+}
@@ -0,0 +1,31 @@
+package com.thiepCuoi.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hash SHA-256 dạng hex của nội dung thiệp, dùng làm tên file trong các cache trên đĩa
+ */
+final class ContentHash {
+
+    private ContentHash() {}
+
+    /**
+     * Hash các phần theo thứ tự, mỗi phần được ngăn cách bởi byte 0 (null được coi là chuỗi rỗng)
+     */
+    static String sha256(String... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String part : parts) {
+            digest.update((part != null ? part : "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -1,6 +1,8 @@
 package com.thiepCuoi.service.impl;
 
 import com.thiepCuoi.model.dto.CustomInvitationDTO;
+import com.thiepCuoi.model.dto.KeysetPage;
+import com.thiepCuoi.model.dto.PageCursor;
 import com.thiepCuoi.repository.CustomInvitationRepository;
 import com.thiepCuoi.repository.TemplateRepository;
 import com.thiepCuoi.repository.UserRepository;
@@ -11,7 +13,6 @@ import com.thiepCuoi.service.CustomInvitationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class CustomInvitationServiceImpl implements CustomInvitationService {
@@ -83,23 +84,35 @@ public class CustomInvitationServiceImpl implements CustomInvitationService {
     }
     
     @Override
-    public List<CustomInvitationDTO> getUserInvitations(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
-        
-        return customInvitationRepository.findByUser(user).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public KeysetPage<CustomInvitationDTO> getUserInvitations(String username, String cursor, Integer size) {
+        return findUserPage(username, false, cursor, size);
     }
     
     @Override
-    public List<CustomInvitationDTO> getUserSavedInvitations(String username) {
+    public KeysetPage<CustomInvitationDTO> getUserSavedInvitations(String username, String cursor, Integer size) {
+        return findUserPage(username, true, cursor, size);
+    }
+    
+    private KeysetPage<CustomInvitationDTO> findUserPage(String username, boolean savedOnly, String cursor, Integer size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
         
-        return customInvitationRepository.findByUserAndIsSavedTrue(user).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        
+        List<CustomInvitation> invitations;
+        if (position.isFirstPage()) {
+            invitations = savedOnly
+                    ? customInvitationRepository.findFirstSavedPageByUser(user.getId(), PageCursor.limit(pageSize))
+                    : customInvitationRepository.findFirstPageByUser(user.getId(), PageCursor.limit(pageSize));
+        } else {
+            invitations = savedOnly
+                    ? customInvitationRepository.findNextSavedPageByUser(user.getId(),
+                            position.getCreatedAt(), position.getId(), PageCursor.limit(pageSize))
+                    : customInvitationRepository.findNextPageByUser(user.getId(),
+                            position.getCreatedAt(), position.getId(), PageCursor.limit(pageSize));
+        }
+        return KeysetPage.of(invitations, pageSize, invitation -> new PageCursor(invitation.getCreatedAt(), invitation.getId()), this::convertToDTO);
     }
     
     @Override
@@ -1,22 +1,48 @@
 package com.thiepCuoi.service.impl;
 
+import com.thiepCuoi.model.dto.BatchRenderRequestDTO;
+import com.thiepCuoi.model.dto.BatchRenderResultDTO;
 import com.thiepCuoi.model.dto.CustomizedCardDTO;
+import com.thiepCuoi.model.dto.CustomizedCardSummaryDTO;
+import com.thiepCuoi.model.dto.ETags;
+import com.thiepCuoi.model.dto.KeysetPage;
+import com.thiepCuoi.model.dto.PageCursor;
 import com.thiepCuoi.model.dto.RenderTemplateRequestDTO;
+import com.thiepCuoi.model.dto.Versioned;
 import com.thiepCuoi.repository.CardTemplateRepository;
 import com.thiepCuoi.repository.CustomizedCardRepository;
 import com.thiepCuoi.repository.UserRepository;
 import com.thiepCuoi.repository.entity.CardTemplate;
 import com.thiepCuoi.repository.entity.CustomizedCard;
 import com.thiepCuoi.repository.entity.User;
+import com.thiepCuoi.service.BlobStoreService;
 import com.thiepCuoi.service.CustomizedCardService;
 import com.thiepCuoi.service.TemplateRenderService;
+import com.thiepCuoi.service.TemplateRenderService.RenderedCard;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
 @Service
 public class CustomizedCardServiceImpl implements CustomizedCardService {
@@ -33,12 +59,40 @@ public class CustomizedCardServiceImpl implements CustomizedCardService {
     @Autowired
     private TemplateRenderService templateRenderService;
     
+    @Autowired
+    private BlobStoreService blobStoreService;
+    
+    @Autowired
+    @Qualifier("renderExecutor")
+    private ExecutorService renderExecutor;
+    
+    @Value("${app.render.batch.max-items:1000}")
+    private int batchMaxItems;
+    
+    // Chỉ lưu customData + revision đã ghim, HTML/CSS được render lại (qua cache) khi đọc
+    @Value("${app.card.render-on-read:false}")
+    private boolean renderOnRead;
+    
+    // Lưu HTML/CSS vào blob store theo hash, thiệp chỉ giữ tham chiếu
+    @Value("${app.card.blob-store:false}")
+    private boolean useBlobStore;
+    
+    private static final TypeReference<Map<String, String>> CUSTOM_DATA_TYPE = new TypeReference<>() {};
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final int BATCH_CHUNK_SIZE = 50;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     @Override
     public CustomizedCardDTO renderTemplate(RenderTemplateRequestDTO request, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
+        boolean saveCard = Boolean.TRUE.equals(request.getSaveCard());
+        
+        // Chỉ cần tải người dùng khi lưu thiệp, preview không ghi gì vào DB
+        User user = null;
+        if (saveCard) {
+            user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
+        }
         
         CardTemplate cardTemplate = cardTemplateRepository.findByIdAndIsActiveTrue(request.getCardTemplateId())
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy mẫu thiệp HTML"));
@@ -47,26 +101,21 @@ public class CustomizedCardServiceImpl implements CustomizedCardService {
         try {
             String customDataJson = objectMapper.writeValueAsString(request.getCustomData());
             
-            if (!templateRenderService.validateTemplateData(cardTemplate.getTemplateVariables(), request.getCustomData())) {
+            if (!templateRenderService.validateTemplateData(cardTemplate, request.getCustomData())) {
                 throw new RuntimeException("Dữ liệu không hợp lệ hoặc thiếu trường bắt buộc");
             }
             
-            // Render HTML và CSS
-            String renderedHtml = templateRenderService.renderHtml(cardTemplate.getHtmlContent(), request.getCustomData());
-            String renderedCss = templateRenderService.renderCss(cardTemplate.getCssContent(), request.getCustomData());
-            
             // Tạo CustomizedCard entity
             CustomizedCard customizedCard = new CustomizedCard();
             customizedCard.setUser(user);
             customizedCard.setCardTemplate(cardTemplate);
             customizedCard.setTemplate(cardTemplate.getTemplate());
-            customizedCard.setRenderedHtml(renderedHtml);
-            customizedCard.setRenderedCss(renderedCss);
             customizedCard.setCustomData(customDataJson);
-            customizedCard.setIsSaved(request.getSaveCard());
+            customizedCard.setIsSaved(saveCard);
+            applyRenderedContent(customizedCard, cardTemplate, request.getCustomData());
             
             // Save nếu được yêu cầu
-            if (request.getSaveCard()) {
+            if (saveCard) {
                 customizedCard = customizedCardRepository.save(customizedCard);
             }
             
@@ -77,6 +126,128 @@ public class CustomizedCardServiceImpl implements CustomizedCardService {
         }
     }
     
+    @Override
+    public StreamingResponseBody renderBatch(BatchRenderRequestDTO request, String username) {
+        if (request.getCustomDataList().size() > batchMaxItems) {
+            throw new RuntimeException("Số lượng thiệp vượt quá giới hạn " + batchMaxItems + " mỗi lần");
+        }
+        
+        // Chỉ tải người dùng và mẫu thiệp một lần cho cả lô
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
+        
+        CardTemplate cardTemplate = cardTemplateRepository.findByIdAndIsActiveTrue(request.getCardTemplateId())
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy mẫu thiệp HTML"));
+        
+        boolean saveCards = Boolean.TRUE.equals(request.getSaveCards());
+        List<Map<String, String>> customDataList = request.getCustomDataList();
+        
+        return outputStream -> {
+            // Xử lý từng nhóm: render song song, lưu bằng một lần saveAll, rồi ghi NDJSON và flush
+            for (int start = 0; start < customDataList.size(); start += BATCH_CHUNK_SIZE) {
+                int end = Math.min(start + BATCH_CHUNK_SIZE, customDataList.size());
+                
+                List<CompletableFuture<CustomizedCard>> futures = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    Map<String, String> customData = customDataList.get(i);
+                    futures.add(CompletableFuture.supplyAsync(
+                            () -> buildRenderedCard(user, cardTemplate, customData, saveCards), renderExecutor));
+                }
+                
+                List<BatchRenderResultDTO> results = new ArrayList<>(end - start);
+                List<CustomizedCard> cardsToSave = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    try {
+                        CustomizedCard card = futures.get(i - start).join();
+                        cardsToSave.add(card);
+                        results.add(new BatchRenderResultDTO(i, null, null));
+                    } catch (CompletionException e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        results.add(new BatchRenderResultDTO(i, null, cause.getMessage()));
+                    }
+                }
+                
+                if (saveCards && !cardsToSave.isEmpty()) {
+                    cardsToSave = customizedCardRepository.saveAll(cardsToSave);
+                }
+                
+                Iterator<CustomizedCard> cards = cardsToSave.iterator();
+                for (int i = start; i < end; i++) {
+                    BatchRenderResultDTO result = results.get(i - start);
+                    if (result.getError() == null) {
+                        result.setCard(convertToDTO(cards.next(), customDataList.get(i)));
+                    }
+                    outputStream.write(objectMapper.writeValueAsBytes(result));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+            }
+        };
+    }
+    
+    private CustomizedCard buildRenderedCard(User user, CardTemplate cardTemplate, Map<String, String> customData, boolean saveCard) {
+        if (customData == null || !templateRenderService.validateTemplateData(cardTemplate, customData)) {
+            throw new RuntimeException("Dữ liệu không hợp lệ hoặc thiếu trường bắt buộc");
+        }
+        
+        String customDataJson;
+        try {
+            customDataJson = objectMapper.writeValueAsString(customData);
+        } catch (Exception e) {
+            throw new RuntimeException("Lỗi khi render template: " + e.getMessage());
+        }
+        
+        CustomizedCard customizedCard = new CustomizedCard();
+        customizedCard.setUser(user);
+        customizedCard.setCardTemplate(cardTemplate);
+        customizedCard.setTemplate(cardTemplate.getTemplate());
+        customizedCard.setCustomData(customDataJson);
+        customizedCard.setIsSaved(saveCard);
+        applyRenderedContent(customizedCard, cardTemplate, customData);
+        return customizedCard;
+    }
+    
+    /**
+     * Gán HTML/CSS đã render cho thiệp, hoặc chỉ ghim revision khi bật chế độ render khi đọc
+     */
+    private void applyRenderedContent(CustomizedCard customizedCard, CardTemplate cardTemplate, Map<String, String> customData) {
+        if (renderOnRead) {
+            customizedCard.setTemplateRevision(templateRenderService.pinTemplateRevision(cardTemplate));
+            customizedCard.setRenderedHtml(null);
+            customizedCard.setRenderedCss(null);
+            customizedCard.setRenderedHtmlHash(null);
+            customizedCard.setRenderedCssHash(null);
+            return;
+        }
+        
+        // Render HTML và CSS (dùng lại kết quả cache nếu dữ liệu không đổi)
+        RenderedCard rendered = templateRenderService.renderCard(cardTemplate, customData);
+        storeRenderedContent(customizedCard, rendered);
+        customizedCard.setTemplateRevision(templateRenderService.getTemplateRevision(cardTemplate));
+    }
+    
+    /**
+     * Lưu HTML/CSS vào cột của thiệp, hoặc vào blob store (CSS giống nhau giữa các thiệp chỉ lưu một lần)
+     */
+    private void storeRenderedContent(CustomizedCard customizedCard, RenderedCard rendered) {
+        if (useBlobStore && rendered.getHtml() != null) {
+            customizedCard.setRenderedHtmlHash(blobStoreService.put(rendered.getHtml()));
+            customizedCard.setRenderedCssHash(rendered.getCss() != null ? blobStoreService.put(rendered.getCss()) : null);
+            customizedCard.setRenderedHtml(null);
+            customizedCard.setRenderedCss(null);
+            return;
+        }
+        
+        customizedCard.setRenderedHtml(rendered.getHtml());
+        customizedCard.setRenderedCss(rendered.getCss());
+        customizedCard.setRenderedHtmlHash(null);
+        customizedCard.setRenderedCssHash(null);
+    }
+    
+    private static boolean hasStoredContent(CustomizedCard customizedCard) {
+        return customizedCard.getRenderedHtml() != null || customizedCard.getRenderedHtmlHash() != null;
+    }
+    
     @Override
     public CustomizedCardDTO saveCustomizedCard(Long id, String username) {
         User user = userRepository.findByUsername(username)
@@ -97,27 +268,149 @@ public class CustomizedCardServiceImpl implements CustomizedCardService {
     }
     
     @Override
-    public List<CustomizedCardDTO> getUserCustomizedCards(String username) {
+    public KeysetPage<CustomizedCardDTO> getUserCustomizedCards(String username, String cursor, Integer size) {
+        return findUserPage(username, false, cursor, size);
+    }
+    
+    @Override
+    public KeysetPage<CustomizedCardDTO> getUserSavedCards(String username, String cursor, Integer size) {
+        return findUserPage(username, true, cursor, size);
+    }
+    
+    private KeysetPage<CustomizedCardDTO> findUserPage(String username, boolean savedOnly, String cursor, Integer size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
         
-        return customizedCardRepository.findByUser_IdOrderByCreatedAtDesc(user.getId()).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        
+        List<CustomizedCard> cards;
+        if (position.isFirstPage()) {
+            cards = savedOnly
+                    ? customizedCardRepository.findFirstSavedPageByUser(user.getId(), PageCursor.limit(pageSize))
+                    : customizedCardRepository.findFirstPageByUser(user.getId(), PageCursor.limit(pageSize));
+        } else {
+            cards = savedOnly
+                    ? customizedCardRepository.findNextSavedPageByUser(user.getId(),
+                            position.getCreatedAt(), position.getId(), PageCursor.limit(pageSize))
+                    : customizedCardRepository.findNextPageByUser(user.getId(),
+                            position.getCreatedAt(), position.getId(), PageCursor.limit(pageSize));
+        }
+        return KeysetPage.of(cards, pageSize, card -> new PageCursor(card.getCreatedAt(), card.getId()),
+                this::versionOf, this::convertToDTO);
     }
     
     @Override
-    public List<CustomizedCardDTO> getUserSavedCards(String username) {
+    public KeysetPage<CustomizedCardSummaryDTO> getUserCardSummaries(String username, boolean savedOnly, String cursor, Integer size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
         
-        return customizedCardRepository.findByUser_IdAndIsSavedTrue(user.getId()).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        
+        List<CustomizedCardSummaryDTO> summaries;
+        if (position.isFirstPage()) {
+            summaries = savedOnly
+                    ? customizedCardRepository.findFirstSavedSummariesByUser(user.getId(), PageCursor.limit(pageSize))
+                    : customizedCardRepository.findFirstSummariesByUser(user.getId(), PageCursor.limit(pageSize));
+        } else {
+            summaries = savedOnly
+                    ? customizedCardRepository.findNextSavedSummariesByUser(user.getId(),
+                            position.getCreatedAt(), position.getId(), PageCursor.limit(pageSize))
+                    : customizedCardRepository.findNextSummariesByUser(user.getId(),
+                            position.getCreatedAt(), position.getId(), PageCursor.limit(pageSize));
+        }
+        return KeysetPage.of(summaries, pageSize, summary -> new PageCursor(summary.getCreatedAt(), summary.getId()), summary -> summary);
+    }
+    
+    @Override
+    public Versioned<CustomizedCardDTO> getCustomizedCardById(Long id, String username) {
+        CustomizedCard customizedCard = findOwnedCard(id, username);
+        return new Versioned<>(etagOf(customizedCard), () -> convertToDTO(customizedCard));
+    }
+    
+    @Override
+    public Versioned<StreamingResponseBody> streamCustomizedCardHtml(Long id, String username) {
+        CustomizedCard customizedCard = findOwnedCard(id, username);
+        return new Versioned<>(etagOf(customizedCard), () -> htmlBody(customizedCard));
+    }
+    
+    private StreamingResponseBody htmlBody(CustomizedCard customizedCard) {
+        if (customizedCard.getRenderedHtmlHash() != null) {
+            // Nội dung đã có trong blob store: chuyển thẳng byte từ file segment, không giải mã thành chuỗi
+            String htmlHash = requireBlob(customizedCard.getRenderedHtmlHash());
+            String cssHash = requireBlob(customizedCard.getRenderedCssHash());
+            return outputStream -> {
+                WritableByteChannel channel = Channels.newChannel(outputStream);
+                writeAscii(outputStream, "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n");
+                if (cssHash != null) {
+                    writeAscii(outputStream, "<style>\n");
+                    blobStoreService.transferTo(cssHash, channel);
+                    writeAscii(outputStream, "\n</style>\n");
+                }
+                writeAscii(outputStream, "</head>\n<body>\n");
+                blobStoreService.transferTo(htmlHash, channel);
+                writeAscii(outputStream, "\n</body>\n</html>\n");
+                outputStream.flush();
+            };
+        }
+        
+        if (customizedCard.getRenderedHtml() != null) {
+            // HTML/CSS đã lưu khi tạo/cập nhật thiệp: trả đúng bản đã lưu (khớp GET /{id}), không render lại theo template hiện tại
+            String html = customizedCard.getRenderedHtml();
+            String css = customizedCard.getRenderedCss();
+            return outputStream -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+                writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n");
+                if (css != null) {
+                    writer.write("<style>\n");
+                    writer.write(css);
+                    writer.write("\n</style>\n");
+                }
+                writer.write("</head>\n<body>\n");
+                writer.write(html);
+                writer.write("\n</body>\n</html>\n");
+                writer.flush();
+            };
+        }
+        
+        // Thiệp lưu ở chế độ render khi đọc: render theo revision template đã ghim.
+        // Kiểm tra quyền và parse dữ liệu trước khi response bắt đầu được ghi
+        Map<String, String> customData = parseCustomData(customizedCard.getCustomData());
+        
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+            templateRenderService.renderDocument(customizedCard, customData, writer);
+            writer.flush();
+        };
     }
     
     @Override
-    public CustomizedCardDTO getCustomizedCardById(Long id, String username) {
+    public Versioned<StreamingResponseBody> streamCustomizedCardCss(Long id, String username) {
+        CustomizedCard customizedCard = findOwnedCard(id, username);
+        return new Versioned<>(etagOf(customizedCard), () -> cssBody(customizedCard));
+    }
+    
+    private StreamingResponseBody cssBody(CustomizedCard customizedCard) {
+        String cssHash = requireBlob(customizedCard.getRenderedCssHash());
+        if (cssHash != null) {
+            return outputStream -> {
+                blobStoreService.transferTo(cssHash, Channels.newChannel(outputStream));
+                outputStream.flush();
+            };
+        }
+        
+        String css = templateRenderService.renderCustomizedCard(customizedCard).getCss();
+        return outputStream -> {
+            if (css != null) {
+                outputStream.write(css.getBytes(StandardCharsets.UTF_8));
+            }
+            outputStream.flush();
+        };
+    }
+    
+    // Đọc người dùng và thiệp một lần cho cả ETag lẫn nội dung
+    private CustomizedCard findOwnedCard(Long id, String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
         
@@ -128,7 +421,23 @@ public class CustomizedCardServiceImpl implements CustomizedCardService {
             throw new RuntimeException("Không có quyền xem thiệp này");
         }
         
-        return convertToDTO(customizedCard);
+        return customizedCard;
+    }
+    
+    private String etagOf(CustomizedCard customizedCard) {
+        return ETags.of(Stream.of(versionOf(customizedCard)));
+    }
+    
+    // Báo lỗi trước khi response bắt đầu được ghi, thay vì trả 200 với nội dung rỗng hoặc cắt dở
+    private String requireBlob(String hash) {
+        if (hash != null && blobStoreService.size(hash) < 0) {
+            throw new IllegalStateException("Nội dung của thiệp không còn trong blob store");
+        }
+        return hash;
+    }
+    
+    private static void writeAscii(OutputStream outputStream, String text) throws IOException {
+        outputStream.write(text.getBytes(StandardCharsets.US_ASCII));
     }
     
     @Override
@@ -147,15 +456,24 @@ public class CustomizedCardServiceImpl implements CustomizedCardService {
         try {
             String customDataJson = objectMapper.writeValueAsString(request.getCustomData());
             
-            if (!templateRenderService.validateTemplateData(customizedCard.getCardTemplate().getTemplateVariables(), request.getCustomData())) {
+            CardTemplate cardTemplate = customizedCard.getCardTemplate();
+            if (!templateRenderService.validateTemplateData(cardTemplate, request.getCustomData())) {
                 throw new RuntimeException("Dữ liệu không hợp lệ hoặc thiếu trường bắt buộc");
             }
             
-            String renderedHtml = templateRenderService.renderHtml(customizedCard.getCardTemplate().getHtmlContent(), request.getCustomData());
-            String renderedCss = templateRenderService.renderCss(customizedCard.getCardTemplate().getCssContent(), request.getCustomData());
+            String revision = templateRenderService.getTemplateRevision(cardTemplate);
+            if (!renderOnRead && hasStoredContent(customizedCard)
+                    && revision.equals(customizedCard.getTemplateRevision())) {
+                // Template không đổi kể từ lần render trước: chỉ render lại phần dùng các biến đã thay đổi
+                RenderedCard rendered = templateRenderService.rerenderCard(cardTemplate,
+                        templateRenderService.renderCustomizedCard(customizedCard),
+                        parseCustomDataOrNull(customizedCard.getCustomData()),
+                        request.getCustomData());
+                storeRenderedContent(customizedCard, rendered);
+            } else {
+                applyRenderedContent(customizedCard, cardTemplate, request.getCustomData());
+            }
             
-            customizedCard.setRenderedHtml(renderedHtml);
-            customizedCard.setRenderedCss(renderedCss);
             customizedCard.setCustomData(customDataJson);
             customizedCard.setUpdatedAt(LocalDateTime.now());
             
@@ -182,23 +500,34 @@ public class CustomizedCardServiceImpl implements CustomizedCardService {
         customizedCardRepository.delete(customizedCard);
     }
     
-    @Override
-    public String generatePreviewImage(String htmlContent, String cssContent) {
-        // TODO: Implement image generation từ HTML/CSS
-        // Có thể dùng libraries như wkhtmltopdf, puppeteer, hay selenium
-        // Tạm thời return placeholder
-        return "/api/v1/preview/placeholder.jpg";
+    private Map<String, String> parseCustomData(String customDataJson) {
+        try {
+            return objectMapper.readValue(customDataJson, CUSTOM_DATA_TYPE);
+        } catch (Exception e) {
+            throw new RuntimeException("Dữ liệu thiệp không hợp lệ");
+        }
     }
     
-    @Override
-    public String generatePdfDocument(String htmlContent, String cssContent) {
-        // TODO: Implement PDF generation từ HTML/CSS
-        // Có thể dùng libraries như wkhtmltopdf, iText, hay flying-saucer
-        // Tạm thời return placeholder
-        return "/api/v1/pdf/placeholder.pdf";
+    private Map<String, String> parseCustomDataOrNull(String customDataJson) {
+        try {
+            return objectMapper.readValue(customDataJson, CUSTOM_DATA_TYPE);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    // Nội dung đã render nằm trong dòng của thiệp (cập nhật updatedAt); tên mẫu thiệp lấy từ card template và template
+    private String versionOf(CustomizedCard customizedCard) {
+        return ETags.version("customized-card", customizedCard.getId(), customizedCard.getUpdatedAt(),
+                customizedCard.getCardTemplate().getRowVersion(), customizedCard.getTemplate().getRowVersion());
     }
     
     private CustomizedCardDTO convertToDTO(CustomizedCard customizedCard) {
+        // Parse custom data để fill các fields riêng lẻ (bỏ qua lỗi parse)
+        return convertToDTO(customizedCard, parseCustomDataOrNull(customizedCard.getCustomData()));
+    }
+    
+    private CustomizedCardDTO convertToDTO(CustomizedCard customizedCard, Map<String, String> customDataMap) {
         CustomizedCardDTO dto = new CustomizedCardDTO();
         dto.setId(customizedCard.getId());
         dto.setCardTemplateId(customizedCard.getCardTemplate().getId());
@@ -206,27 +535,25 @@ public class CustomizedCardServiceImpl implements CustomizedCardService {
         dto.setTemplateName(customizedCard.getTemplate().getName());
         dto.setCardTemplateName(customizedCard.getCardTemplate().getTemplateName());
         dto.setCustomData(customizedCard.getCustomData());
-        dto.setRenderedHtml(customizedCard.getRenderedHtml());
-        dto.setRenderedCss(customizedCard.getRenderedCss());
+        
+        // HTML/CSS đã lưu, hoặc render từ customData khi thiệp được lưu ở chế độ render khi đọc
+        RenderedCard content = templateRenderService.renderCustomizedCard(customizedCard, customDataMap);
+        dto.setRenderedHtml(content.getHtml());
+        dto.setRenderedCss(content.getCss());
         dto.setGeneratedImageUrl(customizedCard.getGeneratedImageUrl());
         dto.setGeneratedPdfUrl(customizedCard.getGeneratedPdfUrl());
         dto.setPreviewUrl(customizedCard.getPreviewUrl());
         dto.setIsSaved(customizedCard.getIsSaved());
         
-        // Parse custom data để fill các fields riêng lẻ
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, String> customDataMap = objectMapper.readValue(customizedCard.getCustomData(), Map.class);
+        if (customDataMap != null) {
             dto.setGroomName(customDataMap.get("groom_name"));
             dto.setBrideName(customDataMap.get("bride_name"));
             dto.setWeddingDate(customDataMap.get("wedding_date"));
             dto.setWeddingTime(customDataMap.get("wedding_time"));
             dto.setWeddingVenue(customDataMap.get("wedding_venue"));
             dto.setCustomMessage(customDataMap.get("custom_message"));
-        } catch (Exception e) {
-            // Ignore parsing errors
         }
         
         return dto;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,206 @@
+package com.thiepCuoi.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Ngữ cảnh đầu ra của một placeholder, được xác định một lần khi biên dịch template.
+ * Mỗi ngữ cảnh escape giá trị trong một lượt quét duy nhất.
+ */
+public enum EscapeContext {
+
+    // Nội dung văn bản giữa các thẻ HTML
+    HTML_TEXT {
+        @Override
+        String replacement(int c) {
+            return htmlReplacement(c);
+        }
+    },
+
+    // Giá trị thuộc tính HTML (có hoặc không có dấu nháy)
+    HTML_ATTRIBUTE {
+        @Override
+        String replacement(int c) {
+            switch (c) {
+                case '`': return "&#x60;";
+                case '=': return "&#x3D;";
+                case ' ': return "&#x20;";
+                case '\t': return "&#x9;";
+                case '\n': return "&#xA;";
+                case '\r': return "&#xD;";
+                case '\f': return "&#xC;";
+                default: return htmlReplacement(c);
+            }
+        }
+    },
+
+    // Toàn bộ URL trong href/src: chỉ cho phép scheme an toàn
+    URL {
+        @Override
+        String sanitize(String value) {
+            int colon = value.indexOf(':');
+            if (colon < 0) {
+                return value;
+            }
+            for (int i = 0; i < colon; i++) {
+                char c = value.charAt(i);
+                if (c == '/' || c == '?' || c == '#') {
+                    return value; // URL tương đối, dấu ':' nằm sau path
+                }
+            }
+            String scheme = value.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            return SAFE_URL_SCHEMES.contains(scheme) ? value : UNSAFE_URL_REPLACEMENT;
+        }
+
+        @Override
+        String replacement(int c) {
+            if (c <= 0x20 || c == 0x7F) {
+                return percentEncode(c);
+            }
+            return c == '`' ? "&#x60;" : htmlReplacement(c);
+        }
+    },
+
+    // Một phần của URL (path/query) sau phần đầu cố định của template
+    URL_PARAMETER {
+        @Override
+        String replacement(int c) {
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '.' || c == '_' || c == '~') {
+                return null;
+            }
+            return percentEncode(c);
+        }
+    },
+
+    // Giá trị CSS trong file CSS, thẻ <style> hoặc thuộc tính style
+    CSS {
+        @Override
+        String replacement(int c) {
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == ' ' || c == '#' || c == '.' || c == ',' || c == '%' || c == '-' || c == '_') {
+                return null;
+            }
+            if (c > 0x7F && Character.isLetter(c)) {
+                return null; // Cho phép tên font tiếng Việt
+            }
+            return "\\" + Integer.toHexString(c) + " ";
+        }
+    };
+
+    private static final Set<String> SAFE_URL_SCHEMES = Set.of("http", "https", "mailto", "tel");
+    private static final String UNSAFE_URL_REPLACEMENT = "#";
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Chuỗi thay thế cho một code point, null nếu ký tự an toàn trong ngữ cảnh này
+     */
+    abstract String replacement(int codePoint);
+
+    /**
+     * Chuẩn hóa giá trị trước khi escape (mặc định giữ nguyên)
+     */
+    String sanitize(String value) {
+        return value;
+    }
+
+    /**
+     * Escape giá trị, trả về chính chuỗi đầu vào (không cấp phát) nếu không có ký tự nào cần escape
+     */
+    public String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        String input = sanitize(value);
+        int i = 0;
+        while (i < input.length()) {
+            int c = input.codePointAt(i);
+            if (replacement(c) != null) {
+                StringBuilder out = new StringBuilder(input.length() + 16);
+                try {
+                    appendEscaped(out, input);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return out.toString();
+            }
+            i += Character.charCount(c);
+        }
+        return input;
+    }
+
+    /**
+     * Độ dài của giá trị sau khi escape, dùng để định vị vùng output của placeholder mà không render lại
+     */
+    public int escapedLength(String value) {
+        String input = sanitize(value);
+        int length = 0;
+        int i = 0;
+        while (i < input.length()) {
+            int c = input.codePointAt(i);
+            int next = i + Character.charCount(c);
+            String replacement = replacement(c);
+            length += replacement != null ? replacement.length() : next - i;
+            i = next;
+        }
+        return length;
+    }
+
+    /**
+     * Ghi giá trị đã escape ra đầu ra; các đoạn ký tự an toàn được ghi nguyên khối
+     */
+    public void appendEscaped(Appendable out, String value) throws IOException {
+        String input = sanitize(value);
+        int runStart = 0;
+        int i = 0;
+        while (i < input.length()) {
+            int c = input.codePointAt(i);
+            int next = i + Character.charCount(c);
+            String replacement = replacement(c);
+            if (replacement != null) {
+                appendRange(out, input, runStart, i);
+                out.append(replacement);
+                runStart = next;
+            }
+            i = next;
+        }
+        appendRange(out, input, runStart, input.length());
+    }
+
+    static void appendRange(Appendable out, String input, int start, int end) throws IOException {
+        if (start == end) {
+            return;
+        }
+        // Writer.append(CharSequence, int, int) tạo chuỗi con, dùng write(String, int, int) để tránh cấp phát
+        if (out instanceof Writer) {
+            ((Writer) out).write(input, start, end - start);
+        } else {
+            out.append(input, start, end);
+        }
+    }
+
+    private static String htmlReplacement(int c) {
+        switch (c) {
+            case '&': return "&amp;";
+            case '<': return "&lt;";
+            case '>': return "&gt;";
+            case '"': return "&quot;";
+            case '\'': return "&#x27;";
+            case '/': return "&#x2F;";
+            default: return null;
+        }
+    }
+
+    private static String percentEncode(int codePoint) {
+        byte[] bytes = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+        StringBuilder out = new StringBuilder(bytes.length * 3);
+        for (byte b : bytes) {
+            out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return out.toString();
+    }
+}
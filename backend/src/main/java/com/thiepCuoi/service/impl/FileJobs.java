@@ -0,0 +1,100 @@
+package com.thiepCuoi.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Job nền tạo file trong cache đĩa theo hash nội dung (ảnh xem trước, trang/file PDF):
+ * các yêu cầu cùng hash dùng chung một job đang chạy, lỗi gần đây được giữ lại để endpoint trạng thái báo FAILED,
+ * và file chỉ xuất hiện ở đường dẫn đích khi đã ghi xong.
+ */
+final class FileJobs {
+
+    static final String DONE = "DONE";
+    static final String PENDING = "PENDING";
+    static final String FAILED = "FAILED";
+    static final String NONE = "NONE";
+
+    private final ConcurrentMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private final Cache<String, String> failures = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    /**
+     * Job tạo file target cho hash: file đã có thì trả về ngay, job cùng hash đang chạy thì dùng lại,
+     * ngược lại bắt đầu job mới bằng start
+     * @throws java.util.concurrent.RejectedExecutionException nếu executor của job từ chối
+     */
+    CompletableFuture<Path> submit(String hash, Path target, Supplier<CompletableFuture<Path>> start) {
+        if (Files.exists(target)) {
+            return CompletableFuture.completedFuture(target);
+        }
+
+        CompletableFuture<Path> job = inFlight.computeIfAbsent(hash, h -> {
+            failures.invalidate(h);
+            return start.get();
+        });
+        job.whenComplete((path, error) -> {
+            inFlight.remove(hash, job);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                failures.put(hash, String.valueOf(cause.getMessage()));
+            }
+        });
+        return job;
+    }
+
+    /**
+     * @return DONE, PENDING, FAILED (xem failure) hoặc NONE
+     */
+    String status(String hash, Path target) {
+        if (Files.exists(target)) {
+            return DONE;
+        }
+        if (inFlight.containsKey(hash)) {
+            return PENDING;
+        }
+        return failures.getIfPresent(hash) != null ? FAILED : NONE;
+    }
+
+    /**
+     * Thông báo lỗi của job gần nhất cho hash, null nếu không có
+     */
+    String failure(String hash) {
+        return failures.getIfPresent(hash);
+    }
+
+    /**
+     * Ghi ra file tạm cùng thư mục rồi đổi tên để không bao giờ phục vụ file ghi dở
+     * @param tempPrefix tiền tố tên file tạm
+     */
+    static Path writeAtomically(Path target, String tempPrefix, FileWriter writer) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), tempPrefix, ".tmp");
+        try {
+            writer.write(temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    @FunctionalInterface
+    interface FileWriter {
+        void write(Path temp) throws IOException;
+    }
+}
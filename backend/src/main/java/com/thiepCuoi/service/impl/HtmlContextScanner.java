@@ -0,0 +1,232 @@
+package com.thiepCuoi.service.impl;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Bộ quét HTML tối giản, chỉ dùng khi biên dịch template để biết mỗi placeholder
+ * nằm trong văn bản, thuộc tính, URL hay CSS.
+ */
+final class HtmlContextScanner {
+
+    private static final Set<String> URL_ATTRIBUTES = Set.of(
+            "href", "src", "action", "formaction", "poster", "background", "cite", "data");
+    private static final Set<String> RAW_TEXT_TAGS = Set.of("style", "script");
+
+    private enum State {
+        TEXT, TAG_OPEN, TAG_NAME, CLOSE_TAG, IN_TAG, ATTR_NAME, AFTER_ATTR_NAME,
+        BEFORE_ATTR_VALUE, ATTR_VALUE_DOUBLE, ATTR_VALUE_SINGLE, ATTR_VALUE_UNQUOTED,
+        RAW_TEXT, COMMENT, MARKUP_DECLARATION
+    }
+
+    private State state = State.TEXT;
+    private final StringBuilder tagName = new StringBuilder();
+    private final StringBuilder attributeName = new StringBuilder();
+    private String rawTextTag;
+    private boolean valueStarted;
+
+    /**
+     * Cập nhật trạng thái sau khi đọc một đoạn văn bản cố định của template
+     */
+    void advance(String literal) {
+        int i = 0;
+        while (i < literal.length()) {
+            char c = literal.charAt(i);
+            switch (state) {
+                case TEXT:
+                    if (c == '<') {
+                        state = State.TAG_OPEN;
+                    }
+                    break;
+                case TAG_OPEN:
+                    if (Character.isLetter(c)) {
+                        tagName.setLength(0);
+                        tagName.append(c);
+                        state = State.TAG_NAME;
+                    } else if (c == '/') {
+                        state = State.CLOSE_TAG;
+                    } else if (c == '!') {
+                        if (literal.startsWith("--", i + 1)) {
+                            state = State.COMMENT;
+                            i += 2;
+                        } else {
+                            state = State.MARKUP_DECLARATION;
+                        }
+                    } else {
+                        state = c == '<' ? State.TAG_OPEN : State.TEXT;
+                    }
+                    break;
+                case TAG_NAME:
+                    if (Character.isWhitespace(c) || c == '/') {
+                        state = State.IN_TAG;
+                    } else if (c == '>') {
+                        endStartTag();
+                    } else {
+                        tagName.append(c);
+                    }
+                    break;
+                case CLOSE_TAG:
+                case MARKUP_DECLARATION:
+                    if (c == '>') {
+                        state = State.TEXT;
+                    }
+                    break;
+                case IN_TAG:
+                    if (c == '>') {
+                        endStartTag();
+                    } else if (!Character.isWhitespace(c) && c != '/') {
+                        startAttribute(c);
+                    }
+                    break;
+                case ATTR_NAME:
+                    if (Character.isWhitespace(c)) {
+                        state = State.AFTER_ATTR_NAME;
+                    } else if (c == '=') {
+                        state = State.BEFORE_ATTR_VALUE;
+                        valueStarted = false;
+                    } else if (c == '>') {
+                        endStartTag();
+                    } else if (c == '/') {
+                        state = State.IN_TAG;
+                    } else {
+                        attributeName.append(c);
+                    }
+                    break;
+                case AFTER_ATTR_NAME:
+                    if (c == '=') {
+                        state = State.BEFORE_ATTR_VALUE;
+                        valueStarted = false;
+                    } else if (c == '>') {
+                        endStartTag();
+                    } else if (c == '/') {
+                        state = State.IN_TAG;
+                    } else if (!Character.isWhitespace(c)) {
+                        startAttribute(c);
+                    }
+                    break;
+                case BEFORE_ATTR_VALUE:
+                    if (c == '"') {
+                        state = State.ATTR_VALUE_DOUBLE;
+                    } else if (c == '\'') {
+                        state = State.ATTR_VALUE_SINGLE;
+                    } else if (c == '>') {
+                        endStartTag();
+                    } else if (!Character.isWhitespace(c)) {
+                        state = State.ATTR_VALUE_UNQUOTED;
+                        valueStarted = true;
+                    }
+                    break;
+                case ATTR_VALUE_DOUBLE:
+                    if (c == '"') {
+                        state = State.IN_TAG;
+                    } else {
+                        valueStarted = true;
+                    }
+                    break;
+                case ATTR_VALUE_SINGLE:
+                    if (c == '\'') {
+                        state = State.IN_TAG;
+                    } else {
+                        valueStarted = true;
+                    }
+                    break;
+                case ATTR_VALUE_UNQUOTED:
+                    if (Character.isWhitespace(c)) {
+                        state = State.IN_TAG;
+                    } else if (c == '>') {
+                        endStartTag();
+                    } else {
+                        valueStarted = true;
+                    }
+                    break;
+                case RAW_TEXT:
+                    if (c == '<' && literal.startsWith("/", i + 1)
+                            && literal.regionMatches(true, i + 2, rawTextTag, 0, rawTextTag.length())) {
+                        state = State.CLOSE_TAG;
+                        i += 1 + rawTextTag.length();
+                    }
+                    break;
+                case COMMENT:
+                    if (c == '>' && i >= 2 && literal.charAt(i - 1) == '-' && literal.charAt(i - 2) == '-') {
+                        state = State.TEXT;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Ngữ cảnh escape cho placeholder tại vị trí hiện tại
+     */
+    EscapeContext currentContext() {
+        switch (state) {
+            case TAG_NAME:
+            case IN_TAG:
+            case ATTR_NAME:
+            case AFTER_ATTR_NAME:
+                return EscapeContext.HTML_ATTRIBUTE;
+            case BEFORE_ATTR_VALUE:
+            case ATTR_VALUE_DOUBLE:
+            case ATTR_VALUE_SINGLE:
+            case ATTR_VALUE_UNQUOTED:
+                return attributeValueContext();
+            case RAW_TEXT:
+                // Chưa hỗ trợ ngữ cảnh JavaScript, escape HTML vẫn chặn được việc thoát khỏi thẻ <script>
+                return "style".equals(rawTextTag) ? EscapeContext.CSS : EscapeContext.HTML_TEXT;
+            default:
+                return EscapeContext.HTML_TEXT;
+        }
+    }
+
+    /**
+     * Cập nhật trạng thái sau một placeholder (giá trị được coi là dữ liệu không chứa cú pháp)
+     */
+    void afterPlaceholder() {
+        switch (state) {
+            case BEFORE_ATTR_VALUE:
+                state = State.ATTR_VALUE_UNQUOTED;
+                valueStarted = true;
+                break;
+            case ATTR_VALUE_DOUBLE:
+            case ATTR_VALUE_SINGLE:
+            case ATTR_VALUE_UNQUOTED:
+                valueStarted = true;
+                break;
+            case TAG_OPEN:
+                state = State.TEXT;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private EscapeContext attributeValueContext() {
+        String name = attributeName.toString().toLowerCase(Locale.ROOT);
+        if (name.equals("style")) {
+            return EscapeContext.CSS;
+        }
+        if (URL_ATTRIBUTES.contains(name)) {
+            return valueStarted ? EscapeContext.URL_PARAMETER : EscapeContext.URL;
+        }
+        return EscapeContext.HTML_ATTRIBUTE;
+    }
+
+    private void startAttribute(char c) {
+        attributeName.setLength(0);
+        attributeName.append(c);
+        state = State.ATTR_NAME;
+    }
+
+    private void endStartTag() {
+        String name = tagName.toString().toLowerCase(Locale.ROOT);
+        if (RAW_TEXT_TAGS.contains(name)) {
+            rawTextTag = name;
+            state = State.RAW_TEXT;
+        } else {
+            state = State.TEXT;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.thiepCuoi.service.impl;
+
+import com.thiepCuoi.repository.OrderCodeNodeRepository;
+import com.thiepCuoi.repository.entity.OrderCodeNode;
+import com.thiepCuoi.service.OrderCodeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mã đơn hàng kiểu Snowflake: 41 bit mili giây từ EPOCH | 10 bit node | 12 bit bộ đếm trong cùng mili giây.
+ * Trạng thái (mili giây, bộ đếm) nằm trong một AtomicLong và được cập nhật bằng CAS, nên các request đồng thời
+ * không chờ khóa. Hết 4096 mã trong một mili giây hoặc đồng hồ bị lùi thì mượn mili giây kế tiếp thay vì chờ.
+ * <p>
+ * Node id lấy từ app.order-code.node-id, để trống thì được cấp từ bảng order_code_nodes theo lease có gia hạn định kỳ.
+ * Bảng này cũng giữ mốc reserved_until: mã không vượt mốc trước khi mốc mới được ghi xuống, và sau khi khởi động lại
+ * bộ sinh bắt đầu sau mốc đó, nên đồng hồ bị lùi qua một lần restart cũng không cấp lại mã cũ.
+ */
+@Service
+public class OrderCodeServiceImpl implements OrderCodeService {
+    
+    private static final String PREFIX = "TC";
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    // 2^63 ở base 36 có 13 ký tự; 12 ký tự đủ cho hơn 100 năm kể từ EPOCH, đệm 0 để mã sắp xếp được theo chuỗi
+    private static final int CODE_LENGTH = 12;
+    
+    // Lease node id được gia hạn mỗi HEARTBEAT_SECONDS; instance dừng quá LEASE_SECONDS thì node id được cấp lại
+    private static final long LEASE_SECONDS = 120;
+    private static final long HEARTBEAT_SECONDS = 30;
+    
+    // Mỗi lần ghi reserved_until cho phép cấp mã thêm khoảng thời gian này mà không truy vấn database
+    private static final long RESERVE_MILLIS = 10_000;
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderCodeServiceImpl.class);
+    
+    @Autowired
+    private OrderCodeNodeRepository orderCodeNodeRepository;
+    
+    // Để trống thì được cấp từ database; có thể đặt ORDER_NODE_ID (0-1023) riêng cho từng instance
+    @Value("${app.order-code.node-id:}")
+    private String configuredNodeId;
+    
+    private int nodeId;
+    
+    private final String owner = hostName() + "/" + UUID.randomUUID();
+    
+    // (mili giây kể từ EPOCH << SEQUENCE_BITS) | bộ đếm của mã được cấp gần nhất
+    private final AtomicLong lastState = new AtomicLong();
+    
+    // Mili giây (kể từ EPOCH) lớn nhất đã ghi vào reserved_until
+    private volatile long reservedMillis;
+    
+    // Instance khác đã nhận node id (lease không được gia hạn kịp): ngừng cấp mã để tránh trùng
+    private volatile boolean nodeLost;
+    
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-code-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @PostConstruct
+    public void init() {
+        nodeId = claimNodeId();
+        OrderCodeNode node = orderCodeNodeRepository.findById(nodeId)
+                .orElseThrow(() -> new IllegalStateException("Không đọc được node id " + nodeId + " của mã đơn hàng"));
+        
+        // Mã của lần chạy trước có thể đã dùng tới hết reserved_until, kể cả khi đồng hồ hiện tại đã bị lùi
+        long resumeMillis = Math.max(System.currentTimeMillis() - EPOCH, node.getReservedUntil() - EPOCH + 1);
+        reservedMillis = resumeMillis - 1;
+        lastState.set((resumeMillis - 1) << SEQUENCE_BITS | SEQUENCE_MASK);
+        
+        heartbeat.scheduleWithFixedDelay(this::renewLease, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        log.info("Bộ sinh mã đơn hàng dùng node id {}", nodeId);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        try {
+            // Trả node id để instance khởi động sau nhận lại ngay, không chờ lease hết hạn
+            orderCodeNodeRepository.renew(nodeId, owner, LocalDateTime.now().minusSeconds(1));
+        } catch (RuntimeException e) {
+            log.warn("Không trả được node id {} của mã đơn hàng", nodeId, e);
+        }
+    }
+    
+    @Override
+    public String nextOrderCode() {
+        if (nodeLost) {
+            throw new IllegalStateException("Node id " + nodeId + " của mã đơn hàng đã bị instance khác nhận, không thể cấp mã");
+        }
+        long id = nextId();
+        StringBuilder code = new StringBuilder(PREFIX.length() + CODE_LENGTH).append(PREFIX);
+        String value = Long.toString(id, 36).toUpperCase(Locale.ROOT);
+        for (int i = value.length(); i < CODE_LENGTH; i++) {
+            code.append('0');
+        }
+        return code.append(value).toString();
+    }
+    
+    private long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            long lastMillis = last >>> SEQUENCE_BITS;
+            
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Cùng mili giây (hoặc đồng hồ lùi): tăng bộ đếm; khi tràn, phần cộng dồn sang mili giây kế tiếp
+                next = last + 1;
+            }
+            
+            if ((next >>> SEQUENCE_BITS) > reservedMillis) {
+                reserve(next >>> SEQUENCE_BITS);
+                continue;
+            }
+            
+            if (lastState.compareAndSet(last, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+    
+    // Ghi mốc mới trước khi cấp mã vượt mốc cũ; chỉ xảy ra khoảng mỗi RESERVE_MILLIS một lần
+    private synchronized void reserve(long millis) {
+        if (millis <= reservedMillis) {
+            return;
+        }
+        long until = millis + RESERVE_MILLIS;
+        if (orderCodeNodeRepository.reserve(nodeId, owner, until + EPOCH) == 0) {
+            nodeLost = true;
+            throw new IllegalStateException("Node id " + nodeId + " của mã đơn hàng đã bị instance khác nhận, không thể cấp mã");
+        }
+        reservedMillis = until;
+    }
+    
+    private int claimNodeId() {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            int id = Integer.parseInt(configuredNodeId.trim());
+            if (id < 0 || id > MAX_NODE_ID) {
+                throw new RuntimeException("app.order-code.node-id phải nằm trong khoảng 0-" + MAX_NODE_ID);
+            }
+            orderCodeNodeRepository.findById(id)
+                    .filter(node -> node.getLeaseUntil().isAfter(LocalDateTime.now()))
+                    .ifPresent(node -> log.warn("Node id {} của mã đơn hàng đang được {} giữ; kiểm tra ORDER_NODE_ID "
+                            + "của các instance nếu instance đó vẫn chạy", id, node.getOwner()));
+            if (orderCodeNodeRepository.takeOver(id, owner, leaseUntil()) == 0 && !tryInsert(id)) {
+                throw new IllegalStateException("Không nhận được node id " + id + " của mã đơn hàng");
+            }
+            return id;
+        }
+        
+        // Ưu tiên node id của instance đã dừng, sau đó node id chưa dùng nhỏ nhất
+        for (Integer id : orderCodeNodeRepository.findExpiredNodeIds(LocalDateTime.now())) {
+            if (orderCodeNodeRepository.claimExpired(id, owner, leaseUntil(), LocalDateTime.now()) == 1) {
+                return id;
+            }
+        }
+        Set<Integer> used = new HashSet<>(orderCodeNodeRepository.findAllNodeIds());
+        for (int id = 0; id <= MAX_NODE_ID; id++) {
+            if (!used.contains(id) && tryInsert(id)) {
+                return id;
+            }
+        }
+        throw new IllegalStateException("Đã hết node id cho mã đơn hàng (tối đa " + (MAX_NODE_ID + 1) + " instance)");
+    }
+    
+    private boolean tryInsert(int id) {
+        try {
+            return orderCodeNodeRepository.insert(id, owner, leaseUntil()) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false; // Instance khác vừa nhận node id này
+        }
+    }
+    
+    private void renewLease() {
+        try {
+            if (orderCodeNodeRepository.renew(nodeId, owner, leaseUntil()) == 0) {
+                nodeLost = true;
+                log.error("Node id {} của mã đơn hàng đã bị instance khác nhận, ngừng cấp mã đơn hàng", nodeId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Không gia hạn được node id {} của mã đơn hàng", nodeId, e);
+        }
+    }
+    
+    private static LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusSeconds(LEASE_SECONDS);
+    }
+    
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
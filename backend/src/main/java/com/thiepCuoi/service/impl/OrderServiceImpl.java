@@ -1,23 +1,29 @@
 package com.thiepCuoi.service.impl;
 
+import com.thiepCuoi.model.dto.KeysetPage;
 import com.thiepCuoi.model.dto.OrderDTO;
 import com.thiepCuoi.model.dto.OrderItemDTO;
+import com.thiepCuoi.model.dto.PageCursor;
 import com.thiepCuoi.repository.CustomInvitationRepository;
+import com.thiepCuoi.repository.OrderItemRepository;
 import com.thiepCuoi.repository.OrderRepository;
 import com.thiepCuoi.repository.UserRepository;
 import com.thiepCuoi.repository.entity.CustomInvitation;
 import com.thiepCuoi.repository.entity.Order;
 import com.thiepCuoi.repository.entity.OrderItem;
 import com.thiepCuoi.repository.entity.User;
+import com.thiepCuoi.service.OrderCodeService;
 import com.thiepCuoi.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +38,12 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private CustomInvitationRepository customInvitationRepository;
     
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
+    @Autowired
+    private OrderCodeService orderCodeService;
+    
     @Override
     @Transactional
     public OrderDTO createOrder(String username, OrderDTO orderDTO) {
@@ -39,7 +51,7 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
         
         // Tạo mã đơn hàng
-        String orderCode = generateOrderCode();
+        String orderCode = orderCodeService.nextOrderCode();
         
         Order order = new Order();
         order.setUser(user);
@@ -49,15 +61,23 @@ public class OrderServiceImpl implements OrderService {
         order.setNotes(orderDTO.getNotes());
         order.setStatus(Order.OrderStatus.PENDING);
         
+        // Nạp tất cả thiệp trong giỏ (kèm chủ sở hữu và mẫu thiệp) bằng một câu truy vấn
+        Map<Long, CustomInvitation> invitations = customInvitationRepository.findAllWithUserAndTemplateByIdIn(
+                        orderDTO.getOrderItems().stream().map(OrderItemDTO::getCustomInvitationId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(CustomInvitation::getId, Function.identity()));
+        
         // Tính tổng tiền và tạo order items
         BigDecimal totalAmount = BigDecimal.ZERO;
         
         for (OrderItemDTO itemDTO : orderDTO.getOrderItems()) {
-            CustomInvitation invitation = customInvitationRepository.findById(itemDTO.getCustomInvitationId())
-                    .orElseThrow(() -> new RuntimeException("Không tìm thấy thiệp tùy chỉnh"));
+            CustomInvitation invitation = invitations.get(itemDTO.getCustomInvitationId());
+            if (invitation == null) {
+                throw new RuntimeException("Không tìm thấy thiệp tùy chỉnh");
+            }
             
             // Kiểm tra quyền sở hữu
-            if (!invitation.getUser().getUsername().equals(username)) {
+            if (!invitation.getUser().getId().equals(user.getId())) {
                 throw new RuntimeException("Không có quyền đặt hàng thiệp này");
             }
             
@@ -82,18 +102,16 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
-    public List<OrderDTO> getUserOrders(String username) {
+    public KeysetPage<OrderDTO> getUserOrders(String username, String cursor, Integer size) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
         
-        return orderRepository.findByUser(user).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return findOrderPage(user.getId(), null, cursor, size);
     }
     
     @Override
     public OrderDTO getOrderById(Long id, String username) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng"));
         
         if (!order.getUser().getUsername().equals(username)) {
@@ -105,7 +123,7 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     public OrderDTO getOrderByCode(String orderCode) {
-        Order order = orderRepository.findByOrderCode(orderCode)
+        Order order = orderRepository.findWithItemsByOrderCode(orderCode)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng"));
         
         return convertToDTO(order);
@@ -113,7 +131,7 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     public OrderDTO updateOrderStatus(Long id, Order.OrderStatus status) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng"));
         
         order.setStatus(status);
@@ -124,18 +142,46 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
-    public List<OrderDTO> getOrdersByStatus(Order.OrderStatus status) {
-        return orderRepository.findByStatusOrderByCreatedAtDesc(status).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public KeysetPage<OrderDTO> getOrdersByStatus(Order.OrderStatus status, String cursor, Integer size) {
+        return findOrderPage(null, status, cursor, size);
     }
     
-    private String generateOrderCode() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        return "TC" + timestamp;
+    private KeysetPage<OrderDTO> findOrderPage(Long userId, Order.OrderStatus status, String cursor, Integer size) {
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        
+        List<Order> orders = findOrders(userId, status, position, PageCursor.limit(pageSize));
+        
+        // Nạp dòng hàng của cả trang bằng một câu truy vấn thay vì mỗi đơn hàng một câu
+        Map<Long, List<OrderItem>> itemsByOrderId = orders.isEmpty() ? Map.of() : orderItemRepository
+                .findByOrderIds(orders.stream().map(Order::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+        return KeysetPage.of(orders, pageSize, order -> new PageCursor(order.getCreatedAt(), order.getId()),
+                order -> convertToDTO(order, itemsByOrderId.getOrDefault(order.getId(), List.of())));
+    }
+    
+    // Mỗi bộ lọc và vị trí có câu truy vấn keyset riêng (không dùng điều kiện "IS NULL OR" chung)
+    private List<Order> findOrders(Long userId, Order.OrderStatus status, PageCursor position, Pageable limit) {
+        if (userId != null) {
+            return position.isFirstPage()
+                    ? orderRepository.findFirstPageByUser(userId, limit)
+                    : orderRepository.findNextPageByUser(userId, position.getCreatedAt(), position.getId(), limit);
+        }
+        if (status != null) {
+            return position.isFirstPage()
+                    ? orderRepository.findFirstPageByStatus(status, limit)
+                    : orderRepository.findNextPageByStatus(status, position.getCreatedAt(), position.getId(), limit);
+        }
+        return position.isFirstPage()
+                ? orderRepository.findFirstPage(limit)
+                : orderRepository.findNextPage(position.getCreatedAt(), position.getId(), limit);
     }
     
     private OrderDTO convertToDTO(Order order) {
+        return convertToDTO(order, order.getOrderItems());
+    }
+    
+    private OrderDTO convertToDTO(Order order, List<OrderItem> orderItems) {
         OrderDTO dto = new OrderDTO();
         dto.setId(order.getId());
         dto.setOrderCode(order.getOrderCode());
@@ -145,7 +191,7 @@ public class OrderServiceImpl implements OrderService {
         dto.setTotalAmount(order.getTotalAmount());
         dto.setStatus(order.getStatus().name());
         
-        List<OrderItemDTO> itemDTOs = order.getOrderItems().stream()
+        List<OrderItemDTO> itemDTOs = orderItems.stream()
                 .map(this::convertItemToDTO)
                 .collect(Collectors.toList());
         dto.setOrderItems(itemDTOs);
@@ -166,10 +212,17 @@ public class OrderServiceImpl implements OrderService {
     }
     
     @Override
-    public List<OrderDTO> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        return orders.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public KeysetPage<OrderDTO> getAllOrders(String cursor, Integer size) {
+        return findOrderPage(null, null, cursor, size);
+    }
+    
+    @Override
+    public Long getOrderCount() {
+        return orderRepository.count();
+    }
+    
+    @Override
+    public BigDecimal getTotalRevenue() {
+        return orderRepository.sumTotalAmount();
     }
 }
\ No newline at end of file
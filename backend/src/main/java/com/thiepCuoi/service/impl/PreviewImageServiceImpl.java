@@ -0,0 +1,207 @@
+package com.thiepCuoi.service.impl;
+
+import com.thiepCuoi.model.dto.PreviewStatusDTO;
+import com.thiepCuoi.repository.CustomizedCardRepository;
+import com.thiepCuoi.repository.UserRepository;
+import com.thiepCuoi.repository.entity.CustomizedCard;
+import com.thiepCuoi.repository.entity.User;
+import com.thiepCuoi.service.PreviewImageService;
+import com.thiepCuoi.service.TemplateRenderService;
+import com.thiepCuoi.service.TemplateRenderService.RenderedCard;
+import com.openhtmltopdf.java2d.api.BufferedImagePageProcessor;
+import com.openhtmltopdf.java2d.api.Java2DRendererBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+@Service
+public class PreviewImageServiceImpl implements PreviewImageService {
+
+    private static final String PREVIEW_URL_PREFIX = "/api/v1/preview/";
+    private static final Pattern PREVIEW_FILE_NAME = Pattern.compile("[0-9a-f]{64}\\.(png|jpg)");
+    // Render ở độ phân giải gấp đôi rồi thu nhỏ về app.preview.width cho chữ sắc nét
+    private static final double RENDER_SCALE = 2.0;
+
+    @Autowired
+    private CustomizedCardRepository customizedCardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TemplateRenderService templateRenderService;
+
+    @Autowired
+    private RenderResourcePolicy renderResourcePolicy;
+
+    @Autowired
+    @Qualifier("previewExecutor")
+    private ExecutorService previewExecutor;
+
+    @Value("${upload.path:./uploads}")
+    private String uploadPath;
+
+    @Value("${app.preview.format:png}")
+    private String format;
+
+    @Value("${app.preview.width:600}")
+    private int thumbnailWidth;
+
+    // Job tạo ảnh theo hash nội dung: các yêu cầu giống nhau dùng chung một job
+    private final FileJobs previewJobs = new FileJobs();
+
+    @Override
+    public PreviewStatusDTO requestCardPreview(Long customizedCardId, String username) {
+        CustomizedCard customizedCard = findOwnedCard(customizedCardId, username);
+
+        RenderedCard content = templateRenderService.renderCustomizedCard(customizedCard);
+        String hash = contentHash(content.getHtml(), content.getCss());
+        String url = previewUrl(hash);
+        CompletableFuture<Path> job = submit(hash, content.getHtml(), content.getCss());
+
+        if (job.isDone() && !job.isCompletedExceptionally()) {
+            if (!url.equals(customizedCard.getGeneratedImageUrl())) {
+                customizedCardRepository.updateGeneratedImageUrl(customizedCardId, url);
+            }
+            return new PreviewStatusDTO(customizedCardId, "DONE", url, null);
+        }
+
+        // Cập nhật URL ảnh cho thiệp khi job hoàn tất (chạy trên thread của job)
+        job.thenAccept(path -> customizedCardRepository.updateGeneratedImageUrl(customizedCardId, url));
+        return new PreviewStatusDTO(customizedCardId, "PENDING", null, null);
+    }
+
+    @Override
+    public PreviewStatusDTO getCardPreviewStatus(Long customizedCardId, String username) {
+        CustomizedCard customizedCard = findOwnedCard(customizedCardId, username);
+
+        RenderedCard content = templateRenderService.renderCustomizedCard(customizedCard);
+        String hash = contentHash(content.getHtml(), content.getCss());
+        String status = previewJobs.status(hash, previewPath(hash));
+        return new PreviewStatusDTO(customizedCardId, status,
+                FileJobs.DONE.equals(status) ? previewUrl(hash) : null,
+                FileJobs.FAILED.equals(status) ? previewJobs.failure(hash) : null);
+    }
+
+    @Override
+    public Path resolvePreviewFile(String fileName) {
+        if (fileName == null || !PREVIEW_FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        Path path = previewDirectory().resolve(fileName);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    private CompletableFuture<Path> submit(String hash, String htmlContent, String cssContent) {
+        Path target = previewPath(hash);
+        try {
+            return previewJobs.submit(hash, target,
+                    () -> CompletableFuture.supplyAsync(() -> renderToFile(htmlContent, cssContent, target), previewExecutor));
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Hệ thống đang bận tạo ảnh xem trước, vui lòng thử lại sau");
+        }
+    }
+
+    private Path renderToFile(String htmlContent, String cssContent, Path target) {
+        try {
+            BufferedImage image = scaleToWidth(rasterize(htmlContent, cssContent), thumbnailWidth);
+            return FileJobs.writeAtomically(target, "preview-", temp -> {
+                if (!ImageIO.write(image, imageFormatName(), temp.toFile())) {
+                    throw new IOException("Không hỗ trợ định dạng ảnh " + format);
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Lỗi khi tạo ảnh xem trước: " + e.getMessage(), e);
+        }
+    }
+
+    private BufferedImage rasterize(String htmlContent, String cssContent) throws IOException {
+        BufferedImagePageProcessor processor = new BufferedImagePageProcessor(BufferedImage.TYPE_INT_RGB, RENDER_SCALE);
+
+        Java2DRendererBuilder builder = new Java2DRendererBuilder();
+        builder.useFastMode();
+        builder.useEnvironmentFonts(true); // Font hệ thống, cần cho chữ tiếng Việt
+        renderResourcePolicy.apply(builder);
+        builder.withW3cDocument(CardDocumentBuilder.toW3cDocument(htmlContent, cssContent), null);
+        builder.toSinglePage(processor);
+        builder.runFirstPage();
+
+        List<BufferedImage> pages = processor.getPageImages();
+        if (pages.isEmpty()) {
+            throw new IOException("Thiệp không có nội dung để render");
+        }
+        return pages.get(0);
+    }
+
+    private static BufferedImage scaleToWidth(BufferedImage source, int width) {
+        if (width <= 0 || source.getWidth() <= width) {
+            return source;
+        }
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private CustomizedCard findOwnedCard(Long customizedCardId, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng"));
+
+        CustomizedCard customizedCard = customizedCardRepository.findById(customizedCardId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy thiệp tùy chỉnh"));
+
+        if (!customizedCard.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Không có quyền xem thiệp này");
+        }
+        return customizedCard;
+    }
+
+    /**
+     * Hash nội dung thiệp cùng các tham số ảnh, dùng làm tên file trong cache đĩa
+     */
+    private String contentHash(String htmlContent, String cssContent) {
+        return ContentHash.sha256(imageExtension() + ":" + thumbnailWidth, htmlContent, cssContent);
+    }
+
+    private Path previewDirectory() {
+        return Paths.get(uploadPath, "previews");
+    }
+
+    private Path previewPath(String hash) {
+        return previewDirectory().resolve(hash + "." + imageExtension());
+    }
+
+    private String previewUrl(String hash) {
+        return PREVIEW_URL_PREFIX + hash + "." + imageExtension();
+    }
+
+    private String imageExtension() {
+        return "jpg".equalsIgnoreCase(format) || "jpeg".equalsIgnoreCase(format) ? "jpg" : "png";
+    }
+
+    private String imageFormatName() {
+        return imageExtension().equals("jpg") ? "jpeg" : "png";
+    }
+}
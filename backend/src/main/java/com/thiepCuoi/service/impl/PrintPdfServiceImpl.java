@@ -0,0 +1,298 @@
+package com.thiepCuoi.service.impl;
+
+import com.thiepCuoi.model.dto.PdfStatusDTO;
+import com.thiepCuoi.repository.CardTemplateRepository;
+import com.thiepCuoi.repository.OrderRepository;
+import com.thiepCuoi.repository.entity.CardTemplate;
+import com.thiepCuoi.repository.entity.CustomInvitation;
+import com.thiepCuoi.repository.entity.Order;
+import com.thiepCuoi.repository.entity.OrderItem;
+import com.thiepCuoi.service.PrintPdfService;
+import com.thiepCuoi.service.TemplateRenderService;
+import com.thiepCuoi.service.TemplateRenderService.RenderedCard;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder.PageSizeUnits;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import jakarta.annotation.PostConstruct;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+@Service
+public class PrintPdfServiceImpl implements PrintPdfService {
+
+    private static final String PDF_URL_PREFIX = "/api/v1/pdf/";
+    private static final Pattern PDF_FILE_NAME = Pattern.compile("[0-9a-f]{64}\\.pdf");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CardTemplateRepository cardTemplateRepository;
+
+    @Autowired
+    private TemplateRenderService templateRenderService;
+
+    @Autowired
+    private RenderResourcePolicy renderResourcePolicy;
+
+    @Autowired
+    @Qualifier("pdfExecutor")
+    private ExecutorService pdfExecutor;
+
+    @Value("${upload.path:./uploads}")
+    private String uploadPath;
+
+    @Value("${app.pdf.page-width-mm:148}")
+    private float pageWidthMm;
+
+    @Value("${app.pdf.page-height-mm:210}")
+    private float pageHeightMm;
+
+    // Thư mục chứa font .ttf để nhúng vào PDF (font chuẩn của PDF không có dấu tiếng Việt)
+    @Value("${app.pdf.font-dir:}")
+    private String fontDir;
+
+    private final List<File> fontFiles = new ArrayList<>();
+
+    // Job theo hash nội dung: trang của từng thiệp và file gộp của đơn hàng
+    private final FileJobs pageJobs = new FileJobs();
+    private final FileJobs orderJobs = new FileJobs();
+
+    // File gộp của lần yêu cầu gần nhất theo đơn hàng, để endpoint trạng thái không phải tải đơn và render lại mọi thiệp
+    private final Cache<Long, RequestedPdf> requestedPdfs = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofHours(24))
+            .build();
+
+    @PostConstruct
+    public void loadFonts() throws IOException {
+        if (fontDir == null || fontDir.isBlank() || !Files.isDirectory(Paths.get(fontDir))) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(fontDir), "*.{ttf,TTF}")) {
+            for (Path file : files) {
+                fontFiles.add(file.toFile());
+            }
+        }
+    }
+
+    @Override
+    public PdfStatusDTO requestOrderPdf(Long orderId) {
+        List<PageSource> pages = buildOrderPages(orderId);
+        String hash = orderHash(pages);
+        requestedPdfs.put(orderId, new RequestedPdf(hash, pages.size()));
+        Path target = pdfPath(hash);
+        if (Files.exists(target)) {
+            return new PdfStatusDTO(orderId, "DONE", pages.size(), pdfUrl(hash), null);
+        }
+
+        try {
+            orderJobs.submit(hash, target, () -> {
+                // Các trang được tạo song song ra file riêng; khi đủ trang thì gộp trên cùng executor
+                List<CompletableFuture<Path>> pageFiles = new ArrayList<>(pages.size());
+                for (PageSource page : pages) {
+                    pageFiles.add(submitPage(page.hash, page.html, page.css));
+                }
+                return CompletableFuture.allOf(pageFiles.toArray(new CompletableFuture[0]))
+                        .thenApplyAsync(done -> mergePages(pageFiles.stream().map(CompletableFuture::join).toList(), target),
+                                pdfExecutor);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Hệ thống đang bận tạo file PDF, vui lòng thử lại sau");
+        }
+
+        return new PdfStatusDTO(orderId, "PENDING", pages.size(), null, null);
+    }
+
+    @Override
+    public PdfStatusDTO getOrderPdfStatus(Long orderId) {
+        RequestedPdf requested = requestedPdfs.getIfPresent(orderId);
+        if (requested == null) {
+            if (!orderRepository.existsById(orderId)) {
+                throw new RuntimeException("Không tìm thấy đơn hàng");
+            }
+            return new PdfStatusDTO(orderId, "NONE", null, null, null);
+        }
+        String hash = requested.hash;
+        String status = orderJobs.status(hash, pdfPath(hash));
+        return new PdfStatusDTO(orderId, status, requested.pageCount,
+                FileJobs.DONE.equals(status) ? pdfUrl(hash) : null,
+                FileJobs.FAILED.equals(status) ? orderJobs.failure(hash) : null);
+    }
+
+    @Override
+    public Path resolvePdfFile(String fileName) {
+        if (fileName == null || !PDF_FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        Path path = pdfDirectory().resolve(fileName);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * Render HTML của từng OrderItem bằng mẫu HTML đang hoạt động đầu tiên của mẫu thiệp
+     */
+    private List<PageSource> buildOrderPages(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng"));
+
+        List<OrderItem> items = new ArrayList<>(order.getOrderItems());
+        if (items.isEmpty()) {
+            throw new RuntimeException("Đơn hàng không có sản phẩm để in");
+        }
+        items.sort(Comparator.comparing(OrderItem::getId));
+
+        Map<Long, CardTemplate> cardTemplates = new HashMap<>();
+        List<PageSource> pages = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            CustomInvitation invitation = item.getCustomInvitation();
+            CardTemplate cardTemplate = cardTemplates.computeIfAbsent(invitation.getTemplate().getId(),
+                    templateId -> cardTemplateRepository.findByTemplate_IdAndIsActiveTrue(templateId).stream()
+                            .findFirst()
+                            .orElseThrow(() -> new RuntimeException(
+                                    "Mẫu thiệp " + invitation.getTemplate().getName() + " chưa có mẫu HTML để in")));
+
+            RenderedCard rendered = templateRenderService.renderCard(cardTemplate, toCustomData(invitation));
+            pages.add(new PageSource(pageHash(rendered.getHtml(), rendered.getCss()), rendered.getHtml(), rendered.getCss()));
+        }
+        return pages;
+    }
+
+    private static Map<String, String> toCustomData(CustomInvitation invitation) {
+        Map<String, String> customData = new HashMap<>();
+        customData.put("groom_name", invitation.getGroomName());
+        customData.put("bride_name", invitation.getBrideName());
+        customData.put("wedding_date", invitation.getWeddingDate() != null ? invitation.getWeddingDate().toString() : null);
+        customData.put("wedding_time", invitation.getWeddingTime() != null ? invitation.getWeddingTime().format(TIME_FORMAT) : null);
+        customData.put("wedding_venue", invitation.getWeddingVenue());
+        customData.put("custom_message", invitation.getCustomMessage());
+        return customData;
+    }
+
+    private CompletableFuture<Path> submitPage(String hash, String htmlContent, String cssContent) {
+        Path target = pdfPath(hash);
+        return pageJobs.submit(hash, target,
+                () -> CompletableFuture.supplyAsync(() -> renderPage(htmlContent, cssContent, target), pdfExecutor));
+    }
+
+    private Path renderPage(String htmlContent, String cssContent, Path target) {
+        try {
+            return FileJobs.writeAtomically(target, "pdf-", temp -> {
+                PdfRendererBuilder builder = new PdfRendererBuilder();
+                builder.useFastMode();
+                builder.useDefaultPageSize(pageWidthMm, pageHeightMm, PageSizeUnits.MM);
+                for (File font : fontFiles) {
+                    // Tên font-family trong CSS trùng với tên file, ví dụ "Roboto" cho Roboto.ttf
+                    builder.useFont(font, font.getName().replaceFirst("(?i)\\.ttf$", ""));
+                }
+                renderResourcePolicy.apply(builder);
+                builder.withW3cDocument(CardDocumentBuilder.toW3cDocument(htmlContent, cssContent), null);
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    builder.toStream(out);
+                    builder.run();
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Lỗi khi tạo file PDF: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gộp các file trang thành một file, PDFBox chỉ dùng file tạm thay vì giữ toàn bộ trang trong bộ nhớ
+     */
+    private Path mergePages(List<Path> pageFiles, Path target) {
+        try {
+            return FileJobs.writeAtomically(target, "pdf-", temp -> {
+                PDFMergerUtility merger = new PDFMergerUtility();
+                for (Path page : pageFiles) {
+                    merger.addSource(page.toFile());
+                }
+                merger.setDestinationFileName(temp.toString());
+                merger.mergeDocuments(MemoryUsageSetting.setupTempFileOnly());
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Lỗi khi gộp file PDF: " + e.getMessage(), e);
+        }
+    }
+
+    private String pageHash(String htmlContent, String cssContent) {
+        return ContentHash.sha256(pageSizeKey(), htmlContent, cssContent);
+    }
+
+    /**
+     * Hash của file gộp = hash của danh sách hash trang theo thứ tự
+     */
+    private String orderHash(List<PageSource> pages) {
+        String[] parts = new String[pages.size() + 1];
+        parts[0] = "order";
+        for (int i = 0; i < pages.size(); i++) {
+            parts[i + 1] = pages.get(i).hash;
+        }
+        return ContentHash.sha256(parts);
+    }
+
+    private String pageSizeKey() {
+        return String.format(Locale.ROOT, "%.1fx%.1fmm", pageWidthMm, pageHeightMm);
+    }
+
+    private Path pdfDirectory() {
+        return Paths.get(uploadPath, "pdf");
+    }
+
+    private Path pdfPath(String hash) {
+        return pdfDirectory().resolve(hash + ".pdf");
+    }
+
+    private String pdfUrl(String hash) {
+        return PDF_URL_PREFIX + hash + ".pdf";
+    }
+
+    private static final class RequestedPdf {
+        private final String hash;
+        private final int pageCount;
+
+        private RequestedPdf(String hash, int pageCount) {
+            this.hash = hash;
+            this.pageCount = pageCount;
+        }
+    }
+
+    private static final class PageSource {
+        private final String hash;
+        private final String html;
+        private final String css;
+
+        private PageSource(String hash, String html, String css) {
+            this.hash = hash;
+            this.html = html;
+            this.css = css;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.thiepCuoi.service.impl;
+
+import com.openhtmltopdf.extend.FSStream;
+import com.openhtmltopdf.extend.FSStreamFactory;
+import com.openhtmltopdf.extend.FSUriResolver;
+import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Quy tắc tải tài nguyên ngoài (ảnh, font, CSS) khi render HTML thiệp thành ảnh xem trước/PDF.
+ * HTML chứa customData do người dùng nhập nên renderer không được tự tải URL bất kỳ (SSRF):
+ * chỉ cho phép data:, file nằm trong ${upload.path} và http(s) tới các host trong app.render.allowed-hosts.
+ * URI khác bị từ chối (renderer bỏ qua tài nguyên đó).
+ */
+@Component
+class RenderResourcePolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderResourcePolicy.class);
+
+    // Giao thức URL.openStream hỗ trợ sẵn, phải đi qua factory này thay vì để renderer tự mở
+    private static final String[] GUARDED_PROTOCOLS = {"file", "jar", "ftp"};
+
+    @Value("${upload.path:./uploads}")
+    private String uploadPath;
+
+    @Value("${app.render.allowed-hosts:}")
+    private List<String> allowedHostList;
+
+    @Value("${app.render.fetch-timeout-ms:3000}")
+    private int fetchTimeoutMs;
+
+    @Value("${app.render.fetch-max-bytes:5242880}")
+    private int fetchMaxBytes;
+
+    private Path uploadRoot;
+    private Set<String> allowedHosts;
+
+    @PostConstruct
+    public void init() {
+        uploadRoot = Paths.get(uploadPath).toAbsolutePath().normalize();
+        allowedHosts = allowedHostList.stream()
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Gắn resolver và stream factory hạn chế vào builder (dùng chung cho Java2D và PDFBox)
+     */
+    void apply(BaseRendererBuilder<?, ?> builder) {
+        FSUriResolver resolver = this::resolve;
+        FSStreamFactory streams = this::open;
+        builder.useUriResolver(resolver);
+        builder.useHttpStreamImplementation(streams);
+        builder.useProtocolsStreamImplementation(streams, GUARDED_PROTOCOLS);
+    }
+
+    /**
+     * @return URI tuyệt đối được phép tải, null nếu bị từ chối
+     */
+    String resolve(String baseUri, String uri) {
+        if (uri == null || uri.isBlank()) {
+            return null;
+        }
+        String trimmed = uri.trim();
+        if (trimmed.regionMatches(true, 0, "data:", 0, 5)) {
+            return trimmed;
+        }
+
+        URI parsed;
+        try {
+            parsed = new URI(trimmed);
+        } catch (URISyntaxException e) {
+            return reject(trimmed);
+        }
+
+        String scheme = parsed.getScheme() != null ? parsed.getScheme().toLowerCase(Locale.ROOT) : null;
+        if (scheme == null) {
+            // Đường dẫn tương đối/tuyệt đối không có giao thức: tính trong thư mục upload
+            Path path = uploadFile(parsed.getPath());
+            return path != null ? path.toUri().toString() : reject(trimmed);
+        }
+        if (scheme.equals("file")) {
+            Path path = uploadFile(parsed);
+            return path != null ? path.toUri().toString() : reject(trimmed);
+        }
+        if ((scheme.equals("http") || scheme.equals("https")) && isAllowedHost(parsed)) {
+            return parsed.toString();
+        }
+        return reject(trimmed);
+    }
+
+    private FSStream open(String uri) {
+        URI parsed = URI.create(uri);
+        String scheme = parsed.getScheme() != null ? parsed.getScheme().toLowerCase(Locale.ROOT) : "";
+        if (scheme.equals("file")) {
+            Path path = uploadFile(parsed);
+            if (path != null && Files.isRegularFile(path)) {
+                return new FileStream(path);
+            }
+        } else if ((scheme.equals("http") || scheme.equals("https")) && isAllowedHost(parsed)) {
+            return new HttpStream(parsed);
+        }
+        // Resolver đã lọc trước; đến đây là URI bị chặn hoặc file không tồn tại
+        log.warn("Chặn tải tài nguyên khi render: {}", uri);
+        return new FileStream(null);
+    }
+
+    private boolean isAllowedHost(URI uri) {
+        return uri.getHost() != null && allowedHosts.contains(uri.getHost().toLowerCase(Locale.ROOT));
+    }
+
+    private Path uploadFile(URI fileUri) {
+        try {
+            return within(Paths.get(fileUri));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private Path uploadFile(String relative) {
+        if (relative == null || relative.isEmpty()) {
+            return null;
+        }
+        String stripped = relative.replaceFirst("^/+", "").replaceFirst("^uploads/", "");
+        try {
+            return within(uploadRoot.resolve(stripped));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private Path within(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        return normalized.startsWith(uploadRoot) ? normalized : null;
+    }
+
+    private static String reject(String uri) {
+        log.warn("Từ chối tài nguyên ngoài khi render: {}", uri);
+        return null;
+    }
+
+    private static final class FileStream implements FSStream {
+        private final Path path;
+
+        FileStream(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public InputStream getStream() {
+            if (path == null) {
+                return null;
+            }
+            try {
+                return Files.newInputStream(path);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public Reader getReader() {
+            InputStream stream = getStream();
+            return stream != null ? new InputStreamReader(stream, StandardCharsets.UTF_8) : null;
+        }
+    }
+
+    /**
+     * Tải http(s) không theo redirect (tránh bị chuyển hướng sang host nội bộ), có timeout và giới hạn dung lượng
+     */
+    private final class HttpStream implements FSStream {
+        private final URI uri;
+
+        HttpStream(URI uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public InputStream getStream() {
+            HttpURLConnection connection = null;
+            try {
+                connection = (HttpURLConnection) uri.toURL().openConnection();
+                connection.setInstanceFollowRedirects(false);
+                connection.setConnectTimeout(fetchTimeoutMs);
+                connection.setReadTimeout(fetchTimeoutMs);
+                if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    log.warn("Không tải được tài nguyên {} (HTTP {})", uri, connection.getResponseCode());
+                    return null;
+                }
+                try (InputStream in = connection.getInputStream()) {
+                    byte[] body = in.readNBytes(fetchMaxBytes + 1);
+                    if (body.length > fetchMaxBytes) {
+                        log.warn("Tài nguyên {} vượt quá {} byte", uri, fetchMaxBytes);
+                        return null;
+                    }
+                    return new ByteArrayInputStream(body);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Không tải được tài nguyên {}: {}", uri, e.toString());
+                return null;
+            } finally {
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+        }
+
+        @Override
+        public Reader getReader() {
+            InputStream stream = getStream();
+            return stream != null ? new InputStreamReader(stream, StandardCharsets.UTF_8) : null;
+        }
+    }
+}
@@ -1,16 +1,84 @@
 package com.thiepCuoi.service.impl;
 
+import com.thiepCuoi.repository.CardTemplateRevisionRepository;
+import com.thiepCuoi.repository.entity.CardTemplate;
+import com.thiepCuoi.repository.entity.CardTemplateRevision;
+import com.thiepCuoi.repository.entity.CustomizedCard;
+import com.thiepCuoi.service.BlobStoreService;
 import com.thiepCuoi.service.TemplateRenderService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Service
 public class TemplateRenderServiceImpl implements TemplateRenderService {
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Logger log = LoggerFactory.getLogger(TemplateRenderServiceImpl.class);
+    
+    // Cache template đã biên dịch theo ID card template, tự biên dịch lại khi revision thay đổi
+    private final ConcurrentMap<Long, CompiledCardTemplate> compiledTemplates = new ConcurrentHashMap<>();
+    
+    private static final TypeReference<Map<String, String>> CUSTOM_DATA_TYPE = new TypeReference<>() {};
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    
+    @Autowired
+    private CardTemplateRevisionRepository cardTemplateRevisionRepository;
+    
+    @Autowired
+    private BlobStoreService blobStoreService;
+    
+    // Bản biên dịch của các revision cũ mà thiệp đã ghim (khác revision hiện tại của template)
+    private final Cache<RevisionKey, CompiledCardTemplate> pinnedTemplates = Caffeine.newBuilder()
+            .maximumSize(256)
+            .build();
+    
+    // Các revision đã chắc chắn có bản chụp trong DB, tránh truy vấn lại mỗi lần lưu thiệp
+    private final Set<RevisionKey> snapshottedRevisions = ConcurrentHashMap.newKeySet();
+    
+    @Value("${app.render.cache.max-size-mb:64}")
+    private long renderCacheMaxSizeMb;
+    
+    // Cache kết quả render, giới hạn theo tổng kích thước (Caffeine dùng W-TinyLFU để loại bỏ)
+    private Cache<RenderCacheKey, RenderedCard> renderCache;
+    
+    @PostConstruct
+    public void initRenderCache() {
+        renderCache = Caffeine.newBuilder()
+                .maximumWeight(renderCacheMaxSizeMb * 1024 * 1024)
+                .weigher((RenderCacheKey key, RenderedCard card) -> weightOf(card))
+                .recordStats()
+                .build();
+        
+        // meterRegistry là null khi service được tạo ngoài Spring (benchmark JMH)
+        if (meterRegistry != null) {
+            meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, renderCache, "card.render"));
+        }
+    }
     
     @Override
     public String renderHtml(String htmlTemplate, Map<String, String> customData) {
@@ -18,25 +86,7 @@ public class TemplateRenderServiceImpl implements TemplateRenderService {
             return htmlTemplate;
         }
         
-        String renderedHtml = htmlTemplate;
-        
-        // Replace placeholders như {{groom_name}}, {{bride_name}}, etc.
-        Pattern pattern = Pattern.compile("\\{\\{([^}]+)\\}\\}");
-        Matcher matcher = pattern.matcher(htmlTemplate);
-        
-        while (matcher.find()) {
-            String placeholder = matcher.group(0); // {{groom_name}}
-            String variableName = matcher.group(1).trim(); // groom_name
-            
-            String value = customData.getOrDefault(variableName, "");
-            
-            // HTML escape để tránh XSS
-            value = escapeHtml(value);
-            
-            renderedHtml = renderedHtml.replace(placeholder, value);
-        }
-        
-        return renderedHtml;
+        return CompiledTemplate.parseHtml(htmlTemplate).render(customData);
     }
     
     @Override
@@ -45,71 +95,231 @@ public class TemplateRenderServiceImpl implements TemplateRenderService {
             return cssTemplate;
         }
         
-        String renderedCss = cssTemplate;
+        return CompiledTemplate.parseCss(cssTemplate).render(customData);
+    }
+    
+    @Override
+    public String renderHtml(CardTemplate cardTemplate, Map<String, String> customData) {
+        CompiledTemplate html = getCompiledTemplate(cardTemplate).getHtml();
+        if (html == null || customData == null) {
+            return cardTemplate.getHtmlContent();
+        }
+        return html.render(customData);
+    }
+    
+    @Override
+    public String renderCss(CardTemplate cardTemplate, Map<String, String> customData) {
+        CompiledTemplate css = getCompiledTemplate(cardTemplate).getCss();
+        if (css == null || customData == null) {
+            return cardTemplate.getCssContent();
+        }
+        return css.render(customData);
+    }
+    
+    @Override
+    public RenderedCard renderCard(CardTemplate cardTemplate, Map<String, String> customData) {
+        if (customData == null) {
+            return new RenderedCard(cardTemplate.getHtmlContent(), cardTemplate.getCssContent());
+        }
         
-        // CSS cũng có thể có variables như {{primary_color}}
-        Pattern pattern = Pattern.compile("\\{\\{([^}]+)\\}\\}");
-        Matcher matcher = pattern.matcher(cssTemplate);
+        return renderCached(getCompiledTemplate(cardTemplate), customData);
+    }
+    
+    private RenderedCard renderCached(CompiledCardTemplate compiled, Map<String, String> customData) {
+        RenderCacheKey key = new RenderCacheKey(compiled.getCardTemplateId(), compiled.getRevision(), hashCustomData(customData));
         
-        while (matcher.find()) {
-            String placeholder = matcher.group(0);
-            String variableName = matcher.group(1).trim();
-            
-            String value = customData.getOrDefault(variableName, "");
-            renderedCss = renderedCss.replace(placeholder, value);
+        return renderCache.get(key, k -> new RenderedCard(
+                compiled.getHtml() != null ? compiled.getHtml().render(customData) : null,
+                compiled.getCss() != null ? compiled.getCss().render(customData) : null));
+    }
+    
+    @Override
+    public RenderedCard rerenderCard(CardTemplate cardTemplate, RenderedCard previous,
+                                     Map<String, String> previousData, Map<String, String> customData) {
+        if (previous == null || previousData == null || customData == null) {
+            return renderCard(cardTemplate, customData);
         }
         
-        return renderedCss;
+        CompiledCardTemplate compiled = getCompiledTemplate(cardTemplate);
+        RenderCacheKey key = new RenderCacheKey(compiled.getCardTemplateId(), compiled.getRevision(), hashCustomData(customData));
+        
+        return renderCache.get(key, k -> new RenderedCard(
+                compiled.getHtml() != null && previous.getHtml() != null
+                        ? compiled.getHtml().rerender(previous.getHtml(), previousData, customData)
+                        : renderHtml(cardTemplate, customData),
+                compiled.getCss() != null && previous.getCss() != null
+                        ? compiled.getCss().rerender(previous.getCss(), previousData, customData)
+                        : renderCss(cardTemplate, customData)));
     }
     
     @Override
-    public boolean validateTemplateData(String templateVariables, Map<String, String> customData) {
-        if (templateVariables == null || templateVariables.trim().isEmpty()) {
-            return true; // No validation needed
+    public String getTemplateRevision(CardTemplate cardTemplate) {
+        return getCompiledTemplate(cardTemplate).getRevision();
+    }
+    
+    @Override
+    public String pinTemplateRevision(CardTemplate cardTemplate) {
+        String revision = getCompiledTemplate(cardTemplate).getRevision();
+        RevisionKey key = new RevisionKey(cardTemplate.getId(), revision);
+        if (snapshottedRevisions.contains(key)) {
+            return revision;
         }
         
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, String> requiredVariables = objectMapper.readValue(templateVariables, Map.class);
-            
-            // Kiểm tra các required fields
-            for (String requiredField : requiredVariables.keySet()) {
-                if (!customData.containsKey(requiredField)) {
-                    return false;
-                }
-                
-                String value = customData.get(requiredField);
-                if (value == null || value.trim().isEmpty()) {
-                    // Some fields might be optional, check if it's marked as required
-                    if (isRequiredField(requiredField)) {
-                        return false;
-                    }
-                }
+        if (!cardTemplateRevisionRepository.existsByCardTemplate_IdAndRevision(cardTemplate.getId(), revision)) {
+            try {
+                cardTemplateRevisionRepository.save(new CardTemplateRevision(cardTemplate, revision));
+            } catch (DataIntegrityViolationException e) {
+                // Request khác vừa lưu cùng revision (unique constraint), bản chụp đã có
             }
-            
-            return true;
+        }
+        snapshottedRevisions.add(key);
+        return revision;
+    }
+    
+    @Override
+    public RenderedCard renderCustomizedCard(CustomizedCard customizedCard, Map<String, String> customData) {
+        RenderedCard stored = storedContent(customizedCard);
+        if (stored != null) {
+            return stored;
+        }
+        if (customData == null) {
+            return new RenderedCard(null, null);
+        }
+        return renderCached(getPinnedTemplate(customizedCard), customData);
+    }
+    
+    @Override
+    public RenderedCard renderCustomizedCard(CustomizedCard customizedCard) {
+        RenderedCard stored = storedContent(customizedCard);
+        if (stored != null) {
+            return stored;
+        }
+        return renderCustomizedCard(customizedCard, parseCustomData(customizedCard.getCustomData()));
+    }
+    
+    /**
+     * HTML/CSS đã lưu của thiệp: trong cột LONGTEXT hoặc trong blob store theo hash
+     * @return null nếu thiệp được lưu ở chế độ render khi đọc
+     */
+    private RenderedCard storedContent(CustomizedCard customizedCard) {
+        if (customizedCard.getRenderedHtml() != null) {
+            return new RenderedCard(customizedCard.getRenderedHtml(), customizedCard.getRenderedCss());
+        }
+        if (customizedCard.getRenderedHtmlHash() != null) {
+            return new RenderedCard(blobStoreService.get(customizedCard.getRenderedHtmlHash()),
+                    blobStoreService.get(customizedCard.getRenderedCssHash()));
+        }
+        return null;
+    }
+    
+    @Override
+    public void renderDocument(CustomizedCard customizedCard, Map<String, String> customData, Writer writer) throws IOException {
+        renderDocument(getPinnedTemplate(customizedCard), customData, writer);
+    }
+    
+    @Override
+    public void renderDocument(CardTemplate cardTemplate, Map<String, String> customData, Writer writer) throws IOException {
+        renderDocument(getCompiledTemplate(cardTemplate), customData, writer);
+    }
+    
+    private void renderDocument(CompiledCardTemplate compiled, Map<String, String> customData, Writer writer) throws IOException {
+        writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n");
+        if (compiled.getCss() != null) {
+            writer.write("<style>\n");
+            compiled.getCss().render(customData, writer);
+            writer.write("\n</style>\n");
+        }
+        writer.write("</head>\n<body>\n");
+        if (compiled.getHtml() != null) {
+            compiled.getHtml().render(customData, writer);
+        }
+        writer.write("\n</body>\n</html>\n");
+    }
+    
+    /**
+     * Template theo revision thiệp đã ghim; dùng revision hiện tại nếu trùng hoặc không có bản chụp.
+     * Chỉ dùng cho thiệp không có HTML/CSS đã lưu (bản chụp chỉ được ghi ở chế độ render khi đọc)
+     */
+    private CompiledCardTemplate getPinnedTemplate(CustomizedCard customizedCard) {
+        CompiledCardTemplate current = getCompiledTemplate(customizedCard.getCardTemplate());
+        String pinned = customizedCard.getTemplateRevision();
+        if (pinned == null || pinned.equals(current.getRevision())) {
+            return current;
+        }
+        
+        CompiledCardTemplate snapshot = pinnedTemplates.get(new RevisionKey(current.getCardTemplateId(), pinned),
+                key -> cardTemplateRevisionRepository.findByCardTemplate_IdAndRevision(key.cardTemplateId(), key.revision())
+                        .map(CompiledCardTemplate::compile)
+                        .orElse(null));
+        if (snapshot == null) {
+            log.warn("Không có bản chụp revision {} của mẫu thiệp {}, render thiệp {} theo revision hiện tại",
+                    pinned, current.getCardTemplateId(), customizedCard.getId());
+            return current;
+        }
+        return snapshot;
+    }
+    
+    private static Map<String, String> parseCustomData(String customDataJson) {
+        try {
+            return OBJECT_MAPPER.readValue(customDataJson, CUSTOM_DATA_TYPE);
         } catch (Exception e) {
-            // JSON parsing error
-            return false;
+            return null;
         }
     }
     
-    private boolean isRequiredField(String fieldName) {
-        // Define which fields are required
-        return fieldName.equals("groom_name") || fieldName.equals("bride_name") || fieldName.equals("wedding_date");
+    private CompiledCardTemplate getCompiledTemplate(CardTemplate cardTemplate) {
+        String revision = CompiledCardTemplate.revisionOf(cardTemplate);
+        CompiledCardTemplate cached = compiledTemplates.get(cardTemplate.getId());
+        if (cached != null && cached.getRevision().equals(revision)) {
+            return cached;
+        }
+        
+        return compiledTemplates.compute(cardTemplate.getId(), (id, existing) ->
+                existing != null && existing.getRevision().equals(revision)
+                        ? existing
+                        : CompiledCardTemplate.compile(cardTemplate));
     }
     
-    private String escapeHtml(String input) {
-        if (input == null) {
-            return "";
+    /**
+     * Hash SHA-256 của customData đã chuẩn hóa (sắp xếp theo tên biến, bỏ giá trị null)
+     */
+    private static String hashCustomData(Map<String, String> customData) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
         
-        return input
-                .replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#x27;")
-                .replace("/", "&#x2F;");
-    }
-}
\ No newline at end of file
+        for (Map.Entry<String, String> entry : new TreeMap<>(customData).entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(entry.getValue().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private static int weightOf(RenderedCard card) {
+        long chars = (card.getHtml() != null ? card.getHtml().length() : 0)
+                + (card.getCss() != null ? card.getCss().length() : 0);
+        return (int) Math.min(Integer.MAX_VALUE, chars * 2);
+    }
+    
+    private record RenderCacheKey(Long cardTemplateId, String revision, String customDataHash) {}
+    
+    private record RevisionKey(Long cardTemplateId, String revision) {}
+    
+    @Override
+    public boolean validateTemplateData(String templateVariables, Map<String, String> customData) {
+        return TemplateVariableSchema.compile(templateVariables).isValid(customData);
+    }
+    
+    @Override
+    public boolean validateTemplateData(CardTemplate cardTemplate, Map<String, String> customData) {
+        return getCompiledTemplate(cardTemplate).getSchema().isValid(customData);
+    }
+}
@@ -1,5 +1,8 @@
 package com.thiepCuoi.service.impl;
 
+import com.thiepCuoi.model.dto.ETags;
+import com.thiepCuoi.model.dto.KeysetPage;
+import com.thiepCuoi.model.dto.PageCursor;
 import com.thiepCuoi.model.dto.TemplateDTO;
 import com.thiepCuoi.repository.CategoryRepository;
 import com.thiepCuoi.repository.TemplateRepository;
@@ -7,9 +10,11 @@ import com.thiepCuoi.repository.entity.Category;
 import com.thiepCuoi.repository.entity.Template;
 import com.thiepCuoi.service.TemplateService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TemplateServiceImpl implements TemplateService {
@@ -21,24 +26,58 @@ public class TemplateServiceImpl implements TemplateService {
     private CategoryRepository categoryRepository;
     
     @Override
-    public List<TemplateDTO> getAllActiveTemplates() {
-        return templateRepository.findByIsActiveTrue().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public KeysetPage<TemplateDTO> getActiveTemplates(Long categoryId, String keyword, BigDecimal minPrice, BigDecimal maxPrice,
+                                                      String cursor, Integer size) {
+        String trimmed = keyword == null || keyword.isBlank() ? null : keyword.trim();
+        return findActivePage(categoryId, trimmed, minPrice, maxPrice, cursor, size);
     }
     
     @Override
-    public List<TemplateDTO> getTemplatesByCategory(Long categoryId) {
-        return templateRepository.findByCategory_IdAndIsActiveTrue(categoryId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public KeysetPage<TemplateDTO> getTemplatesByCategory(Long categoryId, String cursor, Integer size) {
+        return findActivePage(categoryId, null, null, null, cursor, size);
     }
     
     @Override
-    public List<TemplateDTO> searchTemplates(String keyword) {
-        return templateRepository.searchByKeyword(keyword).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public KeysetPage<TemplateDTO> searchTemplates(String keyword, String cursor, Integer size) {
+        return findActivePage(null, keyword, null, null, cursor, size);
+    }
+    
+    @Override
+    public Long getActiveTemplateCount() {
+        return templateRepository.countByIsActiveTrue();
+    }
+    
+    private KeysetPage<TemplateDTO> findActivePage(Long categoryId, String keyword, BigDecimal minPrice, BigDecimal maxPrice,
+                                                   String cursor, Integer size) {
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        
+        List<Template> templates = findTemplates(categoryId, keyword, minPrice, maxPrice, position, PageCursor.limit(pageSize));
+        return KeysetPage.of(templates, pageSize, template -> new PageCursor(template.getCreatedAt(), template.getId()),
+                this::versionOf, this::convertToDTO);
+    }
+    
+    // Mỗi bộ lọc và vị trí có câu truy vấn keyset riêng (không dùng điều kiện "IS NULL OR" chung);
+    // lọc theo giá hoặc danh mục kèm từ khóa dùng truy vấn ghép từ các bộ lọc có mặt
+    private List<Template> findTemplates(Long categoryId, String keyword, BigDecimal minPrice, BigDecimal maxPrice,
+                                         PageCursor position, Pageable limit) {
+        if (minPrice != null || maxPrice != null || (categoryId != null && keyword != null)) {
+            return templateRepository.findActivePageFiltered(categoryId, keyword, minPrice, maxPrice,
+                    position.getCreatedAt(), position.getId(), limit);
+        }
+        if (categoryId != null) {
+            return position.isFirstPage()
+                    ? templateRepository.findFirstActivePageByCategory(categoryId, limit)
+                    : templateRepository.findNextActivePageByCategory(categoryId, position.getCreatedAt(), position.getId(), limit);
+        }
+        if (keyword != null) {
+            return position.isFirstPage()
+                    ? templateRepository.findFirstActivePageByKeyword(keyword, limit)
+                    : templateRepository.findNextActivePageByKeyword(keyword, position.getCreatedAt(), position.getId(), limit);
+        }
+        return position.isFirstPage()
+                ? templateRepository.findFirstActivePage(limit)
+                : templateRepository.findNextActivePage(position.getCreatedAt(), position.getId(), limit);
     }
     
     @Override
@@ -48,6 +87,13 @@ public class TemplateServiceImpl implements TemplateService {
         return convertToDTO(template);
     }
     
+    @Override
+    public String getTemplateEtag(Long id) {
+        Template template = templateRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy mẫu thiệp"));
+        return ETags.of(Stream.of(versionOf(template)));
+    }
+    
     @Override
     public TemplateDTO createTemplate(TemplateDTO templateDTO) {
         Category category = categoryRepository.findById(templateDTO.getCategoryId())
@@ -94,6 +140,13 @@ public class TemplateServiceImpl implements TemplateService {
         templateRepository.save(template);
     }
     
+    // DTO đọc cả tên danh mục nên phiên bản gồm cả rowVersion của danh mục
+    private String versionOf(Template template) {
+        Category category = template.getCategory();
+        return ETags.version("template", template.getId(), template.getRowVersion(),
+                category != null ? category.getRowVersion() : null);
+    }
+    
     private TemplateDTO convertToDTO(Template template) {
         TemplateDTO dto = new TemplateDTO();
         dto.setId(template.getId());
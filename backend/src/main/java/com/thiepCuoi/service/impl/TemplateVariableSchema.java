@@ -0,0 +1,178 @@
+package com.thiepCuoi.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Luật kiểm tra dữ liệu được biên dịch một lần từ CardTemplate.templateVariables.
+ *
+ * Hỗ trợ hai dạng khai báo cho mỗi biến:
+ * - Dạng cũ: "groom_name": "Tên chú rể" (chỉ có nhãn)
+ * - Dạng mới: "wedding_date": {"label": "Ngày cưới", "required": true, "maxLength": 20,
+ *   "format": "date", "pattern": "dd/MM/yyyy", "enum": ["..."]}
+ */
+public final class TemplateVariableSchema {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // Các biến bắt buộc của dạng khai báo cũ (trước đây hard-code trong isRequiredField)
+    private static final Set<String> LEGACY_REQUIRED_FIELDS = Set.of("groom_name", "bride_name", "wedding_date");
+
+    private static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd";
+    private static final String DEFAULT_TIME_PATTERN = "HH:mm";
+
+    // Schema không có luật nào: mọi dữ liệu đều hợp lệ
+    public static final TemplateVariableSchema EMPTY = new TemplateVariableSchema(new VariableRule[0], true);
+
+    // Schema của templateVariables không parse được: mọi dữ liệu đều bị từ chối như trước đây
+    private static final TemplateVariableSchema INVALID = new TemplateVariableSchema(new VariableRule[0], false);
+
+    private final VariableRule[] rules;
+    private final boolean parsable;
+
+    private TemplateVariableSchema(VariableRule[] rules, boolean parsable) {
+        this.rules = rules;
+        this.parsable = parsable;
+    }
+
+    public static TemplateVariableSchema compile(String templateVariables) {
+        if (templateVariables == null || templateVariables.trim().isEmpty()) {
+            return EMPTY;
+        }
+
+        try {
+            JsonNode root = OBJECT_MAPPER.readTree(templateVariables);
+            if (root == null || !root.isObject()) {
+                return INVALID;
+            }
+
+            List<VariableRule> rules = new ArrayList<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                rules.add(compileRule(field.getKey(), field.getValue()));
+            }
+            return new TemplateVariableSchema(rules.toArray(new VariableRule[0]), true);
+        } catch (Exception e) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * Kiểm tra dữ liệu user nhập, không cấp phát gì nếu dữ liệu hợp lệ và không có luật ngày/giờ
+     */
+    public boolean isValid(Map<String, String> customData) {
+        if (!parsable || customData == null) {
+            return parsable && rules.length == 0;
+        }
+
+        for (VariableRule rule : rules) {
+            if (!rule.isValid(customData)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static VariableRule compileRule(String name, JsonNode definition) {
+        if (!definition.isObject()) {
+            // Dạng cũ: biến phải có mặt, chỉ các biến mặc định bắt buộc mới không được để trống
+            return new VariableRule(name, true, LEGACY_REQUIRED_FIELDS.contains(name), 0, null, null, null);
+        }
+
+        boolean required = definition.path("required").asBoolean(false);
+        int maxLength = definition.path("maxLength").asInt(0);
+        String format = definition.path("format").asText("");
+        String pattern = definition.path("pattern").asText("");
+
+        DateTimeFormatter dateFormatter = null;
+        DateTimeFormatter timeFormatter = null;
+        if (format.equals("date")) {
+            dateFormatter = DateTimeFormatter.ofPattern(pattern.isEmpty() ? DEFAULT_DATE_PATTERN : pattern);
+        } else if (format.equals("time")) {
+            timeFormatter = DateTimeFormatter.ofPattern(pattern.isEmpty() ? DEFAULT_TIME_PATTERN : pattern);
+        }
+
+        Set<String> allowedValues = null;
+        JsonNode values = definition.path("enum");
+        if (values.isArray()) {
+            allowedValues = new HashSet<>();
+            for (JsonNode value : values) {
+                allowedValues.add(value.asText());
+            }
+        }
+
+        return new VariableRule(name, required, required, maxLength, dateFormatter, timeFormatter, allowedValues);
+    }
+
+    private static final class VariableRule {
+        private final String name;
+        private final boolean mustBePresent;
+        private final boolean notBlank;
+        private final int maxLength;
+        private final DateTimeFormatter dateFormatter;
+        private final DateTimeFormatter timeFormatter;
+        private final Set<String> allowedValues;
+
+        private VariableRule(String name, boolean mustBePresent, boolean notBlank, int maxLength,
+                             DateTimeFormatter dateFormatter, DateTimeFormatter timeFormatter, Set<String> allowedValues) {
+            this.name = name;
+            this.mustBePresent = mustBePresent;
+            this.notBlank = notBlank;
+            this.maxLength = maxLength;
+            this.dateFormatter = dateFormatter;
+            this.timeFormatter = timeFormatter;
+            this.allowedValues = allowedValues;
+        }
+
+        boolean isValid(Map<String, String> customData) {
+            String value = customData.get(name);
+            if (value == null) {
+                return !(notBlank || (mustBePresent && !customData.containsKey(name)));
+            }
+
+            if (isBlank(value)) {
+                // Biến không bắt buộc được phép để trống, bỏ qua các luật định dạng
+                return !notBlank;
+            }
+
+            if (maxLength > 0 && value.length() > maxLength) {
+                return false;
+            }
+            if (allowedValues != null && !allowedValues.contains(value)) {
+                return false;
+            }
+
+            try {
+                if (dateFormatter != null) {
+                    LocalDate.parse(value, dateFormatter);
+                } else if (timeFormatter != null) {
+                    LocalTime.parse(value, timeFormatter);
+                }
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+            return true;
+        }
+
+        private static boolean isBlank(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (!Character.isWhitespace(value.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
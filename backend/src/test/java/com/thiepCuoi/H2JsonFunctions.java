@@ -0,0 +1,30 @@
+package com.thiepCuoi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON_EXTRACT/JSON_UNQUOTE của MySQL cho H2 (khai báo trong h2-mysql-compat.sql), chỉ hỗ trợ đường dẫn dạng $.key
+ */
+public final class H2JsonFunctions {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    private H2JsonFunctions() {
+    }
+    
+    public static String jsonExtract(String json, String path) throws Exception {
+        if (json == null || path == null || !path.startsWith("$.")) {
+            return null;
+        }
+        JsonNode value = MAPPER.readTree(json).get(path.substring(2));
+        return value != null ? value.toString() : null;
+    }
+    
+    public static String jsonUnquote(String value) throws Exception {
+        if (value == null || value.length() < 2 || value.charAt(0) != '"') {
+            return value;
+        }
+        return MAPPER.readValue(value, String.class);
+    }
+}
@@ -0,0 +1,139 @@
+package com.thiepCuoi.api.v1.controller;
+
+import com.thiepCuoi.config.DataLoader;
+import com.thiepCuoi.repository.RefreshTokenRepository;
+import com.thiepCuoi.repository.UserRepository;
+import com.thiepCuoi.repository.entity.User;
+import com.thiepCuoi.security.RefreshTokenCookies;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Refresh token chỉ đi qua cookie HttpOnly, Secure, SameSite=Strict giới hạn ở hai endpoint làm mới/đăng xuất,
+ * không bao giờ nằm trong JSON mà script trên trang đọc được.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthCookieTest {
+
+    private static final List<String> COOKIE_PATHS = List.of("/api/v1/auth/lam_moi_token", "/api/v1/auth/dang_xuat");
+
+    @MockBean
+    private DataLoader dataLoader;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void seed() {
+        refreshTokenRepository.deleteAll();
+        userRepository.findByUsername("cookie_user").ifPresent(userRepository::delete);
+
+        User user = new User();
+        user.setUsername("cookie_user");
+        user.setEmail("cookie_user@thiepcuoi.test");
+        user.setPassword(passwordEncoder.encode("matkhau123"));
+        user.setFullName("Cookie User");
+        user.setRole(User.Role.USER);
+        userRepository.save(user);
+    }
+
+    @Test
+    void loginSetsHttpOnlyRefreshCookieOutsideTheBody() throws Exception {
+        MvcResult result = login();
+
+        assertThat(result.getResponse().getContentAsString()).doesNotContain("refreshToken");
+        assertRefreshCookies(result, false);
+    }
+
+    @Test
+    void refreshRotatesTheCookie() throws Exception {
+        String first = refreshCookieValue(login());
+
+        MvcResult refreshed = mockMvc.perform(post("/api/v1/auth/lam_moi_token")
+                        .cookie(new Cookie(RefreshTokenCookies.NAME, first)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").doesNotExist())
+                .andReturn();
+        assertRefreshCookies(refreshed, false);
+        assertThat(refreshCookieValue(refreshed)).isNotEqualTo(first);
+    }
+
+    @Test
+    void refreshWithoutCookieIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/lam_moi_token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void logoutClearsTheCookieAndRevokesTheSession() throws Exception {
+        String refreshToken = refreshCookieValue(login());
+
+        MvcResult loggedOut = mockMvc.perform(post("/api/v1/auth/dang_xuat")
+                        .cookie(new Cookie(RefreshTokenCookies.NAME, refreshToken)))
+                .andExpect(status().isNoContent())
+                .andReturn();
+        assertRefreshCookies(loggedOut, true);
+
+        mockMvc.perform(post("/api/v1/auth/lam_moi_token")
+                        .cookie(new Cookie(RefreshTokenCookies.NAME, refreshToken)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult login() throws Exception {
+        return mockMvc.perform(post("/api/v1/auth/dang_nhap")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"cookie_user\",\"password\":\"matkhau123\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andReturn();
+    }
+
+    private static void assertRefreshCookies(MvcResult result, boolean cleared) {
+        List<String> cookies = result.getResponse().getHeaders(HttpHeaders.SET_COOKIE);
+        assertThat(cookies).hasSize(COOKIE_PATHS.size());
+        for (int i = 0; i < COOKIE_PATHS.size(); i++) {
+            String cookie = cookies.get(i);
+            assertThat(cookie).startsWith(RefreshTokenCookies.NAME + "=")
+                    .contains("Path=" + COOKIE_PATHS.get(i) + ";")
+                    .contains("HttpOnly", "Secure", "SameSite=Strict")
+                    .contains(cleared ? "Max-Age=0" : "Max-Age=2592000");
+        }
+    }
+
+    private static String refreshCookieValue(MvcResult result) {
+        String cookie = result.getResponse().getHeader(HttpHeaders.SET_COOKIE);
+        String value = cookie.substring(RefreshTokenCookies.NAME.length() + 1, cookie.indexOf(';'));
+        assertThat(value).isNotEmpty();
+        return value;
+    }
+}
@@ -0,0 +1,252 @@
+package com.thiepCuoi.api.v1.controller;
+
+import com.thiepCuoi.config.DataLoader;
+import com.thiepCuoi.config.StatementCounter;
+import com.thiepCuoi.repository.CardTemplateRepository;
+import com.thiepCuoi.repository.CategoryRepository;
+import com.thiepCuoi.repository.CustomInvitationRepository;
+import com.thiepCuoi.repository.CustomizedCardRepository;
+import com.thiepCuoi.repository.OrderItemRepository;
+import com.thiepCuoi.repository.OrderRepository;
+import com.thiepCuoi.repository.TemplateRepository;
+import com.thiepCuoi.repository.UserRepository;
+import com.thiepCuoi.repository.entity.CardTemplate;
+import com.thiepCuoi.repository.entity.Category;
+import com.thiepCuoi.repository.entity.CustomInvitation;
+import com.thiepCuoi.repository.entity.CustomizedCard;
+import com.thiepCuoi.repository.entity.Order;
+import com.thiepCuoi.repository.entity.OrderItem;
+import com.thiepCuoi.repository.entity.Template;
+import com.thiepCuoi.repository.entity.User;
+import com.thiepCuoi.security.JwtProvider;
+import com.thiepCuoi.security.JwtUserPrincipal;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Số câu SQL của các endpoint danh sách/chi tiết không được tăng theo số bản ghi (truy vấn N+1).
+ * Mỗi danh sách có ROWS bản ghi, nhiều hơn ngân sách của endpoint, nên một lazy load trên từng dòng sẽ làm test hỏng.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementCountTest {
+
+    private static final int ROWS = 12;
+
+    @TestConfiguration
+    static class StatementCounterConfig {
+        @Bean
+        HibernatePropertiesCustomizer statementCounterCustomizer() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+        }
+    }
+
+    // Dữ liệu mẫu của DataLoader không cần cho test và làm lệch số bản ghi
+    @MockBean
+    private DataLoader dataLoader;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TemplateRepository templateRepository;
+
+    @Autowired
+    private CardTemplateRepository cardTemplateRepository;
+
+    @Autowired
+    private CustomInvitationRepository customInvitationRepository;
+
+    @Autowired
+    private CustomizedCardRepository customizedCardRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private JwtProvider jwtProvider;
+
+    private Long firstOrderId;
+    private Long firstCardId;
+    private String adminToken;
+    private String customerToken;
+
+    @BeforeEach
+    void seed() {
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        customizedCardRepository.deleteAll();
+        customInvitationRepository.deleteAll();
+        cardTemplateRepository.deleteAll();
+        templateRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User admin = userRepository.save(user("admin", User.Role.ADMIN));
+        User customer = userRepository.save(user("khachhang", User.Role.USER));
+        // Xác thực bằng access token thật để số câu SQL gồm cả bộ lọc JWT
+        adminToken = jwtProvider.generateToken(JwtUserPrincipal.from(admin), "phien-admin");
+        customerToken = jwtProvider.generateToken(JwtUserPrincipal.from(customer), "phien-khachhang");
+
+        // Mỗi mẫu thiệp một danh mục riêng để lazy load danh mục (nếu có) lộ ra theo từng dòng
+        List<Template> templates = new ArrayList<>();
+        List<CardTemplate> cardTemplates = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Category category = new Category();
+            category.setName("Danh mục " + i);
+            category = categoryRepository.save(category);
+
+            Template template = new Template();
+            template.setName("Mẫu " + i);
+            template.setCategory(category);
+            template.setPrice(BigDecimal.valueOf(10000));
+            templates.add(templateRepository.save(template));
+
+            CardTemplate cardTemplate = new CardTemplate();
+            cardTemplate.setTemplate(template);
+            cardTemplate.setTemplateName("Mẫu HTML " + i);
+            cardTemplate.setHtmlContent("<div>{{groom_name}} & {{bride_name}}</div>");
+            cardTemplate.setTemplateVariables("{\"groom_name\": \"Tên chú rể\"}");
+            cardTemplate.setCreatedBy(admin);
+            cardTemplates.add(cardTemplateRepository.save(cardTemplate));
+        }
+
+        List<CustomInvitation> invitations = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            CustomInvitation invitation = new CustomInvitation();
+            invitation.setUser(customer);
+            invitation.setTemplate(templates.get(i));
+            invitation.setGroomName("Chú rể " + i);
+            invitation.setBrideName("Cô dâu " + i);
+            invitation.setWeddingDate(LocalDate.of(2026, 12, 1));
+            invitations.add(customInvitationRepository.save(invitation));
+
+            CustomizedCard card = new CustomizedCard();
+            card.setUser(customer);
+            card.setTemplate(templates.get(i));
+            card.setCardTemplate(cardTemplates.get(i));
+            card.setCustomData("{\"groom_name\": \"Chú rể " + i + "\", \"bride_name\": \"Cô dâu " + i + "\"}");
+            card.setRenderedHtml("<div>Chú rể " + i + "</div>");
+            card.setIsSaved(i % 2 == 0);
+            card = customizedCardRepository.save(card);
+            if (firstCardId == null) {
+                firstCardId = card.getId();
+            }
+        }
+
+        for (int i = 0; i < ROWS; i++) {
+            Order order = new Order();
+            order.setUser(customer);
+            order.setOrderCode("DH-TEST-" + i);
+            order.setTotalAmount(BigDecimal.valueOf(20000));
+            // Mỗi đơn hàng nhiều dòng hàng, mỗi dòng một thiệp khác nhau
+            for (int j = 0; j < 3; j++) {
+                order.getOrderItems().add(new OrderItem(order, invitations.get((i + j) % ROWS), 1, BigDecimal.valueOf(10000)));
+            }
+            order = orderRepository.save(order);
+            if (firstOrderId == null) {
+                firstOrderId = order.getId();
+            }
+        }
+    }
+
+    @Test
+    void allOrdersPageUsesConstantStatements() throws Exception {
+        assertStatements(2, get("/api/v1/orders/all").param("size", String.valueOf(ROWS)), adminToken);
+    }
+
+    @Test
+    void orderDetailUsesConstantStatements() throws Exception {
+        assertStatements(2, get("/api/v1/orders/" + firstOrderId), customerToken);
+    }
+
+    @Test
+    void templatesPageUsesConstantStatements() throws Exception {
+        assertStatements(1, get("/api/v1/templates").param("size", String.valueOf(ROWS)), null);
+    }
+
+    @Test
+    void filteredTemplatesPageUsesConstantStatements() throws Exception {
+        assertStatements(1, get("/api/v1/templates").param("size", String.valueOf(ROWS))
+                .param("keyword", "Mẫu").param("minPrice", "5000").param("maxPrice", "50000"), null);
+    }
+
+    @Test
+    void cardTemplatesPageUsesConstantStatements() throws Exception {
+        assertStatements(1, get("/api/v1/card-templates").param("size", String.valueOf(ROWS)), null);
+    }
+
+    @Test
+    void customizedCardPageUsesConstantStatements() throws Exception {
+        assertStatements(2, get("/api/v1/customized-cards").param("size", String.valueOf(ROWS)), customerToken);
+    }
+
+    @Test
+    void customizedCardSummariesUseConstantStatements() throws Exception {
+        assertStatements(2, get("/api/v1/customized-cards/tom_tat").param("size", String.valueOf(ROWS)), customerToken);
+        assertStatements(2, get("/api/v1/customized-cards/tom_tat").param("savedOnly", "true"), customerToken);
+    }
+
+    @Test
+    void customizedCardDetailLoadsCardOnce() throws Exception {
+        assertStatements(2, get("/api/v1/customized-cards/" + firstCardId), customerToken);
+    }
+
+    private void assertStatements(int budget, MockHttpServletRequestBuilder request, String token) throws Exception {
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        StatementCounter.begin();
+        int count;
+        try {
+            mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").isNotEmpty());
+        } finally {
+            count = StatementCounter.end();
+        }
+        assertThat(count).as("Số câu SQL").isBetween(1, budget);
+    }
+
+    private static User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@thiepcuoi.test");
+        user.setPassword("{noop}matkhau");
+        user.setFullName(username);
+        user.setRole(role);
+        return user;
+    }
+}
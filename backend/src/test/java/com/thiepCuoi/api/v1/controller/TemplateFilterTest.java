@@ -0,0 +1,177 @@
+package com.thiepCuoi.api.v1.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thiepCuoi.config.DataLoader;
+import com.thiepCuoi.model.dto.KeysetPage;
+import com.thiepCuoi.repository.CardTemplateRepository;
+import com.thiepCuoi.repository.CategoryRepository;
+import com.thiepCuoi.repository.CustomInvitationRepository;
+import com.thiepCuoi.repository.CustomizedCardRepository;
+import com.thiepCuoi.repository.OrderItemRepository;
+import com.thiepCuoi.repository.OrderRepository;
+import com.thiepCuoi.repository.TemplateRepository;
+import com.thiepCuoi.repository.entity.Category;
+import com.thiepCuoi.repository.entity.Template;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bộ lọc danh mục, từ khóa và khoảng giá được áp dụng ở server: đi hết các trang với một bộ lọc
+ * phải ra đúng và đủ các mẫu thiệp khớp, không trang nào rỗng khi vẫn còn trang sau.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TemplateFilterTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    @MockBean
+    private DataLoader dataLoader;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TemplateRepository templateRepository;
+
+    @Autowired
+    private CardTemplateRepository cardTemplateRepository;
+
+    @Autowired
+    private CustomInvitationRepository customInvitationRepository;
+
+    @Autowired
+    private CustomizedCardRepository customizedCardRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private final List<Template> templates = new ArrayList<>();
+    private Category hoa;
+    private Category coDien;
+
+    @BeforeEach
+    void seed() {
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        customizedCardRepository.deleteAll();
+        customInvitationRepository.deleteAll();
+        cardTemplateRepository.deleteAll();
+        templateRepository.deleteAll();
+        categoryRepository.deleteAll();
+        templates.clear();
+
+        hoa = categoryRepository.save(category("Hoa"));
+        coDien = categoryRepository.save(category("Cổ điển"));
+
+        // Mẫu khớp bộ lọc nằm rải rác giữa các mẫu không khớp, nhiều hơn một trang
+        for (int i = 0; i < 48; i++) {
+            Template template = new Template();
+            template.setName((i % 3 == 0 ? "Hồng " : "Trắng ") + i);
+            template.setCategory(i % 2 == 0 ? hoa : coDien);
+            template.setPrice(BigDecimal.valueOf(25000L * (i % 6)));
+            template.setIsActive(i % 7 != 6);
+            templates.add(templateRepository.save(template));
+        }
+    }
+
+    @Test
+    void priceRangeCoversEveryMatchingTemplate() throws Exception {
+        assertAllPages(t -> atLeast(t, 50000) && !atLeast(t, 100000), "minPrice", "50000", "maxPrice", "100000");
+        assertAllPages(t -> !atLeast(t, 50000), "maxPrice", "50000");
+        assertAllPages(t -> atLeast(t, 100000), "minPrice", "100000");
+    }
+
+    @Test
+    void keywordAndCategoryAreCombined() throws Exception {
+        assertAllPages(t -> t.getName().contains("Hồng") && t.getCategory().getId().equals(hoa.getId()),
+                "keyword", "Hồng", "categoryId", hoa.getId().toString());
+    }
+
+    @Test
+    void allFiltersAreCombined() throws Exception {
+        assertAllPages(t -> t.getName().contains("Trắng") && t.getCategory().getId().equals(coDien.getId())
+                        && atLeast(t, 25000) && !atLeast(t, 100000),
+                "keyword", "Trắng", "categoryId", coDien.getId().toString(), "minPrice", "25000", "maxPrice", "100000");
+    }
+
+    @Test
+    void singleFiltersKeepWorking() throws Exception {
+        assertAllPages(t -> true);
+        assertAllPages(t -> t.getCategory().getId().equals(hoa.getId()), "categoryId", hoa.getId().toString());
+        assertAllPages(t -> t.getName().contains("Hồng"), "keyword", " Hồng ");
+    }
+
+    // Đi hết các trang theo X-Next-Cursor, so với danh sách mẫu đang bán khớp điều kiện, mới nhất trước
+    private void assertAllPages(Predicate<Template> matches, String... filters) throws Exception {
+        List<Long> expected = new ArrayList<>();
+        for (int i = templates.size() - 1; i >= 0; i--) {
+            Template template = templates.get(i);
+            if (template.getIsActive() && matches.test(template)) {
+                expected.add(template.getId());
+            }
+        }
+        assertThat(expected).as("dữ liệu mẫu phải có nhiều hơn một trang khớp").hasSizeGreaterThan(PAGE_SIZE);
+
+        List<Long> actual = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/v1/templates").param("size", String.valueOf(PAGE_SIZE));
+            for (int i = 0; i < filters.length; i += 2) {
+                request.param(filters[i], filters[i + 1]);
+            }
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            cursor = result.getResponse().getHeader(KeysetPage.NEXT_CURSOR_HEADER);
+            // Trang nào cũng đầy, trừ trang cuối
+            assertThat(page.size()).isPositive();
+            if (cursor != null) {
+                assertThat(page.size()).isEqualTo(PAGE_SIZE);
+            }
+            page.forEach(node -> actual.add(node.get("id").asLong()));
+        } while (cursor != null);
+
+        assertThat(actual).as("bộ lọc %s", String.join(",", filters)).isEqualTo(expected);
+    }
+
+    private static boolean atLeast(Template template, long price) {
+        return template.getPrice().compareTo(BigDecimal.valueOf(price)) >= 0;
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return category;
+    }
+}
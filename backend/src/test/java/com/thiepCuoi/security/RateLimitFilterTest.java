@@ -0,0 +1,80 @@
+package com.thiepCuoi.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Luật giới hạn tần suất phải khớp mọi cách viết đường dẫn mà Spring MVC định tuyến tới cùng một handler.
+ */
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "meterRegistry", new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "ruleSpecs", List.of(
+                "POST /api/v1/auth/dang_nhap=2/60",
+                "POST /api/v1/customized-cards/render=2/60"));
+        filter.init();
+    }
+
+    @Test
+    void plainPathIsLimited() throws Exception {
+        assertThat(post("/api/v1/auth/dang_nhap")).isEqualTo(HttpStatus.OK.value());
+        assertThat(post("/api/v1/auth/dang_nhap")).isEqualTo(HttpStatus.OK.value());
+        assertThat(post("/api/v1/auth/dang_nhap")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void encodedPathSharesTheLimit() throws Exception {
+        assertThat(post("/api/v1/auth/dang_nhap")).isEqualTo(HttpStatus.OK.value());
+        assertThat(post("/api/v1/auth/dang%5Fnhap")).isEqualTo(HttpStatus.OK.value());
+        assertThat(post("/api/v1/auth/dang%5fnhap")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void encodedAndParameterizedPathsAreLimited() throws Exception {
+        assertThat(post("/api/v1/customized-cards/rende%72")).isEqualTo(HttpStatus.OK.value());
+        assertThat(post("/api/v1/customized-cards/render;jsessionid=x")).isEqualTo(HttpStatus.OK.value());
+        assertThat(post("/api/v1/customized-cards/rende%72")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void contextPathIsIgnored() throws Exception {
+        MockHttpServletRequest request = request("/app/api/v1/auth/dang%5Fnhap");
+        request.setContextPath("/app");
+        assertThat(perform(request)).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform(request)).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform(request)).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private int post(String requestUri) throws Exception {
+        return perform(request(requestUri));
+    }
+
+    private static MockHttpServletRequest request(String requestUri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", requestUri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private int perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,135 @@
+package com.thiepCuoi.service.impl;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * rerender ghép lại output cũ dựa trên escapedLength, nên với mọi ngữ cảnh escape kết quả phải trùng từng ký tự với render.
+ * Output cũ không khớp dữ liệu cũ phải rơi về render toàn bộ thay vì ghép sai vị trí.
+ */
+class CompiledTemplateTest {
+
+    // Giá trị thử: ký tự cần escape ở từng ngữ cảnh, cặp surrogate, scheme URL bị chặn, chuỗi rỗng và null
+    private static final List<String> VALUES = Arrays.asList(
+            null,
+            "",
+            "Minh & Lan",
+            "\"Hà Nội\" <3 = 😀\t/`'",
+            "javascript:alert(1)",
+            "https://ví-dụ.vn/a b?c=d&e=f",
+            "#ff0000",
+            "Đà Lạt, 20%");
+
+    // Escape khác nhau ở mọi ngữ cảnh, dùng để kiểm tra placeholder {{a}} thực sự nằm trong ngữ cảnh mong đợi
+    private static final String PROBE = "x:y <b>";
+
+    static Stream<Arguments> templates() {
+        return Stream.of(
+                Arguments.of(EscapeContext.HTML_TEXT,
+                        CompiledTemplate.parseHtml("<p>{{a}} và {{b}}</p><p>{{ a }}</p>")),
+                Arguments.of(EscapeContext.HTML_ATTRIBUTE,
+                        CompiledTemplate.parseHtml("<div title=\"{{a}}\" data-x='{{b}}'>x</div><i class={{a}}></i>")),
+                Arguments.of(EscapeContext.URL,
+                        CompiledTemplate.parseHtml("<a href=\"{{a}}\">{{b}}</a><img src=\"{{a}}\">")),
+                Arguments.of(EscapeContext.URL_PARAMETER,
+                        CompiledTemplate.parseHtml("<a href=\"https://maps.example/?q={{a}}&z={{b}}\">{{b}}</a><a href=\"/tim/{{a}}\">y</a>")),
+                Arguments.of(EscapeContext.CSS,
+                        CompiledTemplate.parseHtml("<div style=\"color: {{a}}; background: {{b}}\">{{b}}</div>")),
+                Arguments.of(EscapeContext.CSS,
+                        CompiledTemplate.parseHtml("<style>.x { color: {{a}}; font-family: {{b}}; }</style><p>{{b}}</p>")),
+                Arguments.of(EscapeContext.CSS,
+                        CompiledTemplate.parseCss(".card { color: {{a}}; border-color: {{a}}; font-family: {{b}}; }")));
+    }
+
+    @ParameterizedTest
+    @MethodSource("templates")
+    void placeholderUsesExpectedContext(EscapeContext context, CompiledTemplate template) {
+        assertThat(template.render(data(PROBE, null))).contains(context.escape(PROBE));
+    }
+
+    @ParameterizedTest
+    @MethodSource("templates")
+    void unchangedDataReturnsPreviousOutput(EscapeContext context, CompiledTemplate template) {
+        for (String value : VALUES) {
+            Map<String, String> data = data(value, "Minh & Lan");
+            String previous = template.render(data);
+            // Biến template không dùng thay đổi cũng không làm render lại
+            Map<String, String> next = new HashMap<>(data);
+            next.put("khong_dung", "khác");
+
+            assertThat(template.rerender(previous, data, new HashMap<>(data))).isSameAs(previous);
+            assertThat(template.rerender(previous, data, next)).isSameAs(previous);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("templates")
+    void rerenderMatchesFullRender(EscapeContext context, CompiledTemplate template) {
+        // Mọi cặp (cũ, mới): giữ nguyên, đổi giá trị, null -> giá trị, giá trị -> null; b đổi hoặc giữ nguyên cùng lúc
+        for (String oldA : VALUES) {
+            for (String newA : VALUES) {
+                for (String[] b : bPairs()) {
+                    Map<String, String> previousData = data(oldA, b[0]);
+                    Map<String, String> customData = data(newA, b[1]);
+                    String previous = template.render(previousData);
+
+                    assertThat(template.rerender(previous, previousData, customData))
+                            .as("a: %s -> %s, b: %s -> %s", oldA, newA, b[0], b[1])
+                            .isEqualTo(template.render(customData));
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("templates")
+    void misalignedPreviousOutputFallsBackToFullRender(EscapeContext context, CompiledTemplate template) {
+        Map<String, String> previousData = data("Minh & Lan", "#ff0000");
+        Map<String, String> customData = data("\"Hà Nội\" <3 = 😀\t/`'", "#ff0000");
+        String expected = template.render(customData);
+        String previous = template.render(previousData);
+
+        List<String> misaligned = new ArrayList<>();
+        // Output cũ dài hơn, bị cắt bớt, hoặc được render từ dữ liệu khác với previousData
+        misaligned.add(previous + "<!-- thừa -->");
+        misaligned.add(previous.substring(0, previous.length() - 3));
+        misaligned.add(template.render(data("Một giá trị dài hơn hẳn giá trị cũ & có ký tự cần escape <>", "#ff0000")));
+        misaligned.add(template.render(data(null, null)));
+        misaligned.add("");
+
+        for (String output : misaligned) {
+            assertThat(template.rerender(output, previousData, customData))
+                    .as("output cũ: %s", output)
+                    .isEqualTo(expected);
+        }
+    }
+
+    private static List<String[]> bPairs() {
+        return List.of(
+                new String[] {"#ff0000", "#ff0000"},
+                new String[] {"#ff0000", "Đà Lạt, 20%"},
+                new String[] {null, "Minh & Lan"},
+                new String[] {"Minh & Lan", null});
+    }
+
+    private static Map<String, String> data(String a, String b) {
+        Map<String, String> data = new HashMap<>();
+        if (a != null) {
+            data.put("a", a);
+        }
+        if (b != null) {
+            data.put("b", b);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,6 @@
+-- H2 không có JSON_EXTRACT/JSON_UNQUOTE của MySQL, và cột kiểu JSON của H2 lưu chuỗi JSON dưới dạng chuỗi được trích dẫn lại.
+-- Lưu các cột JSON dạng CLOB và khai báo hai hàm bằng Java để các truy vấn tóm tắt chạy giống trên MySQL.
+ALTER TABLE customized_cards ALTER COLUMN custom_data SET DATA TYPE CLOB;
+ALTER TABLE card_templates ALTER COLUMN template_variables SET DATA TYPE CLOB;
+CREATE ALIAS IF NOT EXISTS JSON_EXTRACT FOR 'com.thiepCuoi.H2JsonFunctions.jsonExtract';
+CREATE ALIAS IF NOT EXISTS JSON_UNQUOTE FOR 'com.thiepCuoi.H2JsonFunctions.jsonUnquote';
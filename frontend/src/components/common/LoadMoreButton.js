@@ -0,0 +1,24 @@
+import React from 'react';
+import { Button, Spinner } from 'react-bootstrap';
+
+// Nút tải trang tiếp theo của danh sách phân trang (xem hooks/useCursorPages)
+const LoadMoreButton = ({ hasMore, loading, onClick, className = 'text-center mt-4' }) => {
+    if (!hasMore) return null;
+
+    return (
+        <div className={className}>
+            <Button variant="outline-primary" onClick={onClick} disabled={loading}>
+                {loading ? (
+                    <>
+                        <Spinner animation="border" size="sm" className="me-2" />
+                        Đang tải...
+                    </>
+                ) : (
+                    'Xem thêm'
+                )}
+            </Button>
+        </div>
+    );
+};
+
+export default LoadMoreButton;
@@ -20,6 +20,14 @@ export const AuthProvider = ({ children }) => {
 
     // Kiểm tra token khi component mount
     useEffect(() => {
+        // Access token chỉ sống ngắn; apiService tự làm mới bằng cookie refresh_token (HttpOnly) và báo lại để lưu access token
+        apiService.onTokensRefreshed((newToken) => {
+            Cookies.set('token', newToken, { expires: 7 });
+            setToken(newToken);
+        });
+        // Bản cũ lưu refresh token trong cookie đọc được bằng script
+        Cookies.remove('refreshToken');
+
         const initAuth = async () => {
             const savedToken = Cookies.get('token');
             if (savedToken) {
@@ -45,7 +53,7 @@ export const AuthProvider = ({ children }) => {
             const response = await apiService.login(credentials);
             const { token: newToken, user: userData } = response.data;
             
-            // Lưu token vào cookie (expires in 7 days)
+            // Lưu token vào cookie (expires in 7 days); refresh token do server đặt trong cookie HttpOnly
             Cookies.set('token', newToken, { expires: 7 });
             
             // Set token cho api service
@@ -78,6 +86,8 @@ export const AuthProvider = ({ children }) => {
 
     // Đăng xuất
     const logout = () => {
+        // Thu hồi phiên trên server và xóa cookie refresh_token, không chờ kết quả
+        apiService.logout().catch(() => {});
         Cookies.remove('token');
         apiService.removeAuthToken();
         setToken(null);
@@ -0,0 +1,67 @@
+import { useState, useEffect, useCallback, useRef } from 'react';
+import apiService from '../services/apiService';
+
+// Danh sách phân trang keyset: tải trang đầu, các trang sau chỉ được tải khi gọi loadMore
+// (nút "Xem thêm"), cursor lấy từ header X-Next-Cursor của trang trước.
+// fetchPage nhận { cursor, size } và trả về response của axios; deps thay đổi thì tải lại từ trang đầu.
+const useCursorPages = (fetchPage, deps = [], pageSize = 20) => {
+    const [items, setItems] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [error, setError] = useState(null);
+
+    const fetchPageRef = useRef(fetchPage);
+    fetchPageRef.current = fetchPage;
+
+    // Bỏ qua kết quả của lần tải cũ khi danh sách đã được tải lại (đổi bộ lọc, làm mới)
+    const generation = useRef(0);
+
+    const reload = useCallback(async () => {
+        const current = ++generation.current;
+        setLoading(true);
+        setError(null);
+        try {
+            const response = await fetchPageRef.current({ size: pageSize });
+            if (current !== generation.current) return;
+            setItems(response.data);
+            setNextCursor(apiService.getNextCursor(response));
+        } catch (err) {
+            if (current === generation.current) {
+                setItems([]);
+                setNextCursor(null);
+                setError(err);
+            }
+        } finally {
+            if (current === generation.current) {
+                setLoading(false);
+            }
+        }
+    }, [pageSize]);
+
+    const loadMore = useCallback(async () => {
+        if (!nextCursor || loadingMore) return;
+        const current = generation.current;
+        setLoadingMore(true);
+        try {
+            const response = await fetchPageRef.current({ size: pageSize, cursor: nextCursor });
+            if (current !== generation.current) return;
+            setItems(prev => [...prev, ...response.data]);
+            setNextCursor(apiService.getNextCursor(response));
+        } catch (err) {
+            if (current === generation.current) {
+                setError(err);
+            }
+        } finally {
+            setLoadingMore(false);
+        }
+    }, [nextCursor, loadingMore, pageSize]);
+
+    useEffect(() => {
+        reload();
+    }, deps); // eslint-disable-line react-hooks/exhaustive-deps
+
+    return { items, loading, loadingMore, hasMore: nextCursor !== null, loadMore, reload, error };
+};
+
+export default useCursorPages;
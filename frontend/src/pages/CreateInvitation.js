@@ -3,44 +3,48 @@ import { Container, Row, Col, Card, Button, Form, Spinner, Alert, Badge } from '
 import { Link, useNavigate } from 'react-router-dom';
 import { FiImage, FiArrowRight, FiSearch, FiFilter } from 'react-icons/fi';
 import apiService from '../services/apiService';
+import useCursorPages from '../hooks/useCursorPages';
+import LoadMoreButton from '../components/common/LoadMoreButton';
 import { formatPrice } from '../utils/helpers';
 
 const CreateInvitation = () => {
     const navigate = useNavigate();
-    const [templates, setTemplates] = useState([]);
     const [categories, setCategories] = useState([]);
-    const [loading, setLoading] = useState(true);
-    const [error, setError] = useState('');
+    const [categoriesError, setCategoriesError] = useState(false);
     const [searchTerm, setSearchTerm] = useState('');
     const [selectedCategory, setSelectedCategory] = useState('');
 
+    // Từ khóa tìm kiếm sau khi người dùng ngừng gõ 500ms
+    const [debouncedSearch, setDebouncedSearch] = useState('');
+
+    // Mẫu thiệp theo từng trang; tìm kiếm và lọc danh mục được thực hiện ở server, đổi bộ lọc thì tải lại từ trang đầu
+    const templatePages = useCursorPages(params => apiService.getTemplates({
+        ...params,
+        categoryId: selectedCategory || undefined,
+        keyword: debouncedSearch || undefined
+    }), [selectedCategory, debouncedSearch]);
+    const templates = templatePages.items;
+    const loading = templatePages.loading;
+    const error = templatePages.error || categoriesError ? 'Không thể tải dữ liệu. Vui lòng thử lại.' : '';
+
     useEffect(() => {
         loadData();
     }, []);
 
+    useEffect(() => {
+        const timer = setTimeout(() => setDebouncedSearch(searchTerm.trim()), 500);
+        return () => clearTimeout(timer);
+    }, [searchTerm]);
+
     const loadData = async () => {
         try {
-            setLoading(true);
-            const [templatesRes, categoriesRes] = await Promise.all([
-                apiService.getTemplates(),
-                apiService.getCategories()
-            ]);
-            setTemplates(templatesRes.data);
+            const categoriesRes = await apiService.getCategories();
             setCategories(categoriesRes.data);
         } catch (error) {
-            setError('Không thể tải dữ liệu. Vui lòng thử lại.');
-        } finally {
-            setLoading(false);
+            setCategoriesError(true);
         }
     };
 
-    const filteredTemplates = templates.filter(template => {
-        const matchesSearch = template.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-                             template.description?.toLowerCase().includes(searchTerm.toLowerCase());
-        const matchesCategory = !selectedCategory || template.categoryId.toString() === selectedCategory;
-        return matchesSearch && matchesCategory && template.isActive;
-    });
-
     const handleTemplateSelect = (template) => {
         // Đi thẳng đến tùy chỉnh thiệp cơ bản
         navigate(`/custom-invitation/${template.id}`);
@@ -51,17 +55,6 @@ const CreateInvitation = () => {
         return category ? category.name : 'Không xác định';
     };
 
-    if (loading) {
-        return (
-            <Container className="py-5" style={{marginTop: '80px'}}>
-                <div className="text-center py-5">
-                    <Spinner animation="border" variant="primary" />
-                    <p className="mt-3">Đang tải mẫu thiệp...</p>
-                </div>
-            </Container>
-        );
-    }
-
     return (
         <Container className="py-4" style={{marginTop: '80px'}}>
             {/* Header */}
@@ -115,8 +108,13 @@ const CreateInvitation = () => {
 
             {error && <Alert variant="danger">{error}</Alert>}
 
-            {/* Templates Grid */}
-            {filteredTemplates.length === 0 ? (
+            {/* Templates Grid: bộ lọc vẫn hiển thị khi đang tải lại theo bộ lọc mới */}
+            {loading ? (
+                <div className="text-center py-5">
+                    <Spinner animation="border" variant="primary" />
+                    <p className="mt-3">Đang tải mẫu thiệp...</p>
+                </div>
+            ) : templates.length === 0 ? (
                 <div className="text-center py-5">
                     <div className="fs-1 mb-3">😔</div>
                     <h4>Không tìm thấy mẫu thiệp nào</h4>
@@ -124,7 +122,7 @@ const CreateInvitation = () => {
                 </div>
             ) : (
                 <Row className="g-4">
-                    {filteredTemplates.map((template) => (
+                    {templates.map((template) => (
                         <Col key={template.id} xs={12} sm={6} lg={4} xl={3}>
                             <Card className="h-100 border-0 shadow-sm template-card">
                                 <div 
@@ -176,6 +174,10 @@ const CreateInvitation = () => {
                 </Row>
             )}
 
+            {!loading && (
+                <LoadMoreButton hasMore={templatePages.hasMore} loading={templatePages.loadingMore} onClick={templatePages.loadMore} />
+            )}
+
             <style jsx>{`
                 .template-card:hover {
                     transform: translateY(-5px);
@@ -5,6 +5,8 @@ import { useForm } from 'react-hook-form';
 import DatePicker from 'react-datepicker';
 import { FiSave, FiShoppingCart, FiArrowLeft, FiEye, FiCode } from 'react-icons/fi';
 import apiService from '../services/apiService';
+import useCursorPages from '../hooks/useCursorPages';
+import LoadMoreButton from '../components/common/LoadMoreButton';
 import { useCart } from '../contexts/CartContext';
 import { formatPrice, formatDate, formatTime } from '../utils/helpers';
 import { toast } from 'react-toastify';
@@ -15,9 +17,14 @@ const CustomCardEditor = () => {
     const navigate = useNavigate();
     const { addToCart } = useCart();
     const [template, setTemplate] = useState(null);
-    const [cardTemplates, setCardTemplates] = useState([]);
+    const cardTemplatePages = useCursorPages(
+        params => apiService.getCardTemplatesByTemplateId(templateId, params),
+        [templateId]
+    );
+    const cardTemplates = cardTemplatePages.items;
     const [selectedCardTemplate, setSelectedCardTemplate] = useState(null);
-    const [loading, setLoading] = useState(true);
+    const [templateLoading, setTemplateLoading] = useState(true);
+    const loading = templateLoading || cardTemplatePages.loading;
     const [saving, setSaving] = useState(false);
     const [error, setError] = useState('');
     const [weddingDate, setWeddingDate] = useState(null);
@@ -37,6 +44,13 @@ const CustomCardEditor = () => {
         fetchTemplateData();
     }, [templateId]);
 
+    // Auto select first card template if available
+    useEffect(() => {
+        if (!cardTemplatePages.loading) {
+            setSelectedCardTemplate(cardTemplates.length > 0 ? cardTemplates[0] : null);
+        }
+    }, [cardTemplatePages.loading]); // eslint-disable-line react-hooks/exhaustive-deps
+
     useEffect(() => {
         if (selectedCardTemplate && watchedFields.groomName && watchedFields.brideName) {
             previewCard();
@@ -45,26 +59,16 @@ const CustomCardEditor = () => {
 
     const fetchTemplateData = async () => {
         try {
-            setLoading(true);
+            setTemplateLoading(true);
             setError('');
             
-            const [templateResponse, cardTemplatesResponse] = await Promise.all([
-                apiService.getTemplateById(templateId),
-                apiService.getCardTemplatesByTemplateId(templateId)
-            ]);
-            
+            const templateResponse = await apiService.getTemplateById(templateId);
             setTemplate(templateResponse.data);
-            setCardTemplates(cardTemplatesResponse.data);
-            
-            // Auto select first card template if available
-            if (cardTemplatesResponse.data.length > 0) {
-                setSelectedCardTemplate(cardTemplatesResponse.data[0]);
-            }
         } catch (error) {
             setError('Không thể tải thông tin mẫu thiệp. Vui lòng thử lại.');
             console.error('Error fetching template data:', error);
         } finally {
-            setLoading(false);
+            setTemplateLoading(false);
         }
     };
 
@@ -210,11 +214,13 @@ const CustomCardEditor = () => {
         );
     }
 
-    if (error || !template) {
+    const loadError = error || (cardTemplatePages.error ? 'Không thể tải thông tin mẫu thiệp. Vui lòng thử lại.' : '');
+
+    if (loadError || !template) {
         return (
             <Container className="py-5" style={{marginTop: '80px'}}>
                 <Alert variant="danger">
-                    {error || 'Không tìm thấy mẫu thiệp này'}
+                    {loadError || 'Không tìm thấy mẫu thiệp này'}
                 </Alert>
                 <Button as={Link} to="/templates" variant="primary">
                     <FiArrowLeft className="me-2" />
@@ -291,6 +297,12 @@ const CustomCardEditor = () => {
                                         </Col>
                                     ))}
                                 </Row>
+                                <LoadMoreButton
+                                    className="text-center mt-3"
+                                    hasMore={cardTemplatePages.hasMore}
+                                    loading={cardTemplatePages.loadingMore}
+                                    onClick={cardTemplatePages.loadMore}
+                                />
                             </div>
                             
                             <Form onSubmit={handleSubmit(onSubmit)}>
@@ -3,6 +3,8 @@ import { Container, Row, Col, Card, Button, Badge, Spinner, Alert, Modal, Tab, T
 import { Link, useLocation } from 'react-router-dom';
 import { FiEdit3, FiTrash2, FiShoppingCart, FiHeart, FiEye, FiPlus, FiCode } from 'react-icons/fi';
 import apiService from '../services/apiService';
+import useCursorPages from '../hooks/useCursorPages';
+import LoadMoreButton from '../components/common/LoadMoreButton';
 import { useCart } from '../contexts/CartContext';
 import { formatPrice, formatDate, formatTime, formatWeddingNames } from '../utils/helpers';
 import { toast } from 'react-toastify';
@@ -10,17 +12,16 @@ import { toast } from 'react-toastify';
 const MyCustomizedCards = () => {
     const location = useLocation();
     const { addToCart } = useCart();
-    const [allCards, setAllCards] = useState([]);
-    const [savedCards, setSavedCards] = useState([]);
-    const [loading, setLoading] = useState(true);
-    const [error, setError] = useState('');
+    // Danh sách chỉ cần thông tin tóm tắt, HTML/CSS của thiệp được tải khi xem hoặc thêm vào giỏ
+    const allCards = useCursorPages(params => apiService.getUserCardSummaries(params));
+    const savedCards = useCursorPages(params => apiService.getUserCardSummaries({ ...params, savedOnly: true }));
+    const loading = allCards.loading || savedCards.loading;
+    const error = allCards.error || savedCards.error ? 'Không thể tải danh sách thiệp. Vui lòng thử lại.' : '';
     const [deleteModal, setDeleteModal] = useState({ show: false, card: null });
     const [previewModal, setPreviewModal] = useState({ show: false, card: null });
     const [activeTab, setActiveTab] = useState('all');
 
     useEffect(() => {
-        fetchCustomizedCards();
-        
         // Handle redirect from card editor
         if (location.state?.newCard) {
             toast.success('Thiệp HTML đã được tạo thành công!');
@@ -32,26 +33,15 @@ const MyCustomizedCards = () => {
         }
     }, [location.state]);
 
-    const fetchCustomizedCards = async () => {
-        try {
-            setLoading(true);
-            setError('');
-            
-            const [allResponse, savedResponse] = await Promise.all([
-                apiService.getUserCustomizedCards(),
-                apiService.getUserSavedCards()
-            ]);
-            
-            setAllCards(allResponse.data);
-            setSavedCards(savedResponse.data);
-        } catch (error) {
-            setError('Không thể tải danh sách thiệp. Vui lòng thử lại.');
-            console.error('Error fetching customized cards:', error);
-        } finally {
-            setLoading(false);
-        }
+    // Tải lại cả hai tab từ trang đầu sau khi lưu/xóa thiệp
+    const fetchCustomizedCards = () => {
+        allCards.reload();
+        savedCards.reload();
     };
 
+    // Số thiệp đã tải, kèm "+" khi còn trang sau
+    const tabCount = (list) => `${list.items.length}${list.hasMore ? '+' : ''}`;
+
     const handleSaveCard = async (card) => {
         try {
             await apiService.saveCustomizedCard(card.id);
@@ -77,7 +67,21 @@ const MyCustomizedCards = () => {
         }
     };
 
-    const handleAddToCart = (card) => {
+    // Thiệp đầy đủ (kèm HTML/CSS đã render) theo id, danh sách chỉ có bản tóm tắt
+    const loadFullCard = async (card) => {
+        const response = await apiService.getCustomizedCardById(card.id);
+        return response.data;
+    };
+
+    const handleAddToCart = async (summary) => {
+        let card;
+        try {
+            card = summary.renderedHtml ? summary : await loadFullCard(summary);
+        } catch (error) {
+            toast.error('Không thể tải thiệp. Vui lòng thử lại.');
+            console.error('Error loading card:', error);
+            return;
+        }
         const cartItem = {
             id: card.id,
             templateId: card.templateId,
@@ -95,8 +99,14 @@ const MyCustomizedCards = () => {
         addToCart(cartItem, 1);
     };
 
-    const handlePreview = (card) => {
-        setPreviewModal({ show: true, card });
+    const handlePreview = async (summary) => {
+        try {
+            const card = await loadFullCard(summary);
+            setPreviewModal({ show: true, card });
+        } catch (error) {
+            toast.error('Không thể tải thiệp. Vui lòng thử lại.');
+            console.error('Error loading card:', error);
+        }
     };
 
     const CustomizedCardComponent = ({ card, showSaveButton = false }) => (
@@ -105,17 +115,13 @@ const MyCustomizedCards = () => {
                 className="card-img-top bg-light d-flex align-items-center justify-content-center position-relative"
                 style={{height: '200px', overflow: 'hidden'}}
             >
-                {card.renderedHtml ? (
-                    <div className="w-100 h-100" style={{transform: 'scale(0.6)', pointerEvents: 'none'}}>
-                        {card.renderedCss && (
-                            <style dangerouslySetInnerHTML={{ __html: card.renderedCss }} />
-                        )}
-                        <div 
-                            dangerouslySetInnerHTML={{ 
-                                __html: card.renderedHtml 
-                            }} 
-                        />
-                    </div>
+                {card.generatedImageUrl ? (
+                    <img 
+                        src={card.generatedImageUrl} 
+                        alt={formatWeddingNames(card.groomName, card.brideName)}
+                        className="w-100 h-100"
+                        style={{objectFit: 'cover'}}
+                    />
                 ) : (
                     <div className="text-center text-muted p-3">
                         <div className="fs-1 mb-2">📄</div>
@@ -259,8 +265,8 @@ const MyCustomizedCards = () => {
                 onSelect={setActiveTab}
                 className="mb-4"
             >
-                <Tab eventKey="all" title={`Tất cả (${allCards.length})`}>
-                    {allCards.length === 0 ? (
+                <Tab eventKey="all" title={`Tất cả (${tabCount(allCards)})`}>
+                    {allCards.items.length === 0 ? (
                         <div className="text-center py-5">
                             <div className="fs-1 mb-3">📄</div>
                             <h4>Chưa có thiệp HTML nào</h4>
@@ -273,18 +279,21 @@ const MyCustomizedCards = () => {
                             </Button>
                         </div>
                     ) : (
-                        <Row className="g-4">
-                            {allCards.map((card) => (
-                                <Col md={6} lg={4} key={card.id}>
-                                    <CustomizedCardComponent card={card} showSaveButton />
-                                </Col>
-                            ))}
-                        </Row>
+                        <>
+                            <Row className="g-4">
+                                {allCards.items.map((card) => (
+                                    <Col md={6} lg={4} key={card.id}>
+                                        <CustomizedCardComponent card={card} showSaveButton />
+                                    </Col>
+                                ))}
+                            </Row>
+                            <LoadMoreButton hasMore={allCards.hasMore} loading={allCards.loadingMore} onClick={allCards.loadMore} />
+                        </>
                     )}
                 </Tab>
                 
-                <Tab eventKey="saved" title={`Đã lưu (${savedCards.length})`}>
-                    {savedCards.length === 0 ? (
+                <Tab eventKey="saved" title={`Đã lưu (${tabCount(savedCards)})`}>
+                    {savedCards.items.length === 0 ? (
                         <div className="text-center py-5">
                             <div className="fs-1 mb-3">❤️</div>
                             <h4>Chưa có thiệp yêu thích</h4>
@@ -293,13 +302,16 @@ const MyCustomizedCards = () => {
                             </p>
                         </div>
                     ) : (
-                        <Row className="g-4">
-                            {savedCards.map((card) => (
-                                <Col md={6} lg={4} key={card.id}>
-                                    <CustomizedCardComponent card={card} />
-                                </Col>
-                            ))}
-                        </Row>
+                        <>
+                            <Row className="g-4">
+                                {savedCards.items.map((card) => (
+                                    <Col md={6} lg={4} key={card.id}>
+                                        <CustomizedCardComponent card={card} />
+                                    </Col>
+                                ))}
+                            </Row>
+                            <LoadMoreButton hasMore={savedCards.hasMore} loading={savedCards.loadingMore} onClick={savedCards.loadMore} />
+                        </>
                     )}
                 </Tab>
             </Tabs>
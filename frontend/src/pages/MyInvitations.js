@@ -3,6 +3,8 @@ import { Container, Row, Col, Card, Button, Badge, Spinner, Alert, Modal, Tab, T
 import { Link, useLocation } from 'react-router-dom';
 import { FiEdit3, FiTrash2, FiShoppingCart, FiHeart, FiEye, FiPlus } from 'react-icons/fi';
 import apiService from '../services/apiService';
+import useCursorPages from '../hooks/useCursorPages';
+import LoadMoreButton from '../components/common/LoadMoreButton';
 import { useCart } from '../contexts/CartContext';
 import { formatPrice, formatDate, formatTime, formatWeddingNames } from '../utils/helpers';
 import { toast } from 'react-toastify';
@@ -10,16 +12,14 @@ import { toast } from 'react-toastify';
 const MyInvitations = () => {
     const location = useLocation();
     const { addToCart } = useCart();
-    const [allInvitations, setAllInvitations] = useState([]);
-    const [savedInvitations, setSavedInvitations] = useState([]);
-    const [loading, setLoading] = useState(true);
-    const [error, setError] = useState('');
+    const allInvitations = useCursorPages(params => apiService.getUserInvitations(params));
+    const savedInvitations = useCursorPages(params => apiService.getUserSavedInvitations(params));
+    const loading = allInvitations.loading || savedInvitations.loading;
+    const error = allInvitations.error || savedInvitations.error ? 'Không thể tải danh sách thiệp. Vui lòng thử lại.' : '';
     const [deleteModal, setDeleteModal] = useState({ show: false, invitation: null });
     const [activeTab, setActiveTab] = useState('all');
 
     useEffect(() => {
-        fetchInvitations();
-        
         // Handle redirect from custom invitation creation
         if (location.state?.newInvitation) {
             toast.success('Thiệp đã được tạo thành công!');
@@ -31,26 +31,15 @@ const MyInvitations = () => {
         }
     }, [location.state]);
 
-    const fetchInvitations = async () => {
-        try {
-            setLoading(true);
-            setError('');
-            
-            const [allResponse, savedResponse] = await Promise.all([
-                apiService.getUserInvitations(),
-                apiService.getUserSavedInvitations()
-            ]);
-            
-            setAllInvitations(allResponse.data);
-            setSavedInvitations(savedResponse.data);
-        } catch (error) {
-            setError('Không thể tải danh sách thiệp. Vui lòng thử lại.');
-            console.error('Error fetching invitations:', error);
-        } finally {
-            setLoading(false);
-        }
+    // Tải lại cả hai tab từ trang đầu sau khi lưu/xóa thiệp
+    const fetchInvitations = () => {
+        allInvitations.reload();
+        savedInvitations.reload();
     };
 
+    // Số thiệp đã tải, kèm "+" khi còn trang sau
+    const tabCount = (list) => `${list.items.length}${list.hasMore ? '+' : ''}`;
+
     const handleSaveInvitation = async (invitation) => {
         try {
             await apiService.saveCustomInvitation(invitation.id);
@@ -232,8 +221,8 @@ const MyInvitations = () => {
                 onSelect={setActiveTab}
                 className="mb-4"
             >
-                <Tab eventKey="all" title={`Tất cả (${allInvitations.length})`}>
-                    {allInvitations.length === 0 ? (
+                <Tab eventKey="all" title={`Tất cả (${tabCount(allInvitations)})`}>
+                    {allInvitations.items.length === 0 ? (
                         <div className="text-center py-5">
                             <div className="fs-1 mb-3">💌</div>
                             <h4>Chưa có thiệp nào</h4>
@@ -246,18 +235,21 @@ const MyInvitations = () => {
                             </Button>
                         </div>
                     ) : (
-                        <Row className="g-4">
-                            {allInvitations.map((invitation) => (
-                                <Col md={6} lg={4} key={invitation.id}>
-                                    <InvitationCard invitation={invitation} showSaveButton />
-                                </Col>
-                            ))}
-                        </Row>
+                        <>
+                            <Row className="g-4">
+                                {allInvitations.items.map((invitation) => (
+                                    <Col md={6} lg={4} key={invitation.id}>
+                                        <InvitationCard invitation={invitation} showSaveButton />
+                                    </Col>
+                                ))}
+                            </Row>
+                            <LoadMoreButton hasMore={allInvitations.hasMore} loading={allInvitations.loadingMore} onClick={allInvitations.loadMore} />
+                        </>
                     )}
                 </Tab>
                 
-                <Tab eventKey="saved" title={`Đã lưu (${savedInvitations.length})`}>
-                    {savedInvitations.length === 0 ? (
+                <Tab eventKey="saved" title={`Đã lưu (${tabCount(savedInvitations)})`}>
+                    {savedInvitations.items.length === 0 ? (
                         <div className="text-center py-5">
                             <div className="fs-1 mb-3">❤️</div>
                             <h4>Chưa có thiệp yêu thích</h4>
@@ -266,13 +258,16 @@ const MyInvitations = () => {
                             </p>
                         </div>
                     ) : (
-                        <Row className="g-4">
-                            {savedInvitations.map((invitation) => (
-                                <Col md={6} lg={4} key={invitation.id}>
-                                    <InvitationCard invitation={invitation} />
-                                </Col>
-                            ))}
-                        </Row>
+                        <>
+                            <Row className="g-4">
+                                {savedInvitations.items.map((invitation) => (
+                                    <Col md={6} lg={4} key={invitation.id}>
+                                        <InvitationCard invitation={invitation} />
+                                    </Col>
+                                ))}
+                            </Row>
+                            <LoadMoreButton hasMore={savedInvitations.hasMore} loading={savedInvitations.loadingMore} onClick={savedInvitations.loadMore} />
+                        </>
                     )}
                 </Tab>
             </Tabs>
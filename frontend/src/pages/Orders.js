@@ -3,38 +3,23 @@ import { Container, Row, Col, Card, Badge, Spinner, Alert, Button, Form, InputGr
 import { Link } from 'react-router-dom';
 import { FiPackage, FiSearch, FiEye, FiFilter, FiTruck, FiCheck } from 'react-icons/fi';
 import apiService from '../services/apiService';
+import useCursorPages from '../hooks/useCursorPages';
+import LoadMoreButton from '../components/common/LoadMoreButton';
 import { formatPrice, formatDateTime, getOrderStatusDisplay } from '../utils/helpers';
 
 const Orders = () => {
-    const [orders, setOrders] = useState([]);
+    // Đơn hàng mới nhất trước, các trang cũ hơn tải thêm khi bấm "Xem thêm"; bộ lọc áp dụng trên các đơn đã tải
+    const { items: orders, loading, loadingMore, hasMore, loadMore, error: loadError } =
+        useCursorPages(params => apiService.getUserOrders(params));
+    const error = loadError ? 'Không thể tải danh sách đơn hàng. Vui lòng thử lại.' : '';
     const [filteredOrders, setFilteredOrders] = useState([]);
-    const [loading, setLoading] = useState(true);
-    const [error, setError] = useState('');
     const [searchTerm, setSearchTerm] = useState('');
     const [statusFilter, setStatusFilter] = useState('');
 
-    useEffect(() => {
-        fetchOrders();
-    }, []);
-
     useEffect(() => {
         filterOrders();
     }, [orders, searchTerm, statusFilter]);
 
-    const fetchOrders = async () => {
-        try {
-            setLoading(true);
-            setError('');
-            const response = await apiService.getUserOrders();
-            setOrders(response.data);
-        } catch (error) {
-            setError('Không thể tải danh sách đơn hàng. Vui lòng thử lại.');
-            console.error('Error fetching orders:', error);
-        } finally {
-            setLoading(false);
-        }
-    };
-
     const filterOrders = () => {
         let filtered = [...orders];
 
@@ -243,7 +228,7 @@ const Orders = () => {
                 </Row>
             )}
 
-            {/* Pagination could be added here if needed */}
+            <LoadMoreButton hasMore={hasMore} loading={loadingMore} onClick={loadMore} />
         </Container>
     );
 };
@@ -13,6 +13,7 @@ const TemplateDetail = () => {
     const { isAuthenticated } = useAuth();
     const [template, setTemplate] = useState(null);
     const [cardTemplates, setCardTemplates] = useState([]);
+    const [hasMoreCardTemplates, setHasMoreCardTemplates] = useState(false);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
     const [relatedTemplates, setRelatedTemplates] = useState([]);
@@ -28,16 +29,18 @@ const TemplateDetail = () => {
             
             const [templateResponse, cardTemplatesResponse] = await Promise.all([
                 apiService.getTemplateById(id),
+                // Chỉ cần biết có mẫu HTML hay không: một trang là đủ
                 apiService.getCardTemplatesByTemplateId(id)
             ]);
             
             const templateData = templateResponse.data;
             setTemplate(templateData);
             setCardTemplates(cardTemplatesResponse.data);
+            setHasMoreCardTemplates(Boolean(apiService.getNextCursor(cardTemplatesResponse)));
             
             // Fetch related templates from same category
             if (templateData.categoryId) {
-                const relatedResponse = await apiService.getTemplatesByCategory(templateData.categoryId);
+                const relatedResponse = await apiService.getTemplatesByCategory(templateData.categoryId, { size: 5 });
                 const related = relatedResponse.data
                     .filter(t => t.id !== parseInt(id))
                     .slice(0, 4);
@@ -210,7 +213,7 @@ const TemplateDetail = () => {
                                             size="lg"
                                         >
                                             <FiEdit3 className="me-2" />
-                                            Tùy chỉnh HTML ({cardTemplates.length} mẫu)
+                                            Tùy chỉnh HTML ({cardTemplates.length}{hasMoreCardTemplates ? '+' : ''} mẫu)
                                         </Button>
                                     )}
                                     
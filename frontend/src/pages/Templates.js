@@ -3,16 +3,22 @@ import { Container, Row, Col, Card, Button, Form, InputGroup, Spinner, Badge, Al
 import { Link, useSearchParams, useNavigate } from 'react-router-dom';
 import { FiSearch, FiGrid, FiList, FiFilter, FiLock } from 'react-icons/fi';
 import apiService from '../services/apiService';
-import { formatPrice, debounce } from '../utils/helpers';
+import useCursorPages from '../hooks/useCursorPages';
+import LoadMoreButton from '../components/common/LoadMoreButton';
+import { formatPrice } from '../utils/helpers';
 import { useAuth } from '../contexts/AuthContext';
 
+// Khoảng giá -> tham số minPrice (bao gồm) / maxPrice (không bao gồm) của API
+const PRICE_RANGES = {
+    'under-50k': { maxPrice: 50000 },
+    '50k-100k': { minPrice: 50000, maxPrice: 100000 },
+    'over-100k': { minPrice: 100000 }
+};
+
 const Templates = () => {
     const { isAuthenticated } = useAuth();
     const navigate = useNavigate();
-    const [templates, setTemplates] = useState([]);
     const [categories, setCategories] = useState([]);
-    const [loading, setLoading] = useState(true);
-    const [error, setError] = useState('');
     const [viewMode, setViewMode] = useState('grid');
     const [searchParams, setSearchParams] = useSearchParams();
     const [showLoginModal, setShowLoginModal] = useState(false);
@@ -22,25 +28,16 @@ const Templates = () => {
     const [selectedCategory, setSelectedCategory] = useState(searchParams.get('category') || '');
     const [priceRange, setPriceRange] = useState(searchParams.get('priceRange') || '');
 
+    // Từ khóa tìm kiếm sau khi người dùng ngừng gõ 500ms
+    const [debouncedSearch, setDebouncedSearch] = useState(searchTerm);
+
     useEffect(() => {
         fetchCategories();
     }, []);
 
     useEffect(() => {
-        fetchTemplates();
-    }, [selectedCategory, priceRange]);
-
-    // Debounced search
-    useEffect(() => {
-        const debouncedSearch = debounce(() => {
-            if (searchTerm) {
-                searchTemplates();
-            } else {
-                fetchTemplates();
-            }
-        }, 500);
-
-        debouncedSearch();
+        const timer = setTimeout(() => setDebouncedSearch(searchTerm), 500);
+        return () => clearTimeout(timer);
     }, [searchTerm]);
 
     const fetchCategories = async () => {
@@ -52,72 +49,17 @@ const Templates = () => {
         }
     };
 
-    const fetchTemplates = async () => {
-        try {
-            setLoading(true);
-            setError('');
-            
-            let response;
-            if (selectedCategory) {
-                response = await apiService.getTemplatesByCategory(selectedCategory);
-            } else {
-                response = await apiService.getTemplates();
-            }
-            
-            let filteredTemplates = response.data;
-            
-            // Apply price filter
-            if (priceRange) {
-                filteredTemplates = applyPriceFilter(filteredTemplates, priceRange);
-            }
-            
-            setTemplates(filteredTemplates);
-        } catch (error) {
-            setError('Không thể tải danh sách mẫu thiệp. Vui lòng thử lại.');
-            console.error('Error fetching templates:', error);
-        } finally {
-            setLoading(false);
-        }
-    };
-
-    const searchTemplates = async () => {
-        try {
-            setLoading(true);
-            setError('');
-            
-            const response = await apiService.searchTemplates(searchTerm);
-            let filteredTemplates = response.data;
-            
-            // Apply filters
-            if (selectedCategory) {
-                filteredTemplates = filteredTemplates.filter(t => t.categoryId.toString() === selectedCategory);
-            }
-            
-            if (priceRange) {
-                filteredTemplates = applyPriceFilter(filteredTemplates, priceRange);
-            }
-            
-            setTemplates(filteredTemplates);
-        } catch (error) {
-            setError('Không thể tìm kiếm mẫu thiệp. Vui lòng thử lại.');
-            console.error('Error searching templates:', error);
-        } finally {
-            setLoading(false);
-        }
-    };
-
-    const applyPriceFilter = (templates, range) => {
-        switch (range) {
-            case 'under-50k':
-                return templates.filter(t => t.price < 50000);
-            case '50k-100k':
-                return templates.filter(t => t.price >= 50000 && t.price <= 100000);
-            case 'over-100k':
-                return templates.filter(t => t.price > 100000);
-            default:
-                return templates;
-        }
-    };
+    // Mẫu thiệp theo từng trang; danh mục, từ khóa và khoảng giá đều được lọc ở server
+    // nên trang nào cũng đầy đủ, đổi bộ lọc thì tải lại từ trang đầu
+    const templatePages = useCursorPages(params => apiService.getTemplates({
+        ...params,
+        categoryId: selectedCategory || undefined,
+        keyword: debouncedSearch || undefined,
+        ...PRICE_RANGES[priceRange]
+    }), [selectedCategory, debouncedSearch, priceRange]);
+    const templates = templatePages.items;
+    const loading = templatePages.loading;
+    const error = templatePages.error ? 'Không thể tải danh sách mẫu thiệp. Vui lòng thử lại.' : '';
 
     const handleFilterChange = (filterType, value) => {
         const newParams = new URLSearchParams(searchParams);
@@ -214,7 +156,7 @@ const Templates = () => {
                                         <option value="">Tất cả giá</option>
                                         <option value="under-50k">Dưới 50.000₫</option>
                                         <option value="50k-100k">50.000₫ - 100.000₫</option>
-                                        <option value="over-100k">Trên 100.000₫</option>
+                                        <option value="over-100k">Từ 100.000₫</option>
                                     </Form.Select>
                                 </Col>
                                 
@@ -365,6 +307,10 @@ const Templates = () => {
                 </Row>
             )}
 
+            {!loading && (
+                <LoadMoreButton hasMore={templatePages.hasMore} loading={templatePages.loadingMore} onClick={templatePages.loadMore} />
+            )}
+
             {/* Login Modal */}
             <Modal show={showLoginModal} onHide={() => setShowLoginModal(false)} centered>
                 <Modal.Header closeButton>
@@ -1,17 +1,24 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState } from 'react';
 import { Container, Row, Col, Card, Button, Table, Badge, Modal, Form, Alert, Spinner, Tab, Tabs } from 'react-bootstrap';
 import { Link } from 'react-router-dom';
 import { FiPlus, FiEdit3, FiTrash2, FiArrowLeft, FiCode, FiEye, FiImage } from 'react-icons/fi';
 import { useForm } from 'react-hook-form';
 import apiService from '../../services/apiService';
+import useCursorPages from '../../hooks/useCursorPages';
+import LoadMoreButton from '../../components/common/LoadMoreButton';
 import { formatDateTime } from '../../utils/helpers';
 import { toast } from 'react-toastify';
 
 const AdminCardTemplates = () => {
-    const [cardTemplates, setCardTemplates] = useState([]);
-    const [templates, setTemplates] = useState([]);
-    const [loading, setLoading] = useState(true);
-    const [error, setError] = useState('');
+    const cardTemplatePages = useCursorPages(params => apiService.getMyCardTemplates(params));
+    const cardTemplates = cardTemplatePages.items;
+    // Danh sách template gốc cho ô chọn, tải thêm từng trang khi cần
+    const templatePages = useCursorPages(params => apiService.getTemplates(params));
+    const templates = templatePages.items;
+    const loading = cardTemplatePages.loading || templatePages.loading;
+    const error = cardTemplatePages.error || templatePages.error
+        ? 'Không thể tải danh sách mẫu thiệp HTML. Vui lòng thử lại.'
+        : '';
     const [showModal, setShowModal] = useState(false);
     const [editingTemplate, setEditingTemplate] = useState(null);
     const [deleteModal, setDeleteModal] = useState({ show: false, template: null });
@@ -24,27 +31,8 @@ const AdminCardTemplates = () => {
         formState: { errors }
     } = useForm();
 
-    useEffect(() => {
-        fetchData();
-    }, []);
-
-    const fetchData = async () => {
-        try {
-            setLoading(true);
-            setError('');
-            const [cardTemplatesResponse, templatesResponse] = await Promise.all([
-                apiService.getMyCardTemplates(),
-                apiService.getTemplates()
-            ]);
-            setCardTemplates(cardTemplatesResponse.data);
-            setTemplates(templatesResponse.data);
-        } catch (error) {
-            setError('Không thể tải danh sách mẫu thiệp HTML. Vui lòng thử lại.');
-            console.error('Error fetching data:', error);
-        } finally {
-            setLoading(false);
-        }
-    };
+    // Sau khi thêm/sửa/xóa: tải lại danh sách mẫu HTML từ trang đầu
+    const fetchData = () => cardTemplatePages.reload();
 
     const handleShowModal = (template = null) => {
         setEditingTemplate(template);
@@ -257,6 +245,12 @@ const AdminCardTemplates = () => {
                                     ))}
                                 </tbody>
                             </Table>
+                            <LoadMoreButton
+                                className="text-center mb-3"
+                                hasMore={cardTemplatePages.hasMore}
+                                loading={cardTemplatePages.loadingMore}
+                                onClick={cardTemplatePages.loadMore}
+                            />
                         </div>
                     )}
                 </Card.Body>
@@ -289,7 +283,19 @@ const AdminCardTemplates = () => {
                                                         {template.name} - {template.categoryName}
                                                     </option>
                                                 ))}
+                                                {/* Template gốc của mẫu đang sửa có thể chưa nằm trong các trang đã tải */}
+                                                {editingTemplate && !templates.some(t => t.id === editingTemplate.templateId) && (
+                                                    <option value={editingTemplate.templateId}>
+                                                        {editingTemplate.templateName}
+                                                    </option>
+                                                )}
                                             </Form.Select>
+                                            <LoadMoreButton
+                                                className="mt-2"
+                                                hasMore={templatePages.hasMore}
+                                                loading={templatePages.loadingMore}
+                                                onClick={templatePages.loadMore}
+                                            />
                                             {errors.templateId && (
                                                 <Form.Control.Feedback type="invalid">
                                                     {errors.templateId.message}
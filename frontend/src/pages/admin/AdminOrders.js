@@ -12,6 +12,8 @@ const AdminOrders = () => {
     const [error, setError] = useState('');
     const [success, setSuccess] = useState('');
     const [filterStatus, setFilterStatus] = useState('');
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     
     const orderStatuses = [
         { value: 'PENDING', label: 'Chờ xử lý', color: 'warning' },
@@ -26,16 +28,19 @@ const AdminOrders = () => {
         loadOrders();
     }, [filterStatus]);
 
+    const fetchOrdersPage = (params) => {
+        if (filterStatus) {
+            return apiService.getOrdersByStatus(filterStatus, params);
+        }
+        return apiService.getAllOrders(params);
+    };
+
     const loadOrders = async () => {
         try {
             setLoading(true);
-            let response;
-            if (filterStatus) {
-                response = await apiService.getOrdersByStatus(filterStatus);
-            } else {
-                response = await apiService.getAllOrders();
-            }
+            const response = await fetchOrdersPage();
             setOrders(response.data);
+            setNextCursor(apiService.getNextCursor(response));
         } catch (error) {
             setError('Không thể tải dữ liệu: ' + error.message);
         } finally {
@@ -43,6 +48,20 @@ const AdminOrders = () => {
         }
     };
 
+    // Tải trang tiếp theo theo cursor và nối vào danh sách hiện tại
+    const loadMoreOrders = async () => {
+        try {
+            setLoadingMore(true);
+            const response = await fetchOrdersPage({ cursor: nextCursor });
+            setOrders(prev => [...prev, ...response.data]);
+            setNextCursor(apiService.getNextCursor(response));
+        } catch (error) {
+            setError('Không thể tải thêm đơn hàng: ' + error.message);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleViewOrder = async (orderId) => {
         try {
             const response = await apiService.getOrderById(orderId);
@@ -206,6 +225,14 @@ const AdminOrders = () => {
                         </tbody>
                     </Table>
                     
+                    {nextCursor && (
+                        <div className="text-center">
+                            <Button variant="outline-primary" onClick={loadMoreOrders} disabled={loadingMore}>
+                                {loadingMore ? 'Đang tải...' : 'Tải thêm'}
+                            </Button>
+                        </div>
+                    )}
+                    
                     {orders.length === 0 && (
                         <div className="text-center py-4">
                             <FiShoppingCart className="fs-1 text-muted mb-3" />
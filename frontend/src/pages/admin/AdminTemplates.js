@@ -3,11 +3,14 @@ import { Container, Row, Col, Card, Button, Table, Modal, Form, Alert, Badge, Sp
 import { Link } from 'react-router-dom';
 import { FiArrowLeft, FiImage, FiPlus, FiEdit3, FiTrash2, FiEye, FiSave, FiX } from 'react-icons/fi';
 import apiService from '../../services/apiService';
+import useCursorPages from '../../hooks/useCursorPages';
+import LoadMoreButton from '../../components/common/LoadMoreButton';
 
 const AdminTemplates = () => {
-    const [templates, setTemplates] = useState([]);
+    const templatePages = useCursorPages(params => apiService.getTemplates(params));
+    const templates = templatePages.items;
     const [categories, setCategories] = useState([]);
-    const [loading, setLoading] = useState(true);
+    const loading = templatePages.loading;
     const [showModal, setShowModal] = useState(false);
     const [editingTemplate, setEditingTemplate] = useState(null);
     const [error, setError] = useState('');
@@ -23,25 +26,27 @@ const AdminTemplates = () => {
     });
 
     useEffect(() => {
-        loadData();
+        loadCategories();
     }, []);
 
-    const loadData = async () => {
+    useEffect(() => {
+        if (templatePages.error) {
+            setError('Không thể tải dữ liệu: ' + templatePages.error.message);
+        }
+    }, [templatePages.error]);
+
+    const loadCategories = async () => {
         try {
-            setLoading(true);
-            const [templatesRes, categoriesRes] = await Promise.all([
-                apiService.getTemplates(),
-                apiService.getCategories()
-            ]);
-            setTemplates(templatesRes.data);
+            const categoriesRes = await apiService.getCategories();
             setCategories(categoriesRes.data);
         } catch (error) {
             setError('Không thể tải dữ liệu: ' + error.message);
-        } finally {
-            setLoading(false);
         }
     };
 
+    // Sau khi thêm/sửa/xóa: tải lại danh sách từ trang đầu
+    const loadData = () => templatePages.reload();
+
     const resetForm = () => {
         setFormData({
             name: '',
@@ -286,6 +291,13 @@ const AdminTemplates = () => {
                         </tbody>
                     </Table>
 
+                    <LoadMoreButton
+                        className="text-center mb-3"
+                        hasMore={templatePages.hasMore}
+                        loading={templatePages.loadingMore}
+                        onClick={templatePages.loadMore}
+                    />
+
                     {templates.length === 0 && (
                         <div className="text-center py-4">
                             <FiImage size={48} className="text-muted mb-3" />
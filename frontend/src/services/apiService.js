@@ -4,6 +4,8 @@ class ApiService {
     constructor() {
         this.api = axios.create({
             baseURL: process.env.REACT_APP_API_URL || 'http://localhost:8080/api/v1',
+            // Gửi kèm cookie refresh_token (HttpOnly, server đặt) khi làm mới token và đăng xuất
+            withCredentials: true,
             headers: {
                 'Content-Type': 'application/json'
             }
@@ -26,7 +28,19 @@ class ApiService {
         // Response interceptor
         this.api.interceptors.response.use(
             (response) => response,
-            (error) => {
+            async (error) => {
+                const original = error.config;
+                if (error.response?.status === 401 && original && !original._retry
+                    && this.token && !original.url?.startsWith('/auth/lam_moi_token')) {
+                    // Access token hết hạn: làm mới một lần (các request đồng thời dùng chung) rồi gửi lại request
+                    original._retry = true;
+                    try {
+                        await this.refreshSession();
+                        return this.api(original);
+                    } catch (refreshError) {
+                        // Refresh token không còn hợp lệ, xử lý như phiên hết hạn bên dưới
+                    }
+                }
                 if (error.response?.status === 401) {
                     // Token expired or invalid
                     this.removeAuthToken();
@@ -47,6 +61,27 @@ class ApiService {
         }
     }
 
+    // AuthContext đăng ký để lưu access token mới sau mỗi lần làm mới (refresh token nằm trong cookie HttpOnly)
+    onTokensRefreshed(listener) {
+        this.tokensRefreshedListener = listener;
+    }
+
+    async refreshSession() {
+        if (!this.refreshPromise) {
+            this.refreshPromise = this.api.post('/auth/lam_moi_token')
+                .then((response) => {
+                    const { token } = response.data;
+                    this.setAuthToken(token);
+                    this.tokensRefreshedListener?.(token);
+                    return token;
+                })
+                .finally(() => {
+                    this.refreshPromise = null;
+                });
+        }
+        return this.refreshPromise;
+    }
+
     removeAuthToken() {
         this.token = null;
         delete this.api.defaults.headers.common['Authorization'];
@@ -69,6 +104,16 @@ class ApiService {
         return this.api.get('/auth/thong_tin_ca_nhan');
     }
 
+    // Thu hồi phiên trên server (access token và refresh token của phiên không dùng được nữa), server xóa cookie refresh_token
+    async logout() {
+        return this.api.post('/auth/dang_xuat');
+    }
+
+    // Đổi mật khẩu: mọi phiên khác bị đăng xuất, server trả về cặp token mới cho phiên hiện tại
+    async changePassword(data) {
+        return this.api.post('/auth/doi_mat_khau', data);
+    }
+
     // Categories APIs
     async getCategories() {
         return this.api.get('/categories');
@@ -90,21 +135,27 @@ class ApiService {
         return this.api.delete(`/categories/${id}`);
     }
 
+    // Phân trang keyset: các API danh sách nhận { cursor, size } (size tối đa 100),
+    // cursor của trang sau nằm trong header X-Next-Cursor, không có header khi đã hết dữ liệu
+    getNextCursor(response) {
+        return response.headers['x-next-cursor'] || null;
+    }
+
     // Templates APIs
-    async getTemplates() {
-        return this.api.get('/templates');
+    async getTemplates(params = {}) {
+        return this.api.get('/templates', { params });
     }
 
     async getTemplateById(id) {
         return this.api.get(`/templates/${id}`);
     }
 
-    async getTemplatesByCategory(categoryId) {
-        return this.api.get(`/templates/danh_muc/${categoryId}`);
+    async getTemplatesByCategory(categoryId, params = {}) {
+        return this.api.get(`/templates/danh_muc/${categoryId}`, { params });
     }
 
-    async searchTemplates(keyword) {
-        return this.api.get(`/templates/tim_kiem?keyword=${encodeURIComponent(keyword)}`);
+    async searchTemplates(keyword, params = {}) {
+        return this.api.get('/templates/tim_kiem', { params: { ...params, keyword } });
     }
 
     async createTemplate(data) {
@@ -124,12 +175,12 @@ class ApiService {
         return this.api.post('/custom-invitations', data);
     }
 
-    async getUserInvitations() {
-        return this.api.get('/custom-invitations');
+    async getUserInvitations(params = {}) {
+        return this.api.get('/custom-invitations', { params });
     }
 
-    async getUserSavedInvitations() {
-        return this.api.get('/custom-invitations/da_luu');
+    async getUserSavedInvitations(params = {}) {
+        return this.api.get('/custom-invitations/da_luu', { params });
     }
 
     async getCustomInvitationById(id) {
@@ -149,12 +200,12 @@ class ApiService {
     }
 
     // Card Templates APIs (Admin)
-    async getCardTemplates() {
-        return this.api.get('/card-templates');
+    async getCardTemplates(params = {}) {
+        return this.api.get('/card-templates', { params });
     }
 
-    async getCardTemplatesByTemplateId(templateId) {
-        return this.api.get(`/card-templates/template/${templateId}`);
+    async getCardTemplatesByTemplateId(templateId, params = {}) {
+        return this.api.get(`/card-templates/template/${templateId}`, { params });
     }
 
     async getCardTemplateById(id) {
@@ -173,8 +224,8 @@ class ApiService {
         return this.api.delete(`/card-templates/${id}`);
     }
 
-    async getMyCardTemplates() {
-        return this.api.get('/card-templates/my-templates');
+    async getMyCardTemplates(params = {}) {
+        return this.api.get('/card-templates/my-templates', { params });
     }
 
     // Customized Cards APIs (User)
@@ -182,12 +233,17 @@ class ApiService {
         return this.api.post('/customized-cards/render', data);
     }
 
-    async getUserCustomizedCards() {
-        return this.api.get('/customized-cards');
+    async getUserCustomizedCards(params = {}) {
+        return this.api.get('/customized-cards', { params });
+    }
+
+    async getUserSavedCards(params = {}) {
+        return this.api.get('/customized-cards/saved', { params });
     }
 
-    async getUserSavedCards() {
-        return this.api.get('/customized-cards/saved');
+    // Danh sách tóm tắt (không kèm HTML/CSS), params: { savedOnly, cursor, size }
+    async getUserCardSummaries(params = {}) {
+        return this.api.get('/customized-cards/tom_tat', { params });
     }
 
     async getCustomizedCardById(id) {
@@ -211,8 +267,8 @@ class ApiService {
         return this.api.post('/orders', data);
     }
 
-    async getUserOrders() {
-        return this.api.get('/orders');
+    async getUserOrders(params = {}) {
+        return this.api.get('/orders', { params });
     }
 
     async getOrderById(id) {
@@ -227,58 +283,41 @@ class ApiService {
         return this.api.put(`/orders/${id}/trang_thai?status=${status}`);
     }
 
-    async getOrdersByStatus(status) {
-        return this.api.get(`/orders/theo_trang_thai?status=${status}`);
+    async getOrdersByStatus(status, params = {}) {
+        return this.api.get('/orders/theo_trang_thai', { params: { ...params, status } });
     }
 
-    async getAllOrders() {
-        return this.api.get('/orders/all');
+    async getAllOrders(params = {}) {
+        return this.api.get('/orders/all', { params });
     }
 
     // Statistics APIs for Dashboard
     async getDashboardStats() {
+        // Số liệu tổng hợp tính ở server, không tải toàn bộ danh sách đơn hàng
+        const [orderCount, revenue, templateCount, categories] = await Promise.all([
+            this.api.get('/orders/count'),
+            this.api.get('/orders/doanh_thu'),
+            this.api.get('/templates/count'),
+            this.api.get('/categories')
+        ]);
+
+        let totalUsers = 'N/A';
         try {
-            const [users, orders, templates, categories] = await Promise.all([
-                this.api.get('/users/count'),
-                this.api.get('/orders/all'),
-                this.api.get('/templates'),
-                this.api.get('/categories')
-            ]);
-            
-            // Calculate stats from API responses
-            const totalOrders = orders.data.length;
-            const totalRevenue = orders.data.reduce((sum, order) => sum + (order.totalAmount || 0), 0);
-            
-            return {
-                data: {
-                    totalUsers: users.data || 0,
-                    totalOrders: totalOrders,
-                    totalTemplates: templates.data.length,
-                    totalCategories: categories.data.length,
-                    totalRevenue: totalRevenue
-                }
-            };
+            const users = await this.api.get('/users/count');
+            totalUsers = users.data || 0;
         } catch (error) {
-            // Fallback if some APIs are not available
-            const [orders, templates, categories] = await Promise.all([
-                this.api.get('/orders/all'),
-                this.api.get('/templates'),
-                this.api.get('/categories')
-            ]);
-            
-            const totalOrders = orders.data.length;
-            const totalRevenue = orders.data.reduce((sum, order) => sum + (order.totalAmount || 0), 0);
-            
-            return {
-                data: {
-                    totalUsers: 'N/A',
-                    totalOrders: totalOrders,
-                    totalTemplates: templates.data.length,
-                    totalCategories: categories.data.length,
-                    totalRevenue: totalRevenue
-                }
-            };
+            // Fallback if user count API is not available
         }
+
+        return {
+            data: {
+                totalUsers: totalUsers,
+                totalOrders: orderCount.data || 0,
+                totalTemplates: templateCount.data || 0,
+                totalCategories: categories.data.length,
+                totalRevenue: Number(revenue.data) || 0
+            }
+        };
     }
 
     // File upload (if needed)
@@ -86,7 +86,8 @@ DB_PASSWORD=ThiepCuoi2024DB!@#Strong
 
 # JWT Configuration - ĐÃ THIẾT LẬP SECRET MẠNH
 JWT_SECRET=ThiepCuoi2024JWTSecretKeyVeryLongAndSecureForProductionUseOnly123456789ABCDEF
-JWT_EXPIRATION=86400000
+JWT_EXPIRATION=900000
+JWT_REFRESH_EXPIRATION=2592000000
 
 # Application Settings
 SPRING_PROFILES_ACTIVE=production